@@ -2,8 +2,10 @@ package com.learning;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JunitLearningApplication {
     public static void main(String[] args) {
         SpringApplication.run(JunitLearningApplication.class, args);
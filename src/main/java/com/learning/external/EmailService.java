@@ -1,5 +1,7 @@
 package com.learning.external;
 
+import java.util.List;
+
 /**
  * EmailService - External email sending service
  * 
@@ -10,6 +12,12 @@ package com.learning.external;
  */
 public interface EmailService {
 
+    /**
+     * One notification in a sendShippingNotifications batch
+     */
+    record ShippingNotification(String toEmail, Long orderId, String trackingNumber) {
+    }
+
     /**
      * Send welcome email to new user
      * 
@@ -47,4 +55,20 @@ public interface EmailService {
      * @return true if sent successfully
      */
     boolean sendShippingNotification(String toEmail, Long orderId, String trackingNumber);
+
+    /**
+     * Send several shipping notifications in one call
+     * 
+     * Default: one sendShippingNotification call per notification. Providers
+     * with a bulk API should override it.
+     * 
+     * @param notifications Notifications to send
+     * @return One result per notification, in the same order
+     */
+    default List<Boolean> sendShippingNotifications(List<ShippingNotification> notifications) {
+        return notifications.stream()
+                .map(notification -> sendShippingNotification(notification.toEmail(), notification.orderId(),
+                        notification.trackingNumber()))
+                .toList();
+    }
 }
@@ -0,0 +1,79 @@
+package com.learning.external;
+
+import com.learning.resilience.DependencyGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Wraps every PaymentGateway and EmailService bean in its resilient decorator
+ * 
+ * Each dependency gets its own DependencyGuard (own threads, own breaker), so
+ * a slow mail server cannot take payment capacity with it. Tuning, per
+ * dependency (payment / email):
+ *   resilience.<dep>.max-concurrent     bulkhead threads   (20 / 5)
+ *   resilience.<dep>.queue-capacity     waiting calls      (50 / 100)
+ *   resilience.<dep>.min-timeout        timeout floor      (200ms / 500ms)
+ *   resilience.<dep>.max-timeout        timeout ceiling    (5s / 10s)
+ * PaymentGateway.verifyPayment is additionally hedged (HedgingPaymentGateway,
+ * outside the guard so each attempt is guarded on its own):
+ *   resilience.payment.hedge-percentile  hedge after this latency percentile (0.95)
+ *   resilience.payment.hedge-budget      max hedges per verify call          (0.05)
+ * resilience.enabled=false leaves the beans unwrapped.
+ * 
+ * The application ships no PaymentGateway or EmailService implementation:
+ * the deployment contributes them as beans (the provider's adapter) and
+ * they are wrapped here, before OrderService and UserService are injected
+ * with them. Mocks registered with @MockBean replace the bean after
+ * post-processing and stay unwrapped.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "resilience.enabled", matchIfMissing = true)
+public class ExternalResilienceConfiguration {
+
+    @Bean
+    static BeanPostProcessor externalResiliencePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+            Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PaymentGateway gateway && !(bean instanceof ResilientPaymentGateway)
+                        && !(bean instanceof HedgingPaymentGateway)) {
+                    DependencyGuard guard = guard("payment", 20, 50, Duration.ofMillis(200), Duration.ofSeconds(5));
+                    return new HedgingPaymentGateway(new ResilientPaymentGateway(gateway, guard),
+                            environment.getProperty("resilience.payment.max-concurrent", Integer.class, 20),
+                            environment.getProperty("resilience.payment.hedge-percentile", Double.class, 0.95),
+                            environment.getProperty("resilience.payment.hedge-budget", Double.class, 0.05),
+                            Duration.ofMillis(1), registry());
+                }
+                if (bean instanceof EmailService emailService && !(bean instanceof ResilientEmailService)) {
+                    return new ResilientEmailService(emailService, guard("email", 5, 100,
+                            Duration.ofMillis(500), Duration.ofSeconds(10)));
+                }
+                return bean;
+            }
+
+            private DependencyGuard guard(String dependency, int maxConcurrent, int queueCapacity,
+                    Duration minTimeout, Duration maxTimeout) {
+                String prefix = "resilience." + dependency + ".";
+                DependencyGuard.Settings settings = DependencyGuard.Settings.of(
+                        environment.getProperty(prefix + "max-concurrent", Integer.class, maxConcurrent),
+                        environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity),
+                        environment.getProperty(prefix + "min-timeout", Duration.class, minTimeout),
+                        environment.getProperty(prefix + "max-timeout", Duration.class, maxTimeout));
+                return new DependencyGuard(dependency, settings, registry());
+            }
+
+            private MeterRegistry registry() {
+                return meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+            }
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package com.learning.external;
+
+import com.learning.resilience.LatencyTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PaymentGateway decorator that hedges verifyPayment
+ * 
+ * verifyPayment is idempotent, so when the first request has not answered
+ * within the recent p-th percentile latency a second identical request is
+ * sent; whichever answers first wins and the other is cancelled. Tail
+ * latency drops to roughly "percentile delay + a normal call".
+ * Every other method is passed straight through (charges and refunds are
+ * NOT idempotent and must never be sent twice).
+ * 
+ * [NOTES]
+ * - Hedge budget: a token bucket. Each verify call deposits budgetRatio of
+ * a token (capped at BUDGET_BURST tokens), each hedge spends one, so hedges
+ * stay within budgetRatio of traffic even if the dependency slows down
+ * across the board (when hedging would only double its load).
+ * - No hedging until MIN_SAMPLES latencies are known, and never sooner than
+ * minDelay.
+ * - Only completed attempts feed the latency window (cancelled losers have
+ * no latency), which biases the delay slightly low; the budget bounds the
+ * cost of that.
+ * - Attempts run on a bounded pool: threads workers, as many queued. When
+ * it is full the primary runs on the caller's thread (straight into the
+ * delegate's guard, unhedged) and a hedge is not sent, so a slow gateway
+ * cannot pile up verify calls in memory.
+ * - Meters: payment.verify.hedges{outcome=sent|won|budget_exhausted|pool_full}
+ */
+public class HedgingPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    private static final int MIN_SAMPLES = 20;
+    private static final long TOKEN = 1_000;
+    private static final long BUDGET_BURST = 10 * TOKEN;
+
+    private final PaymentGateway delegate;
+    private final ThreadPoolExecutor executor;
+    private final LatencyTracker latencies = new LatencyTracker(1_000, 50);
+    private final double hedgePercentile;
+    private final long depositPerCall;
+    private final Duration minDelay;
+    private final AtomicLong budget = new AtomicLong(BUDGET_BURST);
+
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter budgetExhausted;
+    private final Counter poolFull;
+
+    public HedgingPaymentGateway(PaymentGateway delegate, int threads, double hedgePercentile,
+            double budgetRatio, Duration minDelay, MeterRegistry meterRegistry) {
+        if (hedgePercentile <= 0 || hedgePercentile >= 1 || budgetRatio < 0 || budgetRatio > 1) {
+            throw new IllegalArgumentException("hedgePercentile must be in (0, 1) and budgetRatio in [0, 1]");
+        }
+        this.delegate = delegate;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-verify-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hedgePercentile = hedgePercentile;
+        this.depositPerCall = (long) (budgetRatio * TOKEN);
+        this.minDelay = minDelay;
+        this.hedgesSent = hedgeCounter("sent", meterRegistry);
+        this.hedgesWon = hedgeCounter("won", meterRegistry);
+        this.budgetExhausted = hedgeCounter("budget_exhausted", meterRegistry);
+        this.poolFull = hedgeCounter("pool_full", meterRegistry);
+    }
+
+    @Override
+    public boolean verifyPayment(String transactionId) {
+        deposit();
+        CompletionService<Boolean> attempts = new ExecutorCompletionService<>(executor);
+        Future<Boolean> primary;
+        try {
+            primary = attempts.submit(timed(() -> delegate.verifyPayment(transactionId)));
+        } catch (RejectedExecutionException e) {
+            poolFull.increment();
+            return delegate.verifyPayment(transactionId);
+        }
+        Future<Boolean> hedge = null;
+        try {
+            Future<Boolean> first = null;
+            Duration delay = hedgeDelay();
+            if (delay != null) {
+                first = attempts.poll(delay.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    if (withdraw()) {
+                        hedge = hedge(attempts, transactionId);
+                    } else {
+                        budgetExhausted.increment();
+                    }
+                }
+            }
+            if (first == null) {
+                first = attempts.take();
+            }
+            try {
+                boolean verified = first.get();
+                if (first == hedge) {
+                    hedgesWon.increment();
+                }
+                return verified;
+            } catch (ExecutionException e) {
+                if (hedge == null) {
+                    throw unwrap(e);
+                }
+                // one attempt failed: the other one decides
+                try {
+                    return attempts.take().get();
+                } catch (ExecutionException second) {
+                    throw unwrap(second);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying payment " + transactionId, e);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public PaymentResult processPayment(BigDecimal amount, String currency, String cardToken) {
+        return delegate.processPayment(amount, currency, cardToken);
+    }
+
+    @Override
+    public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+        return delegate.refundPayment(transactionId, amount);
+    }
+
+    @Override
+    public List<PaymentResult> processPayments(List<PaymentRequest> requests) {
+        return delegate.processPayments(requests);
+    }
+
+    // The second attempt, or null if the pool is full (its token goes back)
+    private Future<Boolean> hedge(CompletionService<Boolean> attempts, String transactionId) {
+        try {
+            Future<Boolean> hedge = attempts.submit(timed(() -> delegate.verifyPayment(transactionId)));
+            hedgesSent.increment();
+            return hedge;
+        } catch (RejectedExecutionException e) {
+            poolFull.increment();
+            budget.getAndUpdate(tokens -> Math.min(BUDGET_BURST, tokens + TOKEN));
+            return null;
+        }
+    }
+
+    /**
+     * Current hedge delay, or null while there are too few samples to hedge
+     */
+    public Duration hedgeDelay() {
+        if (latencies.sampleCount() < MIN_SAMPLES) {
+            return null;
+        }
+        Duration delay = latencies.percentile(hedgePercentile);
+        return delay.compareTo(minDelay) < 0 ? minDelay : delay;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> Callable<T> timed(Callable<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = call.call();
+            latencies.record(System.nanoTime() - start);
+            return result;
+        };
+    }
+
+    private void deposit() {
+        budget.getAndUpdate(tokens -> Math.min(BUDGET_BURST, tokens + depositPerCall));
+    }
+
+    private boolean withdraw() {
+        long tokens;
+        do {
+            tokens = budget.get();
+            if (tokens < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(tokens, tokens - TOKEN));
+        return true;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("Payment verification failed", e.getCause());
+    }
+
+    private static Counter hedgeCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("payment.verify.hedges")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
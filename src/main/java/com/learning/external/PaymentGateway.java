@@ -1,6 +1,8 @@
 package com.learning.external;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * PaymentGateway - External payment processing service
@@ -14,8 +16,33 @@ public interface PaymentGateway {
 
     /**
      * Payment result containing status and transaction ID
+     * 
+     * Not success normally means "not charged". The exception is unknown():
+     * the charge was sent but its answer did not come in time, so it may
+     * still go through; outcome completes with the real result once the call
+     * ends. Such a result must be settled (confirmed or refunded), never
+     * treated as a decline.
+     */
+    record PaymentResult(boolean success, String transactionId, String message,
+            CompletableFuture<PaymentResult> outcome) {
+
+        public PaymentResult(boolean success, String transactionId, String message) {
+            this(success, transactionId, message, null);
+        }
+
+        public static PaymentResult unknown(String message, CompletableFuture<PaymentResult> outcome) {
+            return new PaymentResult(false, null, message, outcome);
+        }
+
+        public boolean outcomeUnknown() {
+            return outcome != null;
+        }
+    }
+
+    /**
+     * One charge in a batch (same arguments as processPayment)
      */
-    record PaymentResult(boolean success, String transactionId, String message) {
+    record PaymentRequest(BigDecimal amount, String currency, String cardToken) {
     }
 
     /**
@@ -44,4 +71,19 @@ public interface PaymentGateway {
      * @return true if payment is confirmed
      */
     boolean verifyPayment(String transactionId);
+
+    /**
+     * Process several payments in one round trip
+     * 
+     * Default: one processPayment call per request. Gateways with a batch
+     * endpoint should override it.
+     * 
+     * @param requests Charges to make
+     * @return One result per request, in the same order
+     */
+    default List<PaymentResult> processPayments(List<PaymentRequest> requests) {
+        return requests.stream()
+                .map(request -> processPayment(request.amount(), request.currency(), request.cardToken()))
+                .toList();
+    }
 }
@@ -0,0 +1,65 @@
+package com.learning.external;
+
+import com.learning.resilience.DependencyGuard;
+import com.learning.resilience.DependencyUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * EmailService decorator: every call goes through a DependencyGuard
+ * (circuit breaker, bulkhead, adaptive timeout)
+ * 
+ * Emails are best-effort, so a refused or timed-out send is logged and
+ * reported as false (not sent) instead of failing the caller.
+ * 
+ * Batches (sendShippingNotifications) keep the interface default: one
+ * guarded send per notification, since the adaptive timeout is learned from
+ * single sends and would cut a large batch short.
+ */
+public class ResilientEmailService implements EmailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientEmailService.class);
+
+    private final EmailService delegate;
+    private final DependencyGuard guard;
+
+    public ResilientEmailService(EmailService delegate, DependencyGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public boolean sendWelcomeEmail(String toEmail, String userName) {
+        return send(() -> delegate.sendWelcomeEmail(toEmail, userName));
+    }
+
+    @Override
+    public boolean sendPasswordResetEmail(String toEmail, String resetToken) {
+        return send(() -> delegate.sendPasswordResetEmail(toEmail, resetToken));
+    }
+
+    @Override
+    public boolean sendOrderConfirmation(String toEmail, Long orderId, String totalAmount) {
+        return send(() -> delegate.sendOrderConfirmation(toEmail, orderId, totalAmount));
+    }
+
+    @Override
+    public boolean sendShippingNotification(String toEmail, Long orderId, String trackingNumber) {
+        return send(() -> delegate.sendShippingNotification(toEmail, orderId, trackingNumber));
+    }
+
+    public DependencyGuard getGuard() {
+        return guard;
+    }
+
+    private boolean send(Callable<Boolean> call) {
+        try {
+            return guard.call(call);
+        } catch (DependencyUnavailableException e) {
+            log.warn("Email not sent: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.learning.external;
+
+import com.learning.resilience.DependencyGuard;
+import com.learning.resilience.DependencyUnavailableException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PaymentGateway decorator: every call goes through a DependencyGuard
+ * (circuit breaker, bulkhead, adaptive timeout)
+ * 
+ * A refused call throws DependencyUnavailableException (nothing was sent).
+ * A charge that times out is not cancelled: processPayment returns
+ * PaymentResult.unknown(), whose outcome completes with the gateway's real
+ * answer when it arrives, for the caller to confirm or refund. Refunds and
+ * verifications that time out throw, like refusals.
+ */
+public class ResilientPaymentGateway implements PaymentGateway {
+
+    /**
+     * Requests per guarded batch call
+     */
+    public static final int BATCH_CHUNK = 10;
+
+    private final PaymentGateway delegate;
+    private final DependencyGuard guard;
+
+    public ResilientPaymentGateway(PaymentGateway delegate, DependencyGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public PaymentResult processPayment(BigDecimal amount, String currency, String cardToken) {
+        CompletableFuture<PaymentResult> outcome = new CompletableFuture<>();
+        try {
+            return guard.call(() -> delegate.processPayment(amount, currency, cardToken),
+                    (result, error) -> outcome.complete(
+                            result != null ? result : new PaymentResult(false, null, error.getMessage())));
+        } catch (DependencyUnavailableException e) {
+            if (e.isOutcomeUnknown()) {
+                return PaymentResult.unknown(e.getMessage(), outcome);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+        return guard.call(() -> delegate.refundPayment(transactionId, amount));
+    }
+
+    @Override
+    public boolean verifyPayment(String transactionId) {
+        return guard.call(() -> delegate.verifyPayment(transactionId));
+    }
+
+    /**
+     * The delegate's batch endpoint, one guarded call per chunk of
+     * BATCH_CHUNK requests with the timeout scaled to the chunk: a slow
+     * chunk cannot void the answers of the chunks before it. A refused
+     * chunk fails (not charged); every charge of a timed-out chunk is
+     * unknown(), and settles with its own line of the chunk's late answer.
+     */
+    @Override
+    public List<PaymentResult> processPayments(List<PaymentRequest> requests) {
+        List<PaymentResult> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += BATCH_CHUNK) {
+            results.addAll(processChunk(List.copyOf(
+                    requests.subList(from, Math.min(from + BATCH_CHUNK, requests.size())))));
+        }
+        return results;
+    }
+
+    private List<PaymentResult> processChunk(List<PaymentRequest> chunk) {
+        List<CompletableFuture<PaymentResult>> outcomes = chunk.stream()
+                .map(request -> new CompletableFuture<PaymentResult>())
+                .toList();
+        try {
+            return guard.call(() -> delegate.processPayments(chunk), chunk.size(), (results, error) -> {
+                for (int i = 0; i < outcomes.size(); i++) {
+                    outcomes.get(i).complete(
+                            results != null ? results.get(i) : new PaymentResult(false, null, error.getMessage()));
+                }
+            });
+        } catch (DependencyUnavailableException e) {
+            if (e.isOutcomeUnknown()) {
+                return outcomes.stream().map(outcome -> PaymentResult.unknown(e.getMessage(), outcome)).toList();
+            }
+            return Collections.nCopies(chunk.size(), new PaymentResult(false, null, e.getMessage()));
+        }
+    }
+
+    public DependencyGuard getGuard() {
+        return guard;
+    }
+}
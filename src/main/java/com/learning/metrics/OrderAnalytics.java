@@ -0,0 +1,208 @@
+package com.learning.metrics;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.repository.OrderRepository;
+import com.learning.service.OrderStateMachine;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * OrderAnalytics - live order counts, revenue per minute and orders per
+ * user segment, kept up to date by OrderStateMachine listeners
+ * 
+ * [NOTES]
+ * Writes happen on every order-path thread, reads are rare: every counter
+ * is a LongAdder (striped cells, no CAS retry storms under contention).
+ * - Per status: current = baseline + delta. delta is +1/-1 per transition;
+ * baseline is set by resync() from OrderRepository.countByStatus (one
+ * COUNT per status at startup, never a findByStatus scan).
+ * - Revenue: a ring of WINDOW_MINUTES buckets indexed by minute % size. A
+ * bucket is immutable (minute, adders); a new minute CASes a fresh bucket
+ * in, so an add never lands in or gets reset with the wrong minute. Revenue
+ * is net of cancellations: an order counts while it is paid (has a
+ * paymentId and is neither PENDING nor CANCELLED).
+ * - Segments: one adder per segment (orders created), from a pluggable
+ * segmenter. User has no segment attribute, so the default segments by the
+ * spend band of the order; the segmenter must return few distinct values.
+ * snapshot() reads STATUS + WINDOW_MINUTES + segment adders: its cost does
+ * not depend on the number of orders.
+ */
+@Component
+public class OrderAnalytics {
+
+    public static final int WINDOW_MINUTES = 60;
+
+    private static final BigDecimal MEDIUM_SPEND = new BigDecimal("50");
+    private static final BigDecimal LARGE_SPEND = new BigDecimal("500");
+
+    /**
+     * Orders and revenue of the minute starting at "minute"
+     */
+    public record MinuteRevenue(Instant minute, long paidOrders, BigDecimal revenue) {
+    }
+
+    public record Snapshot(Map<OrderStatus, Long> ordersByStatus, List<MinuteRevenue> revenuePerMinute,
+            Map<String, Long> ordersBySegment) {
+    }
+
+    private record Bucket(long minute, LongAdder paidOrders, LongAdder revenueCents) {
+
+        Bucket(long minute) {
+            this(minute, new LongAdder(), new LongAdder());
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final Clock clock;
+    private final Function<Order, String> segmenter;
+
+    private final LongAdder[] statusDelta = new LongAdder[OrderStatus.values().length];
+    private final AtomicLongArray statusBaseline = new AtomicLongArray(OrderStatus.values().length);
+    private final AtomicReferenceArray<Bucket> minutes = new AtomicReferenceArray<>(WINDOW_MINUTES);
+    private final ConcurrentHashMap<String, LongAdder> segments = new ConcurrentHashMap<>();
+
+    public OrderAnalytics(OrderStateMachine stateMachine, OrderRepository orderRepository) {
+        this(stateMachine, orderRepository, Clock.systemUTC(), OrderAnalytics::spendBand);
+    }
+
+    public OrderAnalytics(OrderStateMachine stateMachine, OrderRepository orderRepository, Clock clock,
+            Function<Order, String> segmenter) {
+        this.orderRepository = orderRepository;
+        this.clock = clock;
+        this.segmenter = segmenter;
+        for (int i = 0; i < statusDelta.length; i++) {
+            statusDelta[i] = new LongAdder();
+        }
+        stateMachine.addListener((order, from, to, timeInFrom) -> record(order, from, to));
+    }
+
+    /**
+     * Default segmenter: "small" (< 50), "medium" (< 500) or "large" spend
+     */
+    static String spendBand(Order order) {
+        BigDecimal total = order.getTotalAmount();
+        if (total == null || total.compareTo(MEDIUM_SPEND) < 0) {
+            return "small";
+        }
+        return total.compareTo(LARGE_SPEND) < 0 ? "medium" : "large";
+    }
+
+    /**
+     * Re-read the per-status baselines from the repository
+     * 
+     * Runs once when the application is ready. Exact unless orders change
+     * status while the counts are being read (then off by those orders until
+     * the next resync).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resync() {
+        for (OrderStatus status : OrderStatus.values()) {
+            long delta = statusDelta[status.ordinal()].sum();
+            statusBaseline.set(status.ordinal(), orderRepository.countByStatus(status) - delta);
+        }
+    }
+
+    private void record(Order order, OrderStatus from, OrderStatus to) {
+        if (from != null) {
+            statusDelta[from.ordinal()].decrement();
+        } else {
+            segments.computeIfAbsent(segmenter.apply(order), segment -> new LongAdder()).increment();
+        }
+        statusDelta[to.ordinal()].increment();
+
+        boolean paidBefore = from != null && isPaid(order, from);
+        boolean paidAfter = isPaid(order, to);
+        if (paidBefore != paidAfter) {
+            Bucket bucket = currentBucket();
+            long cents = cents(order.getTotalAmount());
+            if (paidAfter) {
+                bucket.paidOrders().increment();
+                bucket.revenueCents().add(cents);
+            } else {
+                bucket.paidOrders().decrement();
+                bucket.revenueCents().add(-cents);
+            }
+        }
+    }
+
+    private static boolean isPaid(Order order, OrderStatus status) {
+        return order.getPaymentId() != null && status != OrderStatus.PENDING && status != OrderStatus.CANCELLED;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValue();
+    }
+
+    private long currentMinute() {
+        return Math.floorDiv(clock.millis(), Duration.ofMinutes(1).toMillis());
+    }
+
+    private Bucket currentBucket() {
+        long minute = currentMinute();
+        int slot = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+        while (true) {
+            Bucket bucket = minutes.get(slot);
+            if (bucket != null && bucket.minute() >= minute) {
+                // >: the clock went back; count it in the newer minute
+                return bucket;
+            }
+            Bucket fresh = new Bucket(minute);
+            if (minutes.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Orders currently in a status
+     */
+    public long count(OrderStatus status) {
+        return statusBaseline.get(status.ordinal()) + statusDelta[status.ordinal()].sum();
+    }
+
+    /**
+     * Counts per status, the last WINDOW_MINUTES minutes of revenue (oldest
+     * first, current minute last, empty minutes included) and orders per
+     * segment
+     */
+    public Snapshot snapshot() {
+        Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, count(status));
+        }
+
+        long now = currentMinute();
+        List<MinuteRevenue> revenue = new ArrayList<>(WINDOW_MINUTES);
+        for (long minute = now - WINDOW_MINUTES + 1; minute <= now; minute++) {
+            Bucket bucket = minutes.get((int) Math.floorMod(minute, (long) WINDOW_MINUTES));
+            boolean current = bucket != null && bucket.minute() == minute;
+            revenue.add(new MinuteRevenue(Instant.ofEpochSecond(minute * 60),
+                    current ? bucket.paidOrders().sum() : 0,
+                    BigDecimal.valueOf(current ? bucket.revenueCents().sum() : 0, 2)));
+        }
+
+        Map<String, Long> bySegment = new TreeMap<>();
+        segments.forEach((segment, orders) -> bySegment.put(segment, orders.sum()));
+        return new Snapshot(Collections.unmodifiableMap(byStatus), Collections.unmodifiableList(revenue),
+                Collections.unmodifiableMap(bySegment));
+    }
+}
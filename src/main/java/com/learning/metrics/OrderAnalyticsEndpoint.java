@@ -0,0 +1,26 @@
+package com.learning.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/orderanalytics - OrderAnalytics.snapshot() as JSON
+ * 
+ * Reads counters only: answers in the same time for 10 orders or 10 million.
+ */
+@Component
+@Endpoint(id = "orderanalytics")
+public class OrderAnalyticsEndpoint {
+
+    private final OrderAnalytics orderAnalytics;
+
+    public OrderAnalyticsEndpoint(OrderAnalytics orderAnalytics) {
+        this.orderAnalytics = orderAnalytics;
+    }
+
+    @ReadOperation
+    public OrderAnalytics.Snapshot orderAnalytics() {
+        return orderAnalytics.snapshot();
+    }
+}
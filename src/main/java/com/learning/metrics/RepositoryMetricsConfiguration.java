@@ -0,0 +1,42 @@
+package com.learning.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.time.Duration;
+
+/**
+ * Adds a RepositoryMetricsInterceptor to EVERY Spring Data repository
+ * 
+ * Hooks into the repository factory (before the repository proxy is built)
+ * instead of AOP, so no aspect dependency and no pointcut to maintain.
+ * Metrics are served by the actuator at /actuator/metrics/repository.invocations
+ * and /actuator/metrics/repository.rows.
+ */
+@Configuration(proxyBeanMethods = false)
+public class RepositoryMetricsConfiguration {
+
+    @Bean
+    static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${repository.metrics.slow-threshold:200ms}") Duration slowThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new RepositoryMetricsInterceptor(
+                                            repositoryInformation.getRepositoryInterface().getSimpleName(),
+                                            meterRegistry::getIfAvailable,
+                                            slowThreshold))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.learning.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times every call on one Spring Data repository
+ * 
+ * Meters (tags: repository, method):
+ * - repository.invocations - Timer with percentile histogram (+ outcome tag)
+ * - repository.rows - rows returned (collections, Optional, Slice/Page)
+ * 
+ * The registry is looked up lazily and may be absent (slices without
+ * actuator): calls then pass through untimed.
+ * 
+ * Calls slower than the threshold are logged with the SHAPE of the bound
+ * parameters (type, length, size) - never the values, which may be emails or
+ * passwords.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.learning.repository.SlowQuery");
+
+    private final String repositoryName;
+    private final Supplier<MeterRegistry> registry;
+    private final Duration slowThreshold;
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> errorTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(String repositoryName, Supplier<MeterRegistry> registry,
+            Duration slowThreshold) {
+        this.repositoryName = repositoryName;
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MeterRegistry meterRegistry = registry.get();
+        if (meterRegistry == null) {
+            // Test slices without actuator
+            return invocation.proceed();
+        }
+
+        String method = invocation.getMethod().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            long elapsed = System.nanoTime() - start;
+            successTimers.computeIfAbsent(method, m -> timer(meterRegistry, m, "success"))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            long rows = rowCount(result);
+            if (rows >= 0) {
+                rowSummaries.computeIfAbsent(method, m -> rowSummary(meterRegistry, m)).record(rows);
+            }
+            logIfSlow(method, invocation.getArguments(), elapsed, rows);
+            return result;
+        } catch (Throwable ex) {
+            long elapsed = System.nanoTime() - start;
+            errorTimers.computeIfAbsent(method, m -> timer(meterRegistry, m, "error"))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            logIfSlow(method, invocation.getArguments(), elapsed, -1);
+            throw ex;
+        }
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String method, String outcome) {
+        return Timer.builder("repository.invocations")
+                .description("Spring Data repository call latency")
+                .tag("repository", repositoryName)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary rowSummary(MeterRegistry meterRegistry, String method) {
+        return DistributionSummary.builder("repository.rows")
+                .description("Rows returned per repository call")
+                .baseUnit("rows")
+                .tag("repository", repositoryName)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    private void logIfSlow(String method, Object[] args, long elapsedNanos, long rows) {
+        if (elapsedNanos < slowThreshold.toNanos()) {
+            return;
+        }
+        slowQueryLog.warn("Slow repository call {}.{}({}) took {} ms, rows={}",
+                repositoryName, method, parameterShapes(args),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows < 0 ? "n/a" : rows);
+    }
+
+    /**
+     * Rows in a repository result, or -1 when the result is not row-shaped
+     * (count, exists, void)
+     */
+    static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result == null || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+
+    static String parameterShapes(Object[] args) {
+        StringJoiner shapes = new StringJoiner(", ");
+        for (Object arg : args == null ? new Object[0] : args) {
+            shapes.add(shape(arg));
+        }
+        return shapes.toString();
+    }
+
+    private static String shape(Object arg) {
+        if (arg == null) {
+            return "null";
+        }
+        if (arg instanceof CharSequence text) {
+            return "String(len=" + text.length() + ")";
+        }
+        if (arg instanceof byte[] bytes) {
+            return "byte[" + bytes.length + "]";
+        }
+        if (arg instanceof Collection<?> collection) {
+            return arg.getClass().getSimpleName() + "(size=" + collection.size() + ")";
+        }
+        if (arg instanceof Pageable page) {
+            return page.isPaged() ? "Pageable(page=" + page.getPageNumber() + ", size=" + page.getPageSize() + ")"
+                    : "Pageable(unpaged)";
+        }
+        return arg.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,115 @@
+package com.learning.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * ArchivedUser - a long-inactive user moved out of the hot users table
+ * 
+ * Same columns as users plus archived_at. The id is copied from the original
+ * row (no generation), so Persistable tells Spring Data the row is new and
+ * save() issues a plain INSERT instead of a merge SELECT.
+ */
+@Entity
+@Table(name = "users_archive", indexes = @Index(name = "idx_users_archive_email_hash", columnList = "email_hash"))
+public class ArchivedUser implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "email_hash", nullable = false, length = 16, columnDefinition = "BINARY(16)")
+    private byte[] emailHash;
+
+    @Column(nullable = false)
+    private String password;
+
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // JPA requires a no-arg constructor
+    protected ArchivedUser() {
+    }
+
+    public static ArchivedUser from(User user, LocalDateTime archivedAt) {
+        ArchivedUser archived = new ArchivedUser();
+        archived.id = user.getId();
+        archived.name = user.getName();
+        archived.email = user.getEmail();
+        archived.emailHash = User.hashEmail(user.getEmail());
+        archived.password = user.getPassword();
+        archived.active = user.isActive();
+        archived.createdAt = user.getCreatedAt();
+        archived.updatedAt = user.getUpdatedAt();
+        archived.archivedAt = archivedAt;
+        return archived;
+    }
+
+    /**
+     * Detached User view of the archived row (never attached to the persistence
+     * context, so it cannot be written back to users by accident)
+     */
+    public User toUser() {
+        User user = new User(name, email, password);
+        user.setId(id);
+        user.setActive(active);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        return user;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedUser{id=" + id + ", email='" + email + "', archivedAt=" + archivedAt + "}";
+    }
+}
@@ -0,0 +1,135 @@
+package com.learning.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * DiscountRule - one row of discount_rules, the stored form of a PricingRule
+ * 
+ * kind says which columns are set (TIER: minSubtotal, PRODUCT / USER:
+ * targetId, TIME_WINDOW: validFrom / validUntil). Rows are few and written
+ * by hand, so the id is a plain AUTO_INCREMENT. Inactive rows are kept but
+ * not priced.
+ */
+@Entity
+@Table(name = "discount_rules")
+public class DiscountRule {
+
+    public enum Kind {
+        TIER, PRODUCT, USER, TIME_WINDOW
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Kind kind;
+
+    @Column(name = "target_id")
+    private Long targetId;
+
+    @Column(name = "min_subtotal", precision = 19, scale = 2)
+    private BigDecimal minSubtotal;
+
+    @Column(name = "valid_from")
+    private Instant validFrom;
+
+    @Column(name = "valid_until")
+    private Instant validUntil;
+
+    @Column(nullable = false)
+    private int percent;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    // JPA requires a no-arg constructor
+    protected DiscountRule() {
+    }
+
+    private DiscountRule(Kind kind, int percent) {
+        this.kind = kind;
+        this.percent = percent;
+    }
+
+    public static DiscountRule tier(BigDecimal minSubtotal, int percent) {
+        DiscountRule rule = new DiscountRule(Kind.TIER, percent);
+        rule.minSubtotal = minSubtotal;
+        return rule;
+    }
+
+    public static DiscountRule product(Long productId, int percent) {
+        DiscountRule rule = new DiscountRule(Kind.PRODUCT, percent);
+        rule.targetId = productId;
+        return rule;
+    }
+
+    public static DiscountRule user(Long userId, int percent) {
+        DiscountRule rule = new DiscountRule(Kind.USER, percent);
+        rule.targetId = userId;
+        return rule;
+    }
+
+    public static DiscountRule timeWindow(Instant validFrom, Instant validUntil, int percent) {
+        DiscountRule rule = new DiscountRule(Kind.TIME_WINDOW, percent);
+        rule.validFrom = validFrom;
+        rule.validUntil = validUntil;
+        return rule;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public BigDecimal getMinSubtotal() {
+        return minSubtotal;
+    }
+
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    public Instant getValidUntil() {
+        return validUntil;
+    }
+
+    public int getPercent() {
+        return percent;
+    }
+
+    public void setPercent(int percent) {
+        this.percent = percent;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    public String toString() {
+        return "DiscountRule{id=" + id + ", kind=" + kind + ", percent=" + percent + ", active=" + active + "}";
+    }
+}
@@ -0,0 +1,206 @@
+package com.learning.model;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Money - fixed-point amount: minorUnits / 10^scale, in a long
+ * 
+ * Same numbers and the same scale rules as the BigDecimal arithmetic it
+ * replaces in order totals, so results convert back equal (scale included):
+ * - plus / minus: scale = max of the two scales
+ * - times(quantity): scale unchanged
+ * - percent(p): exact, like BigDecimal.divide(100) - scale grows by 0..2
+ * only as far as needed
+ * 
+ * [NOTES]
+ * - Arithmetic is overflow-checked (ArithmeticException), never wraps.
+ * Callers that must always produce a result fall back to BigDecimal.
+ * - Only amounts with scale 0..MAX_SCALE and an unscaled value that fits a
+ * long are representable (see fits()).
+ * - For a currency, minor units use its default fraction digits (INR, USD:
+ * 2; JPY: 0).
+ * - Sum adds many amounts of mixed scales without allocating per term (order
+ * totals, running totals, fork-join partials).
+ */
+public record Money(long minorUnits, int scale) implements Comparable<Money> {
+
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public static final Money ZERO = new Money(0, 0);
+
+    /**
+     * Mutable sum of amounts: kept at the largest scale added so far, so it
+     * converts back equal (scale included) to the BigDecimal sum of the same
+     * terms. Overflow throws ArithmeticException and leaves the sum unusable.
+     * Not thread-safe.
+     */
+    public static final class Sum {
+
+        private long units;
+        private int scale;
+
+        /**
+         * Add termUnits / 10^termScale
+         */
+        public void add(long termUnits, int termScale) {
+            long term = align(termUnits, termScale); // may rescale units: read them after
+            units = Math.addExact(units, term);
+        }
+
+        /**
+         * Take away termUnits / 10^termScale (the scale stays where it is)
+         */
+        public void subtract(long termUnits, int termScale) {
+            long term = align(termUnits, termScale);
+            units = Math.subtractExact(units, term);
+        }
+
+        /**
+         * Add price * quantity
+         */
+        public void addLine(Money price, int quantity) {
+            add(Math.multiplyExact(price.minorUnits, (long) quantity), price.scale);
+        }
+
+        public long units() {
+            return units;
+        }
+
+        public int scale() {
+            return scale;
+        }
+
+        public BigDecimal toBigDecimal() {
+            return BigDecimal.valueOf(units, scale);
+        }
+
+        // The term at the sum's scale, raising the sum's scale first if the term's is larger
+        private long align(long termUnits, int termScale) {
+            if (termScale > scale) {
+                units = rescale(units, scale, termScale);
+                scale = termScale;
+                return termUnits;
+            }
+            return rescale(termUnits, termScale, scale);
+        }
+    }
+
+    public Money {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be 0.." + MAX_SCALE + ": " + scale);
+        }
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    /**
+     * Exact conversion, keeping the amount's scale
+     * 
+     * @throws ArithmeticException if the amount is not representable
+     */
+    public static Money of(BigDecimal amount) {
+        if (!fits(amount)) {
+            throw new ArithmeticException("Not representable as Money: " + amount);
+        }
+        return new Money(amount.unscaledValue().longValueExact(), amount.scale());
+    }
+
+    public static boolean fits(BigDecimal amount) {
+        return amount.scale() >= 0 && amount.scale() <= MAX_SCALE && amount.unscaledValue().bitLength() < 64;
+    }
+
+    public Money plus(Money other) {
+        int resultScale = Math.max(scale, other.scale);
+        return new Money(Math.addExact(rescale(minorUnits, scale, resultScale),
+                rescale(other.minorUnits, other.scale, resultScale)), resultScale);
+    }
+
+    public Money minus(Money other) {
+        int resultScale = Math.max(scale, other.scale);
+        return new Money(Math.subtractExact(rescale(minorUnits, scale, resultScale),
+                rescale(other.minorUnits, other.scale, resultScale)), resultScale);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), scale);
+    }
+
+    /**
+     * percent% of this amount, exact (same value and scale as
+     * amount.multiply(percent).divide(100))
+     */
+    public Money percent(int percent) {
+        long hundredths = Math.multiplyExact(minorUnits, (long) percent);
+        if (hundredths % 100 == 0) {
+            return new Money(hundredths / 100, scale);
+        }
+        if (hundredths % 10 == 0) {
+            return new Money(hundredths / 10, checkedScale(scale + 1));
+        }
+        return new Money(hundredths, checkedScale(scale + 2));
+    }
+
+    /**
+     * This amount less percent% (same as amount - amount.percent(percent))
+     */
+    public Money minusPercent(int percent) {
+        return minus(percent(percent));
+    }
+
+    /**
+     * Numeric order, ignoring scale (like BigDecimal.compareTo)
+     */
+    @Override
+    public int compareTo(Money other) {
+        int commonScale = Math.max(scale, other.scale);
+        try {
+            return Long.compare(rescale(minorUnits, scale, commonScale),
+                    rescale(other.minorUnits, other.scale, commonScale));
+        } catch (ArithmeticException overflow) {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * units at fromScale expressed at toScale (toScale >= fromScale), overflow-checked
+     */
+    static long rescale(long units, int fromScale, int toScale) {
+        return fromScale == toScale ? units : Math.multiplyExact(units, POWERS_OF_TEN[toScale - fromScale]);
+    }
+
+    /**
+     * units at fromScale expressed at toScale (toScale <= fromScale); the
+     * caller knows the division is exact
+     */
+    static long unscale(long units, int fromScale, int toScale) {
+        return fromScale == toScale ? units : units / POWERS_OF_TEN[fromScale - toScale];
+    }
+
+    private static int checkedScale(int scale) {
+        if (scale > MAX_SCALE) {
+            throw new ArithmeticException("Scale overflow: " + scale);
+        }
+        return scale;
+    }
+}
@@ -1,30 +1,114 @@
 package com.learning.model;
 
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Order entity - represents a customer order
  * Real-world model for complex Mockito scenarios
  */
+@Entity
+@Table(name = "orders")
 public class Order {
 
     public enum OrderStatus {
         PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
     }
 
+    /**
+     * Item count from which calculateTotal() runs fork-join
+     */
+    public static final int DEFAULT_PARALLEL_TOTAL_THRESHOLD = 50_000;
+
+    // Pooled sequence: the id is known before INSERT, so items can be JDBC-batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
+
+    @Column(name = "user_id", nullable = false)
     private Long userId;
-    private List<OrderItem> items;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrderItem> items = new ArrayList<>();
+
+    @Column(name = "total_amount", precision = 19, scale = 2)
     private BigDecimal totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
     private OrderStatus status;
+
+    @Column(name = "shipping_address", length = 500)
     private String shippingAddress;
+
+    // Captured at checkout, not rewritten by profile changes; older orders have none
+    @Column(name = "contact_email")
+    private String contactEmail;
+
+    @Column(name = "payment_id", length = 100)
     private String paymentId;
+
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Newest status event folded in by apply(), and how many; the next event is eventSeq + 1
+    @Column(name = "last_event_id")
+    private Long lastEventId;
+
+    @Column(name = "event_seq", nullable = false)
+    private int eventSeq;
+
+    @Version
+    private Long version;
+
+    @Transient
+    private BigDecimal cachedTotal;
+
+    @Transient
+    private Money totalMoney;
+
+    // Running total kept by addItem / removeItem / updateItem, built lazily in one pass
+    @Transient
+    private boolean runningValid;
+
+    @Transient
+    private boolean runningExact;
+
+    @Transient
+    private Money.Sum running;
+
+    @Transient
+    private int[] itemsPerScale;
+
+    @Transient
+    private int itemCount;
+
+    @Transient
+    private Map<OrderItem, Integer> positions;
+
     // Constructors
     public Order() {
         this.status = OrderStatus.PENDING;
@@ -34,20 +118,231 @@ public class Order {
     public Order(Long userId, List<OrderItem> items) {
         this();
         this.userId = userId;
-        this.items = items;
-        this.totalAmount = calculateTotal();
+        setItems(items);
+        this.totalAmount = recalculateTotal();
     }
 
-    // Calculate total from items
+    // Calculate total from items (no allocation per item; only the result)
     public BigDecimal calculateTotal() {
+        return calculateTotal(DEFAULT_PARALLEL_TOTAL_THRESHOLD);
+    }
+
+    /**
+     * calculateTotal(), summed fork-join when the order has at least
+     * parallelThreshold items
+     */
+    public BigDecimal calculateTotal(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel total threshold must be positive: " + parallelThreshold);
+        }
         if (items == null || items.isEmpty()) {
             return BigDecimal.ZERO;
         }
+        if (items.size() >= parallelThreshold) {
+            Money.Sum total = ParallelOrderTotal.sum(items);
+            return total != null ? total.toBigDecimal() : calculateTotalExact();
+        }
+        Money.Sum total = new Money.Sum();
+        try {
+            for (int i = 0, n = items.size(); i < n; i++) {
+                OrderItem item = items.get(i);
+                Money price = item.priceMoney();
+                if (price == null) {
+                    return calculateTotalExact();
+                }
+                total.addLine(price, item.getQuantity());
+            }
+        } catch (ArithmeticException overflow) {
+            return calculateTotalExact();
+        }
+        return total.toBigDecimal();
+    }
+
+    private BigDecimal calculateTotalExact() {
         return items.stream()
                 .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    /**
+     * Full recompute from the items: rebuilds the running total, sets
+     * totalAmount and returns it. Use it to verify the running total or after
+     * changing items behind the add/remove/update methods.
+     */
+    public BigDecimal recalculateTotal() {
+        rebuildRunningTotal();
+        this.totalAmount = runningTotal();
+        return totalAmount;
+    }
+
+    /**
+     * Add a line; totalAmount and itemCount follow in O(1)
+     */
+    public void addItem(OrderItem item) {
+        ensureRunningTotal();
+        item.setOrder(this);
+        positions.put(item, items.size());
+        items.add(item);
+        accumulate(item, 1);
+        this.totalAmount = runningTotal();
+    }
+
+    /**
+     * Remove a line (by identity); totalAmount and itemCount follow in O(1)
+     * 
+     * The last line moves into the freed slot (no shift), so the order of
+     * getItems() after a removal is not meaningful.
+     * 
+     * @return false if the item is not part of this order
+     */
+    public boolean removeItem(OrderItem item) {
+        ensureRunningTotal();
+        int index = indexOf(item);
+        if (index < 0) {
+            return false;
+        }
+        accumulate(item, -1);
+        int last = items.size() - 1;
+        if (index != last) {
+            OrderItem moved = items.get(last);
+            items.set(index, moved);
+            positions.put(moved, index);
+        }
+        items.remove(last);
+        positions.remove(item);
+        this.totalAmount = runningTotal();
+        return true;
+    }
+
+    /**
+     * Change a line's quantity and price; totalAmount and itemCount follow in O(1)
+     */
+    public void updateItem(OrderItem item, int quantity, BigDecimal price) {
+        ensureRunningTotal();
+        if (indexOf(item) < 0) {
+            throw new IllegalArgumentException("Item is not part of order " + id + ": " + item);
+        }
+        accumulate(item, -1);
+        item.setQuantity(quantity);
+        item.setPrice(price);
+        accumulate(item, 1);
+        this.totalAmount = runningTotal();
+    }
+
+    /**
+     * Total quantity over all lines
+     */
+    public int getItemCount() {
+        ensureRunningTotal();
+        return itemCount;
+    }
+
+    private void ensureRunningTotal() {
+        if (!runningValid) {
+            rebuildRunningTotal();
+        }
+    }
+
+    private void rebuildRunningTotal() {
+        runningValid = true;
+        runningExact = true;
+        running = new Money.Sum();
+        itemsPerScale = new int[Money.MAX_SCALE + 1];
+        itemCount = 0;
+        for (int i = 0, n = items.size(); i < n; i++) {
+            accumulate(items.get(i), 1);
+        }
+        reindex();
+    }
+
+    private void reindex() {
+        positions = new IdentityHashMap<>(items.size());
+        for (int i = 0, n = items.size(); i < n; i++) {
+            positions.put(items.get(i), i);
+        }
+    }
+
+    // Add (sign 1) or take away (sign -1) one item's share of the running state
+    private void accumulate(OrderItem item, int sign) {
+        itemCount += sign * item.getQuantity();
+        if (!runningExact) {
+            return;
+        }
+        Money price = item.priceMoney();
+        if (price == null) {
+            runningExact = false;
+            return;
+        }
+        try {
+            long subtotal = Math.multiplyExact(price.minorUnits(), (long) item.getQuantity());
+            if (sign > 0) {
+                running.add(subtotal, price.scale());
+            } else {
+                running.subtract(subtotal, price.scale());
+            }
+            itemsPerScale[price.scale()] += sign;
+        } catch (ArithmeticException overflow) {
+            runningExact = false;
+        }
+    }
+
+    // Summed at the largest scale seen; reported at the largest scale still present, like the plain sum
+    private BigDecimal runningTotal() {
+        if (!runningExact) {
+            return calculateTotal();
+        }
+        if (items.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        int scale = running.scale();
+        while (scale > 0 && itemsPerScale[scale] == 0) {
+            scale--;
+        }
+        return BigDecimal.valueOf(Money.unscale(running.units(), running.scale(), scale), scale);
+    }
+
+    // O(1) while the list is only changed through addItem / removeItem; otherwise re-index once
+    private int indexOf(OrderItem item) {
+        Integer index = positions.get(item);
+        if (index == null || index >= items.size() || items.get(index) != item) {
+            reindex();
+            index = positions.get(item);
+        }
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * totalAmount as Money, or null if unset or not representable (cached
+     * per totalAmount value)
+     */
+    public Money totalMoney() {
+        BigDecimal current = totalAmount;
+        if (current != cachedTotal) {
+            totalMoney = current != null && Money.fits(current) ? Money.of(current) : null;
+            cachedTotal = current;
+        }
+        return totalMoney;
+    }
+
+    /**
+     * Fold a status event into this order (projection step)
+     * 
+     * @throws IllegalStateException if the event is not the order's next one
+     */
+    public void apply(OrderStatusEvent event) {
+        if (event.getSeq() != eventSeq + 1) {
+            throw new IllegalStateException("Event " + event.getSeq() + " of order " + id
+                    + " does not follow event " + eventSeq);
+        }
+        this.eventSeq = event.getSeq();
+        this.status = event.getToStatus();
+        if (event.getPaymentId() != null) {
+            this.paymentId = event.getPaymentId();
+        }
+        this.updatedAt = event.getOccurredAt();
+        this.lastEventId = event.getId();
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -70,7 +365,15 @@ public class Order {
     }
 
     public void setItems(List<OrderItem> items) {
-        this.items = items;
+        if (items == this.items) {
+            return;
+        }
+        this.items.clear();
+        if (items != null) {
+            items.forEach(item -> item.setOrder(this));
+            this.items.addAll(items);
+        }
+        this.runningValid = false;
     }
 
     public BigDecimal getTotalAmount() {
@@ -98,6 +401,14 @@ public class Order {
         this.shippingAddress = shippingAddress;
     }
 
+    public String getContactEmail() {
+        return contactEmail;
+    }
+
+    public void setContactEmail(String contactEmail) {
+        this.contactEmail = contactEmail;
+    }
+
     public String getPaymentId() {
         return paymentId;
     }
@@ -110,10 +421,42 @@ public class Order {
         return createdAt;
     }
 
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
 
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(Long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    public int getEventSeq() {
+        return eventSeq;
+    }
+
+    public void setEventSeq(int eventSeq) {
+        this.eventSeq = eventSeq;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Order{id=" + id + ", userId=" + userId + ", status=" + status +
@@ -1,19 +1,62 @@
 package com.learning.model;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
 import java.math.BigDecimal;
 import java.util.Objects;
 
 /**
  * OrderItem - represents a single item in an order
+ * 
+ * The back-reference to Order only exists for the order_id column; it has no
+ * getter so JSON serialization doesn't loop.
+ * 
+ * The price is also cached as Money (long minor units), so order totals add
+ * longs instead of allocating BigDecimals per line. The cache remembers which
+ * BigDecimal it was built from, so field writes by JPA (which bypass
+ * setPrice) are picked up too.
  */
+@Entity
+@Table(name = "order_items")
 public class OrderItem {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Column(name = "product_id")
     private Long productId;
+
+    @Column(name = "product_name")
     private String productName;
+
+    @Column(nullable = false)
     private int quantity;
+
+    @Column(precision = 19, scale = 2)
     private BigDecimal price;
 
+    @Transient
+    private BigDecimal cachedPrice;
+
+    @Transient
+    private Money priceMoney;
+
     public OrderItem() {
     }
 
@@ -33,6 +76,10 @@ public class OrderItem {
         this.id = id;
     }
 
+    void setOrder(Order order) {
+        this.order = order;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -66,9 +113,29 @@ public class OrderItem {
     }
 
     public BigDecimal getSubtotal() {
+        Money money = priceMoney();
+        if (money != null) {
+            try {
+                return BigDecimal.valueOf(Math.multiplyExact(money.minorUnits(), (long) quantity), money.scale());
+            } catch (ArithmeticException overflow) {
+                // fall through to the exact path
+            }
+        }
         return price.multiply(BigDecimal.valueOf(quantity));
     }
 
+    /**
+     * Price as Money, or null if there is no price or it is not representable
+     */
+    public Money priceMoney() {
+        BigDecimal current = price;
+        if (current != cachedPrice) {
+            priceMoney = current != null && Money.fits(current) ? Money.of(current) : null;
+            cachedPrice = current;
+        }
+        return priceMoney;
+    }
+
     @Override
     public String toString() {
         return "OrderItem{productName='" + productName + "', qty=" + quantity + ", price=" + price + "}";
@@ -0,0 +1,215 @@
+package com.learning.model;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * OrderItemColumns - compact, column-per-field storage for large item lists
+ * 
+ * One primitive array per OrderItem field instead of one object graph per
+ * line (OrderItem + Long + BigDecimal + String): about 30 bytes per line
+ * instead of 150+, and totals run over two primitive arrays.
+ * 
+ * Opt-in, next to the entity's item list rather than instead of it:
+ * OrderRepository.findItemColumns (OrderService.getOrderItemColumns) fills
+ * one from the order_items columns without loading OrderItem entities.
+ * 
+ * [NOTES]
+ * - Prices are Money minor units (long) plus a per-line scale (byte), so
+ * prices and totals convert back to the same BigDecimal, scale included.
+ * A price Money cannot hold is rejected.
+ * - Product names go through a dictionary: each distinct name is stored once
+ * and lines keep an int index (bulk orders repeat a few SKUs many times).
+ * - Null ids / product ids are stored as NO_VALUE.
+ * - asList() is a read-only view that builds an OrderItem per get(); nothing
+ * is cached, so the compact form stays compact. Bulk code should read the
+ * columns directly.
+ * - Append-only; not thread-safe.
+ */
+public class OrderItemColumns {
+
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] ids;
+    private long[] productIds;
+    private int[] nameIds;
+    private int[] quantities;
+    private long[] priceUnits;
+    private byte[] priceScales;
+    private int size;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIndex = new HashMap<>();
+
+    public OrderItemColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OrderItemColumns(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        ids = new long[capacity];
+        productIds = new long[capacity];
+        nameIds = new int[capacity];
+        quantities = new int[capacity];
+        priceUnits = new long[capacity];
+        priceScales = new byte[capacity];
+    }
+
+    public static OrderItemColumns of(List<OrderItem> items) {
+        OrderItemColumns columns = new OrderItemColumns(items.size());
+        items.forEach(columns::add);
+        return columns;
+    }
+
+    public void add(OrderItem item) {
+        add(item.getId(), item.getProductId(), item.getProductName(), item.getQuantity(), item.getPrice());
+    }
+
+    public void add(Long id, Long productId, String productName, int quantity, BigDecimal price) {
+        if (price == null || !Money.fits(price)) {
+            throw new IllegalArgumentException("Price not representable in minor units: " + price);
+        }
+        if (size == quantities.length) {
+            grow();
+        }
+        Money money = Money.of(price);
+        ids[size] = id != null ? id : NO_VALUE;
+        productIds[size] = productId != null ? productId : NO_VALUE;
+        nameIds[size] = nameId(productName);
+        quantities[size] = quantity;
+        priceUnits[size] = money.minorUnits();
+        priceScales[size] = (byte) money.scale();
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Long getId(int index) {
+        long id = ids[checkIndex(index)];
+        return id != NO_VALUE ? id : null;
+    }
+
+    public Long getProductId(int index) {
+        long productId = productIds[checkIndex(index)];
+        return productId != NO_VALUE ? productId : null;
+    }
+
+    public String getProductName(int index) {
+        int nameId = nameIds[checkIndex(index)];
+        return nameId >= 0 ? names.get(nameId) : null;
+    }
+
+    public int getQuantity(int index) {
+        return quantities[checkIndex(index)];
+    }
+
+    public BigDecimal getPrice(int index) {
+        checkIndex(index);
+        return BigDecimal.valueOf(priceUnits[index], priceScales[index]);
+    }
+
+    /**
+     * Number of distinct product names stored
+     */
+    public int distinctNames() {
+        return names.size();
+    }
+
+    /**
+     * Sum of price * quantity, equal (scale included) to Order.calculateTotal()
+     * over the same items
+     */
+    public BigDecimal calculateTotal() {
+        if (size == 0) {
+            return BigDecimal.ZERO;
+        }
+        Money.Sum sum = new Money.Sum();
+        try {
+            for (int i = 0; i < size; i++) {
+                sum.add(Math.multiplyExact(priceUnits[i], (long) quantities[i]), priceScales[i]);
+            }
+        } catch (ArithmeticException overflow) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int i = 0; i < size; i++) {
+                total = total.add(getPrice(i).multiply(BigDecimal.valueOf(quantities[i])));
+            }
+            return total;
+        }
+        return sum.toBigDecimal();
+    }
+
+    /**
+     * Read-only List view; every get() builds a fresh, detached OrderItem
+     */
+    public List<OrderItem> asList() {
+        return new ItemView();
+    }
+
+    /**
+     * Shrink the columns to the current size
+     */
+    public void trimToSize() {
+        resize(size);
+    }
+
+    private final class ItemView extends AbstractList<OrderItem> implements RandomAccess {
+
+        @Override
+        public OrderItem get(int index) {
+            OrderItem item = new OrderItem(getProductId(index), getProductName(index), getQuantity(index),
+                    getPrice(index));
+            item.setId(getId(index));
+            return item;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private int nameId(String productName) {
+        if (productName == null) {
+            return -1;
+        }
+        Integer existing = nameIndex.get(productName);
+        if (existing != null) {
+            return existing;
+        }
+        int nameId = names.size();
+        names.add(productName);
+        nameIndex.put(productName, nameId);
+        return nameId;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private void grow() {
+        resize(Math.max(DEFAULT_CAPACITY, size + (size >> 1)));
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        productIds = Arrays.copyOf(productIds, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        priceUnits = Arrays.copyOf(priceUnits, capacity);
+        priceScales = Arrays.copyOf(priceScales, capacity);
+    }
+}
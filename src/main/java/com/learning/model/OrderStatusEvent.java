@@ -0,0 +1,113 @@
+package com.learning.model;
+
+import com.learning.model.Order.OrderStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * OrderStatusEvent - one status transition of an order (append-only)
+ * 
+ * A few dozen bytes per transition instead of rewriting the whole order row.
+ * The id is a global, increasing sequence: an order snapshot remembers the
+ * last event it contains (Order#getLastEventId), later events are the tail.
+ * seq numbers the events of ONE order 1, 2, 3...; (order_id, seq) is unique,
+ * so a writer appending from a stale state is rejected at append time.
+ */
+@Entity
+@Table(name = "order_status_events")
+public class OrderStatusEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_status_event_seq")
+    @SequenceGenerator(name = "order_status_event_seq", sequenceName = "order_status_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "seq", nullable = false)
+    private int seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", nullable = false, length = 20)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private OrderStatus toStatus;
+
+    @Column(name = "payment_id", length = 100)
+    private String paymentId;
+
+    @Column(name = "tracking_number", length = 100)
+    private String trackingNumber;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // JPA requires a no-arg constructor
+    protected OrderStatusEvent() {
+    }
+
+    public OrderStatusEvent(Long orderId, int seq, OrderStatus fromStatus, OrderStatus toStatus,
+            String paymentId, String trackingNumber, LocalDateTime occurredAt) {
+        this.orderId = orderId;
+        this.seq = seq;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.paymentId = paymentId;
+        this.trackingNumber = trackingNumber;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public OrderStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public OrderStatus getToStatus() {
+        return toStatus;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStatusEvent{id=" + id + ", orderId=" + orderId + ", seq=" + seq + ", "
+                + fromStatus + "->" + toStatus + "}";
+    }
+}
@@ -0,0 +1,82 @@
+package com.learning.model;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join sum of price * quantity over a range of order items
+ * 
+ * Halves the range until LEAF_SIZE, sums each leaf into a Money.Sum and
+ * adds the partial sums together, so the result equals the sequential sum,
+ * scale included. A null partial means "not representable" (price Money
+ * cannot hold, or overflow); the caller then falls back to BigDecimal.
+ * The items are copied to an array on the calling thread: workers never
+ * touch the order's list (a Hibernate collection is not safe to share).
+ */
+final class ParallelOrderTotal extends RecursiveTask<Money.Sum> {
+
+    static final int LEAF_SIZE = 4_096;
+
+    private final OrderItem[] items;
+    private final int from;
+    private final int to;
+
+    private ParallelOrderTotal(OrderItem[] items, int from, int to) {
+        this.items = items;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Sum all items; runs in the current pool when called from a fork-join
+     * worker, otherwise in the common pool
+     */
+    static Money.Sum sum(List<OrderItem> items) {
+        OrderItem[] lines = items.toArray(new OrderItem[0]);
+        ParallelOrderTotal task = new ParallelOrderTotal(lines, 0, lines.length);
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    @Override
+    protected Money.Sum compute() {
+        if (to - from <= LEAF_SIZE) {
+            return sumLeaf();
+        }
+        int middle = (from + to) >>> 1;
+        ParallelOrderTotal left = new ParallelOrderTotal(items, from, middle);
+        left.fork();
+        Money.Sum right = new ParallelOrderTotal(items, middle, to).compute();
+        return combine(left.join(), right);
+    }
+
+    private Money.Sum sumLeaf() {
+        Money.Sum sum = new Money.Sum();
+        try {
+            for (int i = from; i < to; i++) {
+                OrderItem item = items[i];
+                Money price = item.priceMoney();
+                if (price == null) {
+                    return null;
+                }
+                sum.addLine(price, item.getQuantity());
+            }
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+        return sum;
+    }
+
+    private static Money.Sum combine(Money.Sum left, Money.Sum right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        try {
+            left.add(right.units(), right.scale());
+            return left;
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -12,7 +13,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -24,9 +31,14 @@ import java.util.Objects;
  * @Table - Configures table name
  * @Id - Primary key
  * @GeneratedValue - Auto-increment strategy
+ * 
+ * [EMAIL HASH]
+ * email_hash is a fixed-width BINARY(16) digest of the normalized (trimmed,
+ * lowercased) email. Lookups compare 16 bytes instead of a wide utf8mb4
+ * VARCHAR, and the real email is only checked on the matching rows.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_email_hash", columnList = "email_hash"))
 public class User {
 
     @Id
@@ -42,6 +54,9 @@ public class User {
     @Email(message = "Invalid email format")
     private String email;
 
+    @Column(name = "email_hash", nullable = false, length = 16, columnDefinition = "BINARY(16)")
+    private byte[] emailHash;
+
     @Column(nullable = false)
     @Size(min = 6, message = "Password must be at least 6 characters")
     private String password;
@@ -62,14 +77,14 @@ public class User {
     public User(Long id, String name, String email) {
         this.id = id;
         this.name = name;
-        this.email = email;
+        setEmail(email);
         this.active = true;
         this.createdAt = LocalDateTime.now();
     }
 
     public User(String name, String email, String password) {
         this.name = name;
-        this.email = email;
+        setEmail(email);
         this.password = password;
         this.active = true;
         this.createdAt = LocalDateTime.now();
@@ -78,11 +93,36 @@ public class User {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        emailHash = hashEmail(email);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        emailHash = hashEmail(email);
+    }
+
+    /**
+     * Normalize an email for hashing and comparison: trimmed and lowercased
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 16-byte MD5 digest of the normalized email (lookup key, not a security
+     * hash). Returns null for a null email.
+     */
+    public static byte[] hashEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance("MD5")
+                    .digest(normalizeEmail(email).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
     }
 
     // Getters and Setters
@@ -108,6 +148,12 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailHash = hashEmail(email);
+    }
+
+    @JsonIgnore
+    public byte[] getEmailHash() {
+        return emailHash;
     }
 
     public String getPassword() {
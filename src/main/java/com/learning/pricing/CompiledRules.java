@@ -0,0 +1,179 @@
+package com.learning.pricing;
+
+import com.learning.model.Money;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, compiled form of a rule set
+ * 
+ * Each rule kind becomes a table that answers "best percent for this key"
+ * without scanning rules:
+ * - products / users: sorted long[] keys + int[] best percent (binary
+ * search, no boxing)
+ * - tiers: ascending minimum subtotals + running best percent, so the best
+ * tier at or below a subtotal is one binary search
+ * - time windows: kept as arrays and scanned once per batch (the pricing
+ * instant is the same for the whole batch)
+ * Duplicate keys keep the highest percent.
+ */
+final class CompiledRules {
+
+    static final CompiledRules EMPTY = compile(List.of(), 0);
+
+    private final long version;
+    private final int ruleCount;
+
+    private final long[] productIds;
+    private final int[] productPercents;
+    private final long[] userIds;
+    private final int[] userPercents;
+
+    private final Money[] tierMinimums;
+    private final BigDecimal[] tierMinimumsExact;
+    private final int[] tierBestPercents;
+
+    private final long[] windowFrom;
+    private final long[] windowUntil;
+    private final int[] windowPercents;
+
+    private CompiledRules(long version, int ruleCount, Map<Long, Integer> products, Map<Long, Integer> users,
+            Map<BigDecimal, Integer> tiers, List<PricingRule.TimeWindow> windows) {
+        this.version = version;
+        this.ruleCount = ruleCount;
+
+        productIds = keys(products);
+        productPercents = values(products);
+        userIds = keys(users);
+        userPercents = values(users);
+
+        tierMinimums = new Money[tiers.size()];
+        tierMinimumsExact = new BigDecimal[tiers.size()];
+        tierBestPercents = new int[tiers.size()];
+        int i = 0;
+        int best = 0;
+        for (Map.Entry<BigDecimal, Integer> tier : tiers.entrySet()) {
+            best = Math.max(best, tier.getValue());
+            tierMinimums[i] = Money.of(tier.getKey());
+            tierMinimumsExact[i] = tier.getKey();
+            tierBestPercents[i] = best;
+            i++;
+        }
+
+        windowFrom = new long[windows.size()];
+        windowUntil = new long[windows.size()];
+        windowPercents = new int[windows.size()];
+        for (int w = 0; w < windows.size(); w++) {
+            windowFrom[w] = windows.get(w).from().toEpochMilli();
+            windowUntil[w] = windows.get(w).until().toEpochMilli();
+            windowPercents[w] = windows.get(w).percent();
+        }
+    }
+
+    static CompiledRules compile(Collection<? extends PricingRule> rules, long version) {
+        Map<Long, Integer> products = new TreeMap<>();
+        Map<Long, Integer> users = new TreeMap<>();
+        Map<BigDecimal, Integer> tiers = new TreeMap<>();
+        List<PricingRule.TimeWindow> windows = new ArrayList<>();
+        for (PricingRule rule : rules) {
+            if (rule instanceof PricingRule.ProductDiscount product) {
+                products.merge(product.productId(), product.percent(), Math::max);
+            } else if (rule instanceof PricingRule.UserDiscount user) {
+                users.merge(user.userId(), user.percent(), Math::max);
+            } else if (rule instanceof PricingRule.Tier tier) {
+                if (!Money.fits(tier.minSubtotal())) {
+                    throw new IllegalArgumentException("Tier minimum not representable: " + tier.minSubtotal());
+                }
+                // TreeMap by compareTo: 100 and 100.00 are the same tier
+                tiers.merge(tier.minSubtotal(), tier.percent(), Math::max);
+            } else if (rule instanceof PricingRule.TimeWindow window) {
+                windows.add(window);
+            } else {
+                throw new IllegalArgumentException("Unsupported pricing rule: " + rule);
+            }
+        }
+        return new CompiledRules(version, rules.size(), products, users, tiers, windows);
+    }
+
+    long version() {
+        return version;
+    }
+
+    int ruleCount() {
+        return ruleCount;
+    }
+
+    int productPercent(Long productId) {
+        return productId != null ? lookup(productIds, productPercents, productId) : 0;
+    }
+
+    int userPercent(Long userId) {
+        return userId != null ? lookup(userIds, userPercents, userId) : 0;
+    }
+
+    /**
+     * Best tier percent for a subtotal (0 if below every tier)
+     */
+    int tierPercent(Money subtotal) {
+        int index = floorIndex(tierMinimums, subtotal);
+        return index >= 0 ? tierBestPercents[index] : 0;
+    }
+
+    int tierPercent(BigDecimal subtotal) {
+        int index = floorIndex(tierMinimumsExact, subtotal);
+        return index >= 0 ? tierBestPercents[index] : 0;
+    }
+
+    /**
+     * Best percent among the time windows open at this instant
+     */
+    int windowPercent(Instant at) {
+        long millis = at.toEpochMilli();
+        int best = 0;
+        for (int w = 0; w < windowPercents.length; w++) {
+            if (windowFrom[w] <= millis && millis < windowUntil[w]) {
+                best = Math.max(best, windowPercents[w]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Index of the last element <= value in an ascending array, or -1
+     */
+    private static <T extends Comparable<T>> int floorIndex(T[] sorted, T value) {
+        int low = 0;
+        int high = sorted.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].compareTo(value) <= 0) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private static int lookup(long[] keys, int[] percents, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? percents[index] : 0;
+    }
+
+    private static long[] keys(Map<Long, Integer> sorted) {
+        return sorted.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static int[] values(Map<Long, Integer> sorted) {
+        return sorted.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,17 @@
+package com.learning.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Price of one order under one rule set version
+ * 
+ * subtotal: sum of price * quantity before any discount
+ * total: after product discounts, then the best order-level discount
+ * orderPercent: the order-level percent that applied (0 if none)
+ */
+public record PriceQuote(Long orderId, BigDecimal subtotal, BigDecimal total, int orderPercent, long rulesVersion) {
+
+    public BigDecimal discount() {
+        return subtotal.subtract(total);
+    }
+}
@@ -0,0 +1,146 @@
+package com.learning.pricing;
+
+import com.learning.model.Money;
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PricingEngine - prices orders against a compiled, hot-reloadable rule set
+ * 
+ * Order price = sum over lines of (price * quantity less the line's product
+ * discount), less the best order-level discount among tiers (by subtotal
+ * before discounts), the user's discount and open time windows.
+ * 
+ * [NOTES]
+ * - reload() compiles the rules once (see CompiledRules) and publishes them
+ * with a single AtomicReference set: readers never lock and never see a
+ * half-built rule set (only reloads are serialized, so versions stay in
+ * order). Each quote / batch reads the reference once, so a whole batch is
+ * priced by one version (PriceQuote.rulesVersion).
+ * - quoteAll() prices a batch in one pass over the orders: the rule snapshot
+ * and the open time windows are resolved once per batch, not per order.
+ * - Arithmetic is Money (long minor units), exact like the BigDecimal
+ * fallback it switches to for amounts Money cannot hold; results are not
+ * rounded (same as OrderService.calculateTotalWithDiscount).
+ * - Takes loaded orders: callers batch-load (findAllById) instead of one
+ * lookup per priced order.
+ */
+@Component
+public class PricingEngine {
+
+    private final AtomicReference<CompiledRules> rules = new AtomicReference<>(CompiledRules.EMPTY);
+    private final AtomicLong versions = new AtomicLong();
+    private final Clock clock;
+
+    public PricingEngine() {
+        this(Clock.systemUTC());
+    }
+
+    public PricingEngine(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Compile and publish a new rule set; quotes in progress finish on the
+     * previous one
+     * 
+     * @return the new rules version
+     * @throws IllegalArgumentException if a rule cannot be compiled (the
+     *         current rule set stays in place)
+     */
+    public synchronized long reload(Collection<? extends PricingRule> newRules) {
+        CompiledRules compiled = CompiledRules.compile(List.copyOf(newRules), versions.incrementAndGet());
+        rules.set(compiled);
+        return compiled.version();
+    }
+
+    public long rulesVersion() {
+        return rules.get().version();
+    }
+
+    public int ruleCount() {
+        return rules.get().ruleCount();
+    }
+
+    public PriceQuote quote(Order order) {
+        CompiledRules snapshot = rules.get();
+        return quote(order, snapshot, snapshot.windowPercent(clock.instant()));
+    }
+
+    /**
+     * Price a batch of orders with one rule snapshot and pricing instant
+     */
+    public List<PriceQuote> quoteAll(Collection<Order> orders) {
+        CompiledRules snapshot = rules.get();
+        Instant now = clock.instant();
+        int windowPercent = snapshot.windowPercent(now);
+        List<PriceQuote> quotes = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            quotes.add(quote(order, snapshot, windowPercent));
+        }
+        return quotes;
+    }
+
+    private static PriceQuote quote(Order order, CompiledRules rules, int windowPercent) {
+        try {
+            return quoteMoney(order, rules, windowPercent);
+        } catch (ArithmeticException overflow) {
+            return quoteExact(order, rules, windowPercent);
+        }
+    }
+
+    private static PriceQuote quoteMoney(Order order, CompiledRules rules, int windowPercent) {
+        Money subtotal = Money.ZERO;
+        Money discounted = Money.ZERO;
+        List<OrderItem> items = order.getItems();
+        for (int i = 0, n = items.size(); i < n; i++) {
+            OrderItem item = items.get(i);
+            Money price = item.priceMoney();
+            if (price == null) {
+                return quoteExact(order, rules, windowPercent);
+            }
+            Money line = price.times(item.getQuantity());
+            int productPercent = rules.productPercent(item.getProductId());
+            subtotal = subtotal.plus(line);
+            discounted = discounted.plus(productPercent == 0 ? line : line.minusPercent(productPercent));
+        }
+        int orderPercent = orderPercent(rules.tierPercent(subtotal), rules, order, windowPercent);
+        Money total = orderPercent == 0 ? discounted : discounted.minusPercent(orderPercent);
+        return new PriceQuote(order.getId(), subtotal.toBigDecimal(), total.toBigDecimal(), orderPercent,
+                rules.version());
+    }
+
+    private static PriceQuote quoteExact(Order order, CompiledRules rules, int windowPercent) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discounted = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            BigDecimal line = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            subtotal = subtotal.add(line);
+            discounted = discounted.add(minusPercent(line, rules.productPercent(item.getProductId())));
+        }
+        int orderPercent = orderPercent(rules.tierPercent(subtotal), rules, order, windowPercent);
+        return new PriceQuote(order.getId(), subtotal, minusPercent(discounted, orderPercent), orderPercent,
+                rules.version());
+    }
+
+    private static int orderPercent(int tierPercent, CompiledRules rules, Order order, int windowPercent) {
+        return Math.max(Math.max(tierPercent, windowPercent), rules.userPercent(order.getUserId()));
+    }
+
+    private static BigDecimal minusPercent(BigDecimal amount, int percent) {
+        if (percent == 0) {
+            return amount;
+        }
+        return amount.subtract(amount.multiply(BigDecimal.valueOf(percent)).divide(BigDecimal.valueOf(100)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.learning.pricing;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * PricingRule - one discount rule, as loaded from configuration
+ * 
+ * Rules are plain data; PricingEngine.reload() compiles a whole set into
+ * lookup tables once, and quotes never look at these objects again.
+ * 
+ * [NOTES]
+ * - Percentages are whole percent, 0..100, applied exactly (no rounding).
+ * - ProductDiscount applies to every line of that product.
+ * - Tier, UserDiscount and TimeWindow are order-level; the best matching one
+ * applies (they do not stack).
+ */
+public sealed interface PricingRule {
+
+    int percent();
+
+    /**
+     * percent off orders whose subtotal (before any discount) is at least
+     * minSubtotal
+     */
+    record Tier(BigDecimal minSubtotal, int percent) implements PricingRule {
+        public Tier {
+            if (minSubtotal == null || minSubtotal.signum() < 0) {
+                throw new IllegalArgumentException("Tier minimum must be zero or more: " + minSubtotal);
+            }
+            checkPercent(percent);
+        }
+    }
+
+    /**
+     * percent off every line of the product
+     */
+    record ProductDiscount(long productId, int percent) implements PricingRule {
+        public ProductDiscount {
+            checkPercent(percent);
+        }
+    }
+
+    /**
+     * percent off every order of the user
+     */
+    record UserDiscount(long userId, int percent) implements PricingRule {
+        public UserDiscount {
+            checkPercent(percent);
+        }
+    }
+
+    /**
+     * percent off orders priced within [from, until)
+     */
+    record TimeWindow(Instant from, Instant until, int percent) implements PricingRule {
+        public TimeWindow {
+            if (from == null || until == null || !from.isBefore(until)) {
+                throw new IllegalArgumentException("Time window must start before it ends: " + from + " - " + until);
+            }
+            checkPercent(percent);
+        }
+    }
+
+    private static void checkPercent(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Invalid discount: " + percent);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.learning.repository;
+
+import com.learning.model.User;
+
+import java.util.Optional;
+
+/**
+ * ArchivedUserLookup - custom fragment of UserRepository
+ * 
+ * Lets callers fall back to users_archive without knowing about a second
+ * repository. Spring Data picks up ArchivedUserLookupImpl by naming
+ * convention.
+ */
+public interface ArchivedUserLookup {
+
+    /**
+     * Find an archived user by ID (detached, read-only view)
+     */
+    Optional<User> findArchivedById(Long id);
+
+    /**
+     * Find an archived user by email (detached, read-only view)
+     */
+    Optional<User> findArchivedByEmail(String email);
+}
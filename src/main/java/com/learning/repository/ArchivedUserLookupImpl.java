@@ -0,0 +1,29 @@
+package com.learning.repository;
+
+import com.learning.model.ArchivedUser;
+import com.learning.model.User;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the ArchivedUserLookup fragment (the "Impl" suffix is how
+ * Spring Data wires it into UserRepository)
+ */
+class ArchivedUserLookupImpl implements ArchivedUserLookup {
+
+    private final ArchivedUserRepository archivedUserRepository;
+
+    ArchivedUserLookupImpl(ArchivedUserRepository archivedUserRepository) {
+        this.archivedUserRepository = archivedUserRepository;
+    }
+
+    @Override
+    public Optional<User> findArchivedById(Long id) {
+        return archivedUserRepository.findById(id).map(ArchivedUser::toUser);
+    }
+
+    @Override
+    public Optional<User> findArchivedByEmail(String email) {
+        return archivedUserRepository.findByEmail(email).map(ArchivedUser::toUser);
+    }
+}
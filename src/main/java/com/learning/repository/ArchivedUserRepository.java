@@ -0,0 +1,30 @@
+package com.learning.repository;
+
+import com.learning.model.ArchivedUser;
+import com.learning.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * ArchivedUserRepository - users_archive table
+ * 
+ * Written only by UserArchiveJob. Reads go through UserRepository's
+ * findArchivedById / findArchivedByEmail fallbacks.
+ */
+@Repository
+public interface ArchivedUserRepository extends JpaRepository<ArchivedUser, Long> {
+
+    /**
+     * Same hash-then-compare lookup as UserRepository#findByEmail
+     */
+    default Optional<ArchivedUser> findByEmail(String email) {
+        return findByEmailHash(User.hashEmail(email), User.normalizeEmail(email));
+    }
+
+    @Query("select a from ArchivedUser a where a.emailHash = :hash and lower(trim(a.email)) = :email")
+    Optional<ArchivedUser> findByEmailHash(@Param("hash") byte[] hash, @Param("email") String normalizedEmail);
+}
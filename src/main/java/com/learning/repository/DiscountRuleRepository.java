@@ -0,0 +1,19 @@
+package com.learning.repository;
+
+import com.learning.model.DiscountRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * DiscountRuleRepository - discount_rules table
+ * 
+ * Read by PricingRuleLoader, which compiles the active rows into
+ * PricingEngine.
+ */
+@Repository
+public interface DiscountRuleRepository extends JpaRepository<DiscountRule, Long> {
+
+    List<DiscountRule> findByActiveTrueOrderById();
+}
@@ -0,0 +1,98 @@
+package com.learning.repository;
+
+import com.learning.model.OrderStatusEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InMemoryOrderEventLog - OrderEventLog for in-process stores and tests
+ * 
+ * One append-only list per order; ids come from a global counter so they keep
+ * the same ordering guarantees as the database sequence. The seq check runs
+ * inside compute for the order, so of two appends with the same seq exactly
+ * one wins.
+ */
+public class InMemoryOrderEventLog implements OrderEventLog {
+
+    private final Map<Long, List<OrderStatusEvent>> eventsByOrder = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public OrderStatusEvent save(OrderStatusEvent event) {
+        eventsByOrder.compute(event.getOrderId(), (orderId, events) -> {
+            List<OrderStatusEvent> list = events != null ? events : new CopyOnWriteArrayList<>();
+            requireNext(list, event);
+            event.setId(sequence.incrementAndGet());
+            list.add(event);
+            return list;
+        });
+        return event;
+    }
+
+    @Override
+    public List<OrderStatusEvent> findByOrderIdAndIdGreaterThanOrderByIdAsc(Long orderId, Long afterEventId) {
+        return eventsByOrder.getOrDefault(orderId, List.of()).stream()
+                .filter(event -> event.getId() > afterEventId)
+                .toList();
+    }
+
+    @Override
+    public List<OrderStatusEvent> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds) {
+        return orderIds.stream()
+                .flatMap(orderId -> eventsByOrder.getOrDefault(orderId, List.of()).stream())
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+    }
+
+    /**
+     * seq of the order's last appended event, 0 if it has none
+     */
+    int lastSeq(Long orderId) {
+        List<OrderStatusEvent> events = eventsByOrder.getOrDefault(orderId, List.of());
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).getSeq();
+    }
+
+    /**
+     * Check the event's seq against the order's last appended event
+     * 
+     * @throws IllegalStateException if it is not the next one
+     */
+    void requireNext(OrderStatusEvent event) {
+        requireNext(eventsByOrder.getOrDefault(event.getOrderId(), List.of()), event);
+    }
+
+    private static void requireNext(List<OrderStatusEvent> events, OrderStatusEvent event) {
+        int last = events.isEmpty() ? 0 : events.get(events.size() - 1).getSeq();
+        if (event.getSeq() != last + 1) {
+            throw new IllegalStateException("Order " + event.getOrderId() + " is at event " + last
+                    + ", cannot append event " + event.getSeq() + " (changed concurrently)");
+        }
+    }
+
+    /**
+     * Add an event that already has an id (a store replaying its own log),
+     * keeping each order's events in id order. An id that is already present
+     * replaces its event: a replayed log can hold two copies of one event.
+     */
+    void insert(OrderStatusEvent event) {
+        eventsByOrder.compute(event.getOrderId(), (orderId, events) -> {
+            List<OrderStatusEvent> list = events != null ? events : new CopyOnWriteArrayList<>();
+            int position = list.size();
+            while (position > 0 && list.get(position - 1).getId() > event.getId()) {
+                position--;
+            }
+            if (position > 0 && list.get(position - 1).getId().equals(event.getId())) {
+                list.set(position - 1, event);
+            } else {
+                list.add(position, event);
+            }
+            return list;
+        });
+        sequence.accumulateAndGet(event.getId(), Math::max);
+    }
+}
@@ -0,0 +1,279 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItemColumns;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * InMemoryOrderRepository - in-process OrderRepository for edge/cache nodes
+ * 
+ * Structure:
+ * - Primary map: id -> Entry (order + the userId/status it is indexed under)
+ * - Secondary indexes: userId -> ids, status -> ids (EnumMap of concurrent
+ * sets, built once and never resized)
+ * 
+ * Concurrency:
+ * - Writers of the same order are serialized by ConcurrentHashMap.compute
+ * on its id. A change is applied in three steps: (1) add the id to the NEW
+ * index sets, (2) publish the new Entry (compute returns), (3) remove the
+ * id from the OLD sets, re-checked inside another compute for that id so a
+ * later writer's memberships are never removed.
+ * - Readers take no locks and filter the index sets by the published
+ * Entry. Because the id leaves the OLD set only after the NEW entry is
+ * visible, an order is at every moment findable under its current status
+ * (and user): reading the OLD status and then the NEW one always finds an
+ * order that moved once in between. A finder returns each order at most
+ * once; an order that changes status during the call may or may not be in
+ * its result.
+ * - findByUserId / findByStatus cost O(result), never a full scan.
+ * findPageByUserId filters and sorts that user's orders: O(n log n) in the
+ * user's order count, fine for a cache node's working set.
+ * - transitionStatus is a compare-and-set on the indexed status, done inside
+ * compute for that id: of N racing callers expecting the same status,
+ * exactly one wins. If its mutator throws, the order's transition fields
+ * (status, paymentId, updatedAt, lastEventId, eventSeq) are put back and
+ * nothing is published.
+ * 
+ * Orders are stored by reference: a status change becomes visible to the
+ * indexes when the order is saved, like with a database.
+ */
+public class InMemoryOrderRepository implements OrderRepository {
+
+    private record Entry(Order order, Long userId, OrderStatus status) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> orders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> idsByUser = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, Set<Long>> idsByStatus = new EnumMap<>(OrderStatus.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InMemoryOrderRepository() {
+        for (OrderStatus status : OrderStatus.values()) {
+            idsByStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @Override
+    public Order save(Order order) {
+        if (order.getId() == null) {
+            order.setId(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(order.getId(), Math::max);
+        }
+
+        Entry updated = new Entry(order, order.getUserId(), order.getStatus());
+        Entry[] replaced = new Entry[1];
+        orders.compute(order.getId(), (id, previous) -> {
+            index(id, previous, updated);
+            replaced[0] = previous;
+            return updated;
+        });
+        unindexStale(order.getId(), replaced[0]);
+        return order;
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        Entry entry = orders.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.order());
+    }
+
+    @Override
+    public List<Order> findAllById(Iterable<Long> ids) {
+        List<Order> result = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = orders.get(id);
+            if (entry != null) {
+                result.add(entry.order());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Order> findByUserId(Long userId) {
+        Set<Long> ids = idsByUser.get(userId);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<Order> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entry entry = orders.get(id);
+            if (entry != null && userId.equals(entry.userId())) {
+                result.add(entry.order());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Order> findPageByUserId(Long userId, OrderFilter filter, Long beforeId, int limit) {
+        Set<Long> ids = idsByUser.get(userId);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<Order> matching = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = orders.get(id);
+            if (entry != null && userId.equals(entry.userId()) && (beforeId == null || id < beforeId)
+                    && filter.matches(entry.order())) {
+                matching.add(entry.order());
+            }
+        }
+        matching.sort(Comparator.comparing(Order::getId).reversed());
+        return matching.size() > limit ? new ArrayList<>(matching.subList(0, limit)) : matching;
+    }
+
+    @Override
+    public Optional<OrderItemColumns> findItemColumns(Long orderId) {
+        return findById(orderId).map(order -> OrderItemColumns.of(order.getItems()));
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        Set<Long> ids = idsByStatus.get(status);
+        List<Order> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entry entry = orders.get(id);
+            if (entry != null && entry.status() == status) {
+                result.add(entry.order());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Entry[] removed = new Entry[1];
+        orders.computeIfPresent(id, (key, previous) -> {
+            removed[0] = previous;
+            return null;
+        });
+        unindexStale(id, removed[0]);
+    }
+
+    @Override
+    public Optional<Order> transitionStatus(Long orderId, OrderStatus expectedStatus,
+            OrderStatus newStatus, Consumer<Order> mutator) {
+        Order[] winner = new Order[1];
+        Entry[] replaced = new Entry[1];
+        orders.computeIfPresent(orderId, (id, previous) -> {
+            if (previous.status() != expectedStatus) {
+                return previous;
+            }
+            Order order = previous.order();
+            applyOrRestore(order, newStatus, mutator);
+            order.setVersion(order.getVersion() == null ? 1L : order.getVersion() + 1);
+
+            Entry updated = new Entry(order, order.getUserId(), order.getStatus());
+            index(id, previous, updated);
+            replaced[0] = previous;
+            winner[0] = order;
+            return updated;
+        });
+        unindexStale(orderId, replaced[0]);
+        return Optional.ofNullable(winner[0]);
+    }
+
+    /**
+     * Set the status and run the mutator; if the mutator throws, put back
+     * the fields a transition writes (the entry and indexes were never
+     * touched) so the shared instance matches its entry again
+     */
+    private static void applyOrRestore(Order order, OrderStatus newStatus, Consumer<Order> mutator) {
+        OrderStatus status = order.getStatus();
+        String paymentId = order.getPaymentId();
+        LocalDateTime updatedAt = order.getUpdatedAt();
+        Long lastEventId = order.getLastEventId();
+        int eventSeq = order.getEventSeq();
+        try {
+            order.setStatus(newStatus);
+            mutator.accept(order);
+        } catch (RuntimeException | Error e) {
+            order.setStatus(status);
+            order.setPaymentId(paymentId);
+            order.setUpdatedAt(updatedAt);
+            order.setLastEventId(lastEventId);
+            order.setEventSeq(eventSeq);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Order> transitionStatusAll(Collection<Long> orderIds, OrderStatus expectedStatus,
+            OrderStatus newStatus, Consumer<Order> mutator) {
+        List<Order> moved = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            transitionStatus(orderId, expectedStatus, newStatus, mutator).ifPresent(moved::add);
+        }
+        return moved;
+    }
+
+    /**
+     * Size of the status index set: O(1). While an order moves it can be
+     * counted under both statuses for a moment.
+     */
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return idsByStatus.get(status).size();
+    }
+
+    @Override
+    public long count() {
+        return orders.mappingCount();
+    }
+
+    /**
+     * Step 1: add the id to the index sets of the entry about to be published
+     * (runs inside compute for that id)
+     */
+    private void index(Long id, Entry previous, Entry updated) {
+        if (updated.userId() != null && (previous == null || !updated.userId().equals(previous.userId()))) {
+            idsByUser.compute(updated.userId(), (userId, ids) -> {
+                Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                set.add(id);
+                return set;
+            });
+        }
+        if (updated.status() != null && (previous == null || updated.status() != previous.status())) {
+            idsByStatus.get(updated.status()).add(id);
+        }
+    }
+
+    /**
+     * Step 3: after the new entry is published, drop the memberships of the
+     * replaced one that the CURRENT entry no longer has. Runs inside compute
+     * for that id, so it can't race with another writer of the order.
+     */
+    private void unindexStale(Long id, Entry previous) {
+        if (previous == null) {
+            return;
+        }
+        orders.compute(id, (key, current) -> {
+            if (previous.userId() != null && (current == null || !previous.userId().equals(current.userId()))) {
+                idsByUser.computeIfPresent(previous.userId(), (userId, ids) -> {
+                    ids.remove(key);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+            if (previous.status() != null && (current == null || previous.status() != current.status())) {
+                idsByStatus.get(previous.status()).remove(key);
+            }
+            return current;
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.learning.repository;
+
+import com.learning.model.OrderStatusEvent;
+import org.springframework.data.repository.Repository;
+
+/**
+ * JpaOrderEventLog - Spring Data implementation of OrderEventLog
+ * (order_status_events table, queries derived from the method names)
+ */
+@org.springframework.stereotype.Repository
+public interface JpaOrderEventLog extends Repository<OrderStatusEvent, Long>, OrderEventLog {
+}
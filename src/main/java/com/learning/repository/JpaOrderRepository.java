@@ -0,0 +1,41 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+/**
+ * JpaOrderRepository - Spring Data implementation of OrderRepository
+ * 
+ * [NOTES]
+ * Extends the bare Repository marker: Spring Data maps save/findById/
+ * deleteById/count from OrderRepository onto SimpleJpaRepository, and derives
+ * the finder queries.
+ * 
+ * The finders fetch items with an entity graph (one SELECT with a join)
+ * instead of one extra SELECT per order (N+1). countByStatus is derived too:
+ * SELECT COUNT(o.id) ... WHERE o.status = ?, answered from idx_orders_status.
+ * 
+ * transitionStatus comes from the OrderStatusTransitions fragment
+ * (sequence-checked UPDATE), findPageByUserId from OrderPages (keyset pages
+ * with only the filters that are set), findItemColumns from OrderItemReads
+ * (item columns without entities).
+ */
+@org.springframework.stereotype.Repository
+public interface JpaOrderRepository extends Repository<Order, Long>, OrderRepository,
+        OrderStatusTransitions, OrderPages, OrderItemReads {
+
+    /**
+     * SELECT o.*, i.* FROM orders o LEFT JOIN order_items i ON ... WHERE
+     * o.user_id = ?
+     */
+    @Override
+    @EntityGraph(attributePaths = "items")
+    List<Order> findByUserId(Long userId);
+
+    @Override
+    @EntityGraph(attributePaths = "items")
+    List<Order> findByStatus(Order.OrderStatus status);
+}
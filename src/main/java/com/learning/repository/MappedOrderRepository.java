@@ -0,0 +1,615 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItemColumns;
+import com.learning.model.OrderStatusEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * MappedOrderRepository - durable OrderRepository on memory-mapped segment files
+ * 
+ * Storage:
+ * - Append-only segment files (orders-0000000001.seg, ...) of fixed size,
+ * memory-mapped. Each record is [int length][int crc32][payload], see
+ * OrderRecordCodec. A save appends a PUT, deleteById appends a DELETE, and
+ * eventLog() appends an EVENT per status change: the event history lives in
+ * the same segments as the orders, so a transition never leaves the process
+ * (no database call under the write lock).
+ * - A status transition whose event is in eventLog() writes only that EVENT
+ * (a few dozen bytes); the order's PUT (the whole record, items included)
+ * is re-written as a snapshot every SNAPSHOT_INTERVAL events. A transition
+ * without its event in this log is written as a PUT right away.
+ * - The length is written LAST: a process killed mid-write leaves length 0,
+ * which recovery reads as "end of segment".
+ * - Every segment starts with a MARK record holding the order and event id
+ * high-water marks at the time it was opened. Ids are never reused, even
+ * after compaction dropped every record of the highest ones: the active
+ * segment is never compacted, and its MARK covers every id handed out
+ * before it.
+ * 
+ * Reads:
+ * - Served from an InMemoryOrderRepository and an InMemoryOrderEventLog
+ * rebuilt from the segments on startup (last record per id wins, every
+ * event is kept). Each order is its last PUT plus the EVENTs after it
+ * (fewer than SNAPSHOT_INTERVAL, or more only if a crash lost a snapshot);
+ * recovery folds that tail into the order.
+ * 
+ * Durability:
+ * - Data is in the OS page cache as soon as save() returns, so it survives a
+ * process crash (kill -9). Against OS/power failure the active segment is
+ * forced to disk every flushInterval (or on every write with syncWrites).
+ * 
+ * Compaction (background):
+ * - The OLDEST sealed segment is rewritten when less than half of it is
+ * still live: live records (latest PUT per order, every EVENT) are copied
+ * byte-for-byte to the active segment, then the file is deleted.
+ * Oldest-first means dropped DELETE records can never uncover an older PUT.
+ * - A crash after the copies were appended but before the file was deleted
+ * leaves both on disk; recovery replays the copy last, and an event replayed
+ * twice is kept once (by id).
+ * - A sealed segment is never written again, so its live records are read
+ * WITHOUT the write lock. The lock is only taken to append the copies, in
+ * batches of RELOCATION_BATCH, and each copy replaces a location only if
+ * the record was not rewritten meanwhile.
+ */
+public class MappedOrderRepository implements OrderRepository, Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MARK_RECORD_SIZE = HEADER_SIZE + OrderRecordCodec.MARK_LENGTH;
+    private static final double COMPACTION_LIVE_RATIO = 0.5;
+    private static final int RELOCATION_BATCH = 256;
+
+    /**
+     * Status events between two PUT snapshots of an order
+     */
+    static final int SNAPSHOT_INTERVAL = 8;
+
+    /**
+     * One segment file; position/live accounting is guarded by the write lock
+     */
+    static final class Segment {
+        final long number;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        int writePosition;
+        long liveBytes;
+
+        Segment(long number, Path path, int size) throws IOException {
+            this.number = number;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.capacity = size;
+        }
+    }
+
+    private record Location(Segment segment, int offset, int recordSize) {
+    }
+
+    /**
+     * A live record read out of a sealed segment, waiting to be appended
+     */
+    private record Relocation(Map<Long, Location> locations, Long id, Location from, int crc, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncWrites;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, Location> locations = new ConcurrentHashMap<>();
+    private final Map<Long, Location> eventLocations = new ConcurrentHashMap<>();
+    // eventSeq of each order's last PUT (guarded by the write lock)
+    private final Map<Long, Integer> snapshotSeqs = new HashMap<>();
+    private final InMemoryOrderRepository index = new InMemoryOrderRepository();
+    private final InMemoryOrderEventLog events = new InMemoryOrderEventLog();
+    private final OrderEventLog eventLog = new SegmentEventLog();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong eventSequence = new AtomicLong();
+    private final ScheduledExecutorService background;
+    private Segment active;
+
+    public MappedOrderRepository(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, false, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    /**
+     * @param segmentSize        bytes per segment file
+     * @param syncWrites         force to disk on every write (slow, OS-crash safe)
+     * @param flushInterval      background force of the active segment (zero = off)
+     * @param compactionInterval background compaction (zero = off, see compact())
+     */
+    public MappedOrderRepository(Path directory, int segmentSize, boolean syncWrites,
+            Duration flushInterval, Duration compactionInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open order store in " + directory, e);
+        }
+
+        this.background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mapped-order-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!flushInterval.isZero()) {
+            background.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+        if (!compactionInterval.isZero()) {
+            background.scheduleWithFixedDelay(this::compact, compactionInterval.toMillis(),
+                    compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // OrderRepository
+    // ─────────────────────────────────────────────────────────────────────────
+
+    @Override
+    public Order save(Order order) {
+        writeLock.lock();
+        try {
+            if (order.getId() == null) {
+                order.setId(sequence.incrementAndGet());
+            } else {
+                sequence.accumulateAndGet(order.getId(), Math::max);
+            }
+            putSnapshot(order);
+            return index.save(order);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        return index.findById(id);
+    }
+
+    @Override
+    public List<Order> findAllById(Iterable<Long> ids) {
+        return index.findAllById(ids);
+    }
+
+    @Override
+    public List<Order> findByUserId(Long userId) {
+        return index.findByUserId(userId);
+    }
+
+    @Override
+    public List<Order> findPageByUserId(Long userId, OrderFilter filter, Long beforeId, int limit) {
+        return index.findPageByUserId(userId, filter, beforeId, limit);
+    }
+
+    @Override
+    public Optional<OrderItemColumns> findItemColumns(Long orderId) {
+        return index.findItemColumns(orderId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return index.findByStatus(status);
+    }
+
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return index.countByStatus(status);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        writeLock.lock();
+        try {
+            if (!locations.containsKey(id)) {
+                return;
+            }
+            append(OrderRecordCodec.encodeDelete(id));
+            replaceLocation(locations, id, null);
+            snapshotSeqs.remove(id);
+            index.deleteById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Order> transitionStatus(Long orderId, OrderStatus expectedStatus,
+            OrderStatus newStatus, Consumer<Order> mutator) {
+        writeLock.lock();
+        try {
+            Optional<Order> moved = index.transitionStatus(orderId, expectedStatus, newStatus, mutator);
+            moved.filter(this::needsSnapshot).ifPresent(this::putSnapshot);
+            return moved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Order> transitionStatusAll(Collection<Long> orderIds, OrderStatus expectedStatus,
+            OrderStatus newStatus, Consumer<Order> mutator) {
+        writeLock.lock();
+        try {
+            List<Order> moved = new ArrayList<>(orderIds.size());
+            for (Long orderId : orderIds) {
+                transitionStatus(orderId, expectedStatus, newStatus, mutator).ifPresent(moved::add);
+            }
+            return moved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        return index.count();
+    }
+
+    /**
+     * The status event log stored in this repository's segments
+     * 
+     * Use it together with this repository: a transition's event is appended
+     * under the same write lock as the order (the lock is reentrant, so the
+     * mutator of transitionStatus can append it).
+     */
+    public OrderEventLog eventLog() {
+        return eventLog;
+    }
+
+    private final class SegmentEventLog implements OrderEventLog {
+
+        @Override
+        public OrderStatusEvent save(OrderStatusEvent event) {
+            writeLock.lock();
+            try {
+                events.requireNext(event);
+                event.setId(eventSequence.incrementAndGet());
+                replaceLocation(eventLocations, event.getId(), append(OrderRecordCodec.encodeEvent(event)));
+                events.insert(event);
+                return event;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public List<OrderStatusEvent> findByOrderIdAndIdGreaterThanOrderByIdAsc(Long orderId, Long afterEventId) {
+            return events.findByOrderIdAndIdGreaterThanOrderByIdAsc(orderId, afterEventId);
+        }
+
+        @Override
+        public List<OrderStatusEvent> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds) {
+            return events.findByOrderIdInOrderByIdAsc(orderIds);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Maintenance
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Force the active segment to disk
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            active.buffer.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite sealed segments, oldest first, while they are mostly dead
+     * 
+     * @return number of segment files removed
+     */
+    public synchronized int compact() {
+        int removed = 0;
+        while (true) {
+            Segment oldest;
+            writeLock.lock();
+            try {
+                oldest = segments.get(0);
+                if (oldest == active || oldest.liveBytes > oldest.writePosition * COMPACTION_LIVE_RATIO) {
+                    return removed;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+
+            List<Relocation> copies = readLiveRecords(oldest);
+            for (int from = 0; from < copies.size(); from += RELOCATION_BATCH) {
+                relocate(copies.subList(from, Math.min(from + RELOCATION_BATCH, copies.size())));
+            }
+
+            writeLock.lock();
+            try {
+                if (oldest.liveBytes != 0) {
+                    throw new IllegalStateException("Segment " + oldest.path + " still has live records");
+                }
+                segments.remove(0);
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+                removed++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Compaction failed in " + directory, e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    public int segmentCount() {
+        writeLock.lock();
+        try {
+            return segments.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        background.shutdownNow();
+        writeLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Internals
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private void putSnapshot(Order order) {
+        replaceLocation(locations, order.getId(), append(OrderRecordCodec.encodePut(order)));
+        snapshotSeqs.put(order.getId(), order.getEventSeq());
+    }
+
+    // Recoverable from the last PUT and the EVENTs after it, unless the tail grew to the interval
+    private boolean needsSnapshot(Order order) {
+        int snapshotSeq = snapshotSeqs.getOrDefault(order.getId(), 0);
+        boolean eventLogged = order.getEventSeq() > snapshotSeq
+                && events.lastSeq(order.getId()) == order.getEventSeq();
+        return !eventLogged || order.getEventSeq() - snapshotSeq >= SNAPSHOT_INTERVAL;
+    }
+
+    private Location append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return append(payload, (int) crc.getValue());
+    }
+
+    private Location append(byte[] payload, int crc) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize - MARK_RECORD_SIZE) {
+            throw new IllegalArgumentException("Order record of " + recordSize + " bytes exceeds segment size");
+        }
+        if (active.writePosition + recordSize > active.capacity) {
+            roll();
+        }
+
+        int offset = active.writePosition;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.put(offset + HEADER_SIZE, payload);
+        buffer.putInt(offset + 4, crc);
+        buffer.putInt(offset, payload.length); // commit marker, written last
+        active.writePosition += recordSize;
+        if (syncWrites) {
+            buffer.force(offset, recordSize);
+        }
+        return new Location(active, offset, recordSize);
+    }
+
+    private static void replaceLocation(Map<Long, Location> locations, Long id, Location location) {
+        Location previous = location == null ? locations.remove(id) : locations.put(id, location);
+        if (previous != null) {
+            previous.segment().liveBytes -= previous.recordSize();
+        }
+        if (location != null) {
+            location.segment().liveBytes += location.recordSize();
+        }
+    }
+
+    /**
+     * Copy the live records of a SEALED segment (no lock: nothing writes to
+     * it, and its records can only die, never appear)
+     */
+    private List<Relocation> readLiveRecords(Segment segment) {
+        List<Relocation> copies = new ArrayList<>();
+        for (Map<Long, Location> map : List.of(locations, eventLocations)) {
+            map.forEach((id, location) -> {
+                if (location.segment() == segment) {
+                    byte[] payload = new byte[location.recordSize() - HEADER_SIZE];
+                    segment.buffer.get(location.offset() + HEADER_SIZE, payload);
+                    int crc = segment.buffer.getInt(location.offset() + 4);
+                    copies.add(new Relocation(map, id, location, crc, payload));
+                }
+            });
+        }
+        return copies;
+    }
+
+    private void relocate(List<Relocation> batch) {
+        writeLock.lock();
+        try {
+            for (Relocation copy : batch) {
+                // Rewritten or deleted since it was read: the copy is dead
+                if (copy.from().equals(copy.locations().get(copy.id()))) {
+                    replaceLocation(copy.locations(), copy.id(), append(copy.payload(), copy.crc()));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void roll() {
+        try {
+            active.buffer.force();
+            long next = active.number + 1;
+            active = new Segment(next, segmentPath(next), segmentSize);
+            segments.add(active);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create segment in " + directory, e);
+        }
+        appendMark();
+    }
+
+    private void appendMark() {
+        append(OrderRecordCodec.encodeMark(sequence.get(), eventSequence.get()));
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("orders-%010d.seg", number));
+    }
+
+    /**
+     * Replay every segment in order; the last record per id wins
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().matches("orders-\\d{10}\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long number = Long.parseLong(name.substring(7, 17));
+            // Existing files keep their size even if segmentSize was reconfigured
+            int size = (int) Math.max(Files.size(file), HEADER_SIZE);
+            Segment segment = new Segment(number, file, size);
+            segments.add(segment);
+            replay(segment);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(new Segment(1, segmentPath(1), segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+        foldEventTails();
+
+        // Zero whatever a crash left after the last valid record, so stale
+        // bytes can never be read back as a record after new appends
+        MappedByteBuffer buffer = active.buffer;
+        for (int i = active.writePosition; i < active.capacity; i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        if (active.writePosition == 0) {
+            appendMark();
+        }
+    }
+
+    private void replay(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segment.capacity) {
+                break; // end of data or torn header
+            }
+            ByteBuffer payload = buffer.slice(position + HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break; // torn write: nothing after it was acknowledged
+            }
+
+            if (OrderRecordCodec.type(payload) == OrderRecordCodec.MARK) {
+                long[] marks = OrderRecordCodec.decodeMark(payload);
+                sequence.accumulateAndGet(marks[0], Math::max);
+                eventSequence.accumulateAndGet(marks[1], Math::max);
+                position += HEADER_SIZE + length;
+                continue;
+            }
+
+            long orderId = OrderRecordCodec.orderId(payload);
+            Location location = new Location(segment, position, HEADER_SIZE + length);
+            switch (OrderRecordCodec.type(payload)) {
+                case OrderRecordCodec.PUT -> {
+                    Order order = OrderRecordCodec.decodePut(payload);
+                    replaceLocation(locations, orderId, location);
+                    snapshotSeqs.put(orderId, order.getEventSeq());
+                    index.save(order);
+                }
+                case OrderRecordCodec.EVENT -> {
+                    OrderStatusEvent event = OrderRecordCodec.decodeEvent(payload);
+                    replaceLocation(eventLocations, event.getId(), location);
+                    events.insert(event);
+                    eventSequence.accumulateAndGet(event.getId(), Math::max);
+                }
+                default -> {
+                    replaceLocation(locations, orderId, null);
+                    snapshotSeqs.remove(orderId);
+                    index.deleteById(orderId);
+                }
+            }
+            sequence.accumulateAndGet(orderId, Math::max);
+            position += HEADER_SIZE + length;
+        }
+        segment.writePosition = position;
+    }
+
+    /**
+     * Apply the events newer than each order's last PUT snapshot
+     */
+    private void foldEventTails() {
+        for (Long orderId : locations.keySet()) {
+            Order order = index.findById(orderId).orElseThrow();
+            long after = order.getLastEventId() == null ? 0L : order.getLastEventId();
+            List<OrderStatusEvent> tail = events.findByOrderIdAndIdGreaterThanOrderByIdAsc(orderId, after);
+            if (!tail.isEmpty()) {
+                tail.forEach(order::apply);
+                index.save(order);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.learning.repository;
+
+import com.learning.model.OrderStatusEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OrderEventLog - append-only log of order status transitions
+ * 
+ * Implementations: JpaOrderEventLog (MySQL), InMemoryOrderEventLog.
+ */
+public interface OrderEventLog {
+
+    /**
+     * Append an event (assigns its id)
+     * 
+     * The event's seq must be the next one of its order (1 for the first).
+     * Anything else means another writer appended first and is rejected:
+     * IllegalStateException in-process, a unique-key violation on
+     * (order_id, seq) in SQL (DataIntegrityViolationException).
+     */
+    OrderStatusEvent save(OrderStatusEvent event);
+
+    /**
+     * Tail of one order: events after the given id, oldest first
+     */
+    List<OrderStatusEvent> findByOrderIdAndIdGreaterThanOrderByIdAsc(Long orderId, Long afterEventId);
+
+    /**
+     * Full history of several orders in ONE query, oldest first
+     */
+    List<OrderStatusEvent> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds);
+}
@@ -0,0 +1,36 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for paging a user's orders; null means "any"
+ * 
+ * createdFrom is inclusive, createdBefore exclusive.
+ */
+public record OrderFilter(OrderStatus status, LocalDateTime createdFrom, LocalDateTime createdBefore) {
+
+    public static final OrderFilter ALL = new OrderFilter(null, null, null);
+
+    public OrderFilter {
+        if (createdFrom != null && createdBefore != null && !createdFrom.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("createdFrom must be before createdBefore");
+        }
+    }
+
+    public static OrderFilter status(OrderStatus status) {
+        return new OrderFilter(status, null, null);
+    }
+
+    /**
+     * The same test as the database query, for in-memory stores
+     */
+    public boolean matches(Order order) {
+        LocalDateTime createdAt = order.getCreatedAt();
+        return (status == null || status == order.getStatus())
+                && (createdFrom == null || createdAt != null && !createdAt.isBefore(createdFrom))
+                && (createdBefore == null || createdAt != null && createdAt.isBefore(createdBefore));
+    }
+}
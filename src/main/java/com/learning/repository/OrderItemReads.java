@@ -0,0 +1,19 @@
+package com.learning.repository;
+
+import com.learning.model.OrderItemColumns;
+
+import java.util.Optional;
+
+/**
+ * OrderItemReads - custom fragment of JpaOrderRepository
+ * 
+ * Bulk item reads that bypass the entity model. Spring Data picks up
+ * OrderItemReadsImpl by naming convention.
+ */
+public interface OrderItemReads {
+
+    /**
+     * See OrderRepository.findItemColumns
+     */
+    Optional<OrderItemColumns> findItemColumns(Long orderId);
+}
@@ -0,0 +1,54 @@
+package com.learning.repository;
+
+import com.learning.model.OrderItemColumns;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the OrderItemReads fragment
+ * 
+ * [NOTES]
+ * SELECT i.id, i.product_id, i.product_name, i.quantity, i.price
+ * FROM order_items i WHERE i.order_id = ? ORDER BY i.id
+ * is a scalar projection: rows are streamed into the columns one by one,
+ * so a 50,000-line order never exists as 50,000 managed OrderItems (nor
+ * their BigDecimal / Money caches) in the persistence context. The count
+ * query sizes the arrays once and tells a missing order from an empty one.
+ */
+class OrderItemReadsImpl implements OrderItemReads {
+
+    private final EntityManager entityManager;
+
+    OrderItemReadsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderItemColumns> findItemColumns(Long orderId) {
+        Long lines = entityManager.createQuery(
+                "select count(i.id) from Order o left join o.items i where o.id = :orderId group by o.id", Long.class)
+                .setParameter("orderId", orderId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+        if (lines == null) {
+            return Optional.empty();
+        }
+
+        OrderItemColumns columns = new OrderItemColumns(Math.toIntExact(lines));
+        try (Stream<Object[]> rows = entityManager.createQuery("""
+                select i.id, i.productId, i.productName, i.quantity, i.price
+                from OrderItem i where i.order.id = :orderId order by i.id""", Object[].class)
+                .setParameter("orderId", orderId)
+                .getResultStream()) {
+            rows.forEach(row -> columns.add((Long) row[0], (Long) row[1], (String) row[2], (Integer) row[3],
+                    (BigDecimal) row[4]));
+        }
+        return Optional.of(columns);
+    }
+}
@@ -0,0 +1,19 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+
+import java.util.List;
+
+/**
+ * OrderPages - custom fragment of JpaOrderRepository
+ * 
+ * Keyset pages of a user's orders with optional filters. Spring Data picks
+ * up OrderPagesImpl by naming convention.
+ */
+public interface OrderPages {
+
+    /**
+     * See OrderRepository.findPageByUserId
+     */
+    List<Order> findPageByUserId(Long userId, OrderFilter filter, Long beforeId, int limit);
+}
@@ -0,0 +1,79 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of the OrderPages fragment
+ * 
+ * [NOTES]
+ * Two queries per page:
+ * 1. SELECT o.id FROM orders o WHERE o.user_id = ? [AND o.id < ?]
+ * [AND o.status = ?] [AND o.created_at >= ?] [AND o.created_at < ?]
+ * ORDER BY o.id DESC LIMIT ?
+ * Only the filters that are set become predicates (no "? IS NULL OR ..."),
+ * and the keyset condition walks idx_orders_user_id (user_id, id) or, with a
+ * status, idx_orders_user_status (user_id, status, id) backwards from the
+ * cursor: the cost of a page does not grow with its depth, unlike OFFSET.
+ * 2. SELECT o, i ... WHERE o.id IN (...) with items fetch-joined.
+ * Limiting a fetch join directly would make Hibernate page in memory
+ * (HHH90003004), so the LIMIT is applied to ids only.
+ */
+class OrderPagesImpl implements OrderPages {
+
+    private final EntityManager entityManager;
+
+    OrderPagesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> findPageByUserId(Long userId, OrderFilter filter, Long beforeId, int limit) {
+        StringBuilder jpql = new StringBuilder("select o.id from Order o where o.userId = :userId");
+        if (beforeId != null) {
+            jpql.append(" and o.id < :beforeId");
+        }
+        if (filter.status() != null) {
+            jpql.append(" and o.status = :status");
+        }
+        if (filter.createdFrom() != null) {
+            jpql.append(" and o.createdAt >= :createdFrom");
+        }
+        if (filter.createdBefore() != null) {
+            jpql.append(" and o.createdAt < :createdBefore");
+        }
+        jpql.append(" order by o.id desc");
+
+        TypedQuery<Long> ids = entityManager.createQuery(jpql.toString(), Long.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (beforeId != null) {
+            ids.setParameter("beforeId", beforeId);
+        }
+        if (filter.status() != null) {
+            ids.setParameter("status", filter.status());
+        }
+        if (filter.createdFrom() != null) {
+            ids.setParameter("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdBefore() != null) {
+            ids.setParameter("createdBefore", filter.createdBefore());
+        }
+
+        List<Long> page = ids.getResultList();
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        List<Order> orders = entityManager.createQuery(
+                "select distinct o from Order o left join fetch o.items where o.id in :ids", Order.class)
+                .setParameter("ids", page)
+                .getResultList();
+        return orders.stream().sorted(Comparator.comparing(Order::getId).reversed()).toList();
+    }
+}
@@ -0,0 +1,262 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItem;
+import com.learning.model.OrderStatusEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OrderRecordCodec - compact binary format for MappedOrderRepository
+ * 
+ * Payload layout (big-endian):
+ * 
+ * <pre>
+ * byte   type            1 = PUT, 2 = DELETE, 3 = EVENT, 4 = MARK
+ * long   orderId         (MARK: highest order id handed out)
+ * -- PUT only --
+ * long?  userId
+ * byte   status          OrderStatus ordinal (new statuses go at the END of the enum)
+ * dec?   totalAmount     int scale, short length, unscaled two's-complement bytes
+ * str?   shippingAddress int length, UTF-8 bytes
+ * str?   paymentId
+ * time?  createdAt       long epoch second (UTC), int nano
+ * time?  updatedAt
+ * long?  lastEventId
+ * int    eventSeq
+ * long?  version
+ * int    itemCount
+ *   long? id, long? productId, str? productName, int quantity, dec? price
+ * str?   contactEmail    (absent in records written before it was added)
+ * -- EVENT only (an OrderStatusEvent) --
+ * long   eventId
+ * int    seq
+ * byte   fromStatus, byte toStatus
+ * str?   paymentId, str? trackingNumber
+ * time?  occurredAt
+ * -- MARK only (first record of every segment) --
+ * long   eventId         highest event id handed out
+ * </pre>
+ * 
+ * "?" = nullable, prefixed by a presence byte (strings use length -1).
+ * New fields are appended after the items; payloads are read from a slice
+ * of exactly the record's length, so older records simply end earlier.
+ */
+final class OrderRecordCodec {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final byte EVENT = 3;
+    static final byte MARK = 4;
+    static final int MARK_LENGTH = 17;
+
+    private OrderRecordCodec() {
+    }
+
+    static byte[] encodePut(Order order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + 64 * order.getItems().size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(PUT);
+            out.writeLong(order.getId());
+            writeLong(out, order.getUserId());
+            out.writeByte(order.getStatus().ordinal());
+            writeDecimal(out, order.getTotalAmount());
+            writeString(out, order.getShippingAddress());
+            writeString(out, order.getPaymentId());
+            writeTime(out, order.getCreatedAt());
+            writeTime(out, order.getUpdatedAt());
+            writeLong(out, order.getLastEventId());
+            out.writeInt(order.getEventSeq());
+            writeLong(out, order.getVersion());
+            out.writeInt(order.getItems().size());
+            for (OrderItem item : order.getItems()) {
+                writeLong(out, item.getId());
+                writeLong(out, item.getProductId());
+                writeString(out, item.getProductName());
+                out.writeInt(item.getQuantity());
+                writeDecimal(out, item.getPrice());
+            }
+            writeString(out, order.getContactEmail());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encodeDelete(long orderId) {
+        return ByteBuffer.allocate(9).put(DELETE).putLong(orderId).array();
+    }
+
+    static byte[] encodeEvent(OrderStatusEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(EVENT);
+            out.writeLong(event.getOrderId());
+            out.writeLong(event.getId());
+            out.writeInt(event.getSeq());
+            out.writeByte(event.getFromStatus().ordinal());
+            out.writeByte(event.getToStatus().ordinal());
+            writeString(out, event.getPaymentId());
+            writeString(out, event.getTrackingNumber());
+            writeTime(out, event.getOccurredAt());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encodeMark(long orderSequence, long eventSequence) {
+        return ByteBuffer.allocate(MARK_LENGTH).put(MARK).putLong(orderSequence).putLong(eventSequence).array();
+    }
+
+    /**
+     * MARK payload as {orderSequence, eventSequence}
+     */
+    static long[] decodeMark(ByteBuffer payload) {
+        return new long[] { payload.getLong(payload.position() + 1), payload.getLong(payload.position() + 9) };
+    }
+
+    static byte type(ByteBuffer payload) {
+        return payload.get(payload.position());
+    }
+
+    static long orderId(ByteBuffer payload) {
+        return payload.getLong(payload.position() + 1);
+    }
+
+    /**
+     * Decode a PUT payload (the buffer position is consumed)
+     */
+    static Order decodePut(ByteBuffer in) {
+        in.get(); // type
+        Order order = new Order();
+        order.setId(in.getLong());
+        order.setUserId(readLong(in));
+        OrderStatus status = OrderStatus.values()[in.get()];
+        BigDecimal total = readDecimal(in);
+        String shippingAddress = readString(in);
+        String paymentId = readString(in);
+        LocalDateTime createdAt = readTime(in);
+        LocalDateTime updatedAt = readTime(in);
+        order.setLastEventId(readLong(in));
+        order.setEventSeq(in.getInt());
+        order.setVersion(readLong(in));
+
+        int itemCount = in.getInt();
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId(readLong(in));
+            item.setProductId(readLong(in));
+            item.setProductName(readString(in));
+            item.setQuantity(in.getInt());
+            item.setPrice(readDecimal(in));
+            items.add(item);
+        }
+        order.setItems(items);
+        order.setContactEmail(in.hasRemaining() ? readString(in) : null);
+
+        // setters last: setStatus() would overwrite updatedAt
+        order.setStatus(status);
+        order.setTotalAmount(total);
+        order.setShippingAddress(shippingAddress);
+        order.setPaymentId(paymentId);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        return order;
+    }
+
+    /**
+     * Decode an EVENT payload (the buffer position is consumed)
+     */
+    static OrderStatusEvent decodeEvent(ByteBuffer in) {
+        in.get(); // type
+        long orderId = in.getLong();
+        long eventId = in.getLong();
+        int seq = in.getInt();
+        OrderStatus from = OrderStatus.values()[in.get()];
+        OrderStatus to = OrderStatus.values()[in.get()];
+        OrderStatusEvent event = new OrderStatusEvent(orderId, seq, from, to, readString(in), readString(in),
+                readTime(in));
+        event.setId(eventId);
+        return event;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        int scale = in.getInt();
+        byte[] unscaled = new byte[in.getShort()];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -1,11 +1,22 @@
 package com.learning.repository;
 
 import com.learning.model.Order;
+import com.learning.model.OrderItemColumns;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * OrderRepository - Database layer for orders
+ * 
+ * Plain interface (the "port") so OrderService doesn't depend on JPA.
+ * Production implementation: JpaOrderRepository (Spring Data).
+ * 
+ * Status changes go through transitionStatus(), never read-check-save:
+ * two callers that both saw PENDING cannot both win. The compare-and-set is
+ * on the order's event sequence (Order#getEventSeq): the winner's status
+ * event is the only one appended with that number.
  */
 public interface OrderRepository {
 
@@ -13,11 +24,66 @@ public interface OrderRepository {
 
     Optional<Order> findById(Long id);
 
+    /**
+     * Load several orders in one query; missing ids are skipped
+     */
+    List<Order> findAllById(Iterable<Long> ids);
+
     List<Order> findByUserId(Long userId);
 
+    /**
+     * One keyset page of a user's orders, newest (highest id) first
+     * 
+     * Orders with id < beforeId (from the start if null) that match the
+     * filter, at most limit, items loaded. The next page starts before the
+     * last id returned.
+     */
+    List<Order> findPageByUserId(Long userId, OrderFilter filter, Long beforeId, int limit);
+
     List<Order> findByStatus(Order.OrderStatus status);
 
+    /**
+     * An order's lines as columns (OrderItemColumns), for bulk readers
+     * 
+     * JPA reads the five item columns straight into the arrays: no Order or
+     * OrderItem entity is created. Empty if the order does not exist.
+     * 
+     * @throws IllegalArgumentException if a line's price is null or not
+     *         representable as Money
+     */
+    Optional<OrderItemColumns> findItemColumns(Long orderId);
+
+    /**
+     * Number of orders in a status, without loading them
+     */
+    long countByStatus(Order.OrderStatus status);
+
     void deleteById(Long id);
 
+    /**
+     * Atomically move an order from expectedStatus to newStatus.
+     * 
+     * The mutator runs inside the atomic step, after the status is set and
+     * before the write (payment id, event pointer, ...). Returns the updated
+     * order, or empty if the order is missing or no longer in expectedStatus.
+     * 
+     * In-memory stores decide atomically. JPA reads first: if the order moves
+     * between its read and its write, it throws
+     * OptimisticLockingFailureException (and its transaction rolls back).
+     */
+    Optional<Order> transitionStatus(Long orderId, Order.OrderStatus expectedStatus,
+            Order.OrderStatus newStatus, Consumer<Order> mutator);
+
+    /**
+     * transitionStatus for many orders in one write
+     * 
+     * Returns the orders that moved; orders missing or not in expectedStatus
+     * are skipped. JPA applies it all-or-nothing (one batched UPDATE; a
+     * concurrent writer fails the whole batch with an
+     * OptimisticLockingFailureException), in-memory stores order by order.
+     */
+    List<Order> transitionStatusAll(Collection<Long> orderIds, Order.OrderStatus expectedStatus,
+            Order.OrderStatus newStatus, Consumer<Order> mutator);
+
     long count();
 }
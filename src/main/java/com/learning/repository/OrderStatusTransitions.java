@@ -0,0 +1,30 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * OrderStatusTransitions - custom fragment of JpaOrderRepository
+ * 
+ * Compare-and-set status changes as UPDATEs checked against the order's
+ * event sequence. Spring Data
+ * picks up OrderStatusTransitionsImpl by naming convention.
+ */
+public interface OrderStatusTransitions {
+
+    /**
+     * See OrderRepository.transitionStatus
+     */
+    Optional<Order> transitionStatus(Long orderId, Order.OrderStatus expectedStatus,
+            Order.OrderStatus newStatus, Consumer<Order> mutator);
+
+    /**
+     * See OrderRepository.transitionStatusAll
+     */
+    List<Order> transitionStatusAll(Collection<Long> orderIds, Order.OrderStatus expectedStatus,
+            Order.OrderStatus newStatus, Consumer<Order> mutator);
+}
@@ -0,0 +1,136 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the OrderStatusTransitions fragment
+ * 
+ * [NOTES]
+ * No row lock is taken. The compare-and-set is on the order's position in
+ * its event log (event_seq), so the row and the log cannot fork:
+ * 1. The order is read and the mutator runs on a detached copy; it appends
+ * event event_seq + 1. That INSERT is flushed first: of two writers that
+ * read the same event_seq, the second fails on the (order_id, seq) unique
+ * key (InnoDB makes it wait for the first to commit).
+ * 2. The row follows the log:
+ * 
+ * UPDATE orders SET status = ?, payment_id = ?, updated_at = ?,
+ * last_event_id = ?, event_seq = ?, version = version + 1
+ * WHERE id = ? AND event_seq = ?
+ * 
+ * Losing either check (duplicate seq, or 0 rows updated) means someone else
+ * moved the order first: OptimisticLockingFailureException, which rolls
+ * the transaction back (including anything the mutator wrote, e.g. the
+ * status event). A caller that joined with its own @Transactional is
+ * marked rollback-only too, so it must not keep writing in it.
+ * Only the columns above are written; the mutator must not change others.
+ * 
+ * transitionStatusAll loads all orders with one SELECT ... IN and lets
+ * Hibernate flush the changes: with @Version and hibernate.jdbc.batch_size
+ * that is ONE JDBC batch of version-checked UPDATEs (every transition bumps
+ * version too). A stale row fails the batch (OptimisticLockException ->
+ * rollback of everything), and so does a duplicate event seq.
+ */
+class OrderStatusTransitionsImpl implements OrderStatusTransitions {
+
+    private final EntityManager entityManager;
+
+    OrderStatusTransitionsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Order> transitionStatus(Long orderId, Order.OrderStatus expectedStatus,
+            Order.OrderStatus newStatus, Consumer<Order> mutator) {
+        Order order = entityManager.find(Order.class, orderId);
+        if (order == null || order.getStatus() != expectedStatus) {
+            return Optional.empty();
+        }
+
+        // Write through the guarded UPDATE below, not through dirty checking
+        entityManager.detach(order);
+        long version = order.getVersion() == null ? 0L : order.getVersion();
+        int eventSeq = order.getEventSeq();
+        order.setStatus(newStatus);
+        mutator.accept(order);
+        // The event INSERT first: a duplicate (order_id, seq) loses here
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            // The shared EntityManager wraps Hibernate's exception
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            throw lostRace(orderId, e);
+        }
+
+        int updated = entityManager.createQuery("""
+                update Order o
+                set o.status = :status, o.paymentId = :paymentId, o.updatedAt = :updatedAt,
+                    o.lastEventId = :lastEventId, o.eventSeq = :eventSeq, o.version = o.version + 1
+                where o.id = :id and o.eventSeq = :expectedSeq""")
+                .setParameter("status", order.getStatus())
+                .setParameter("paymentId", order.getPaymentId())
+                .setParameter("updatedAt", order.getUpdatedAt())
+                .setParameter("lastEventId", order.getLastEventId())
+                .setParameter("eventSeq", order.getEventSeq())
+                .setParameter("id", orderId)
+                .setParameter("expectedSeq", eventSeq)
+                .executeUpdate();
+
+        if (updated == 0) {
+            throw lostRace(orderId, null);
+        }
+        order.setVersion(version + 1);
+        return Optional.of(order);
+    }
+
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static OptimisticLockingFailureException lostRace(Long orderId, Throwable cause) {
+        return new OptimisticLockingFailureException("Order " + orderId + " changed concurrently", cause);
+    }
+
+    @Override
+    @Transactional
+    public List<Order> transitionStatusAll(Collection<Long> orderIds, Order.OrderStatus expectedStatus,
+            Order.OrderStatus newStatus, Consumer<Order> mutator) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        List<Order> orders = entityManager
+                .createQuery("select o from Order o where o.id in :ids", Order.class)
+                .setParameter("ids", orderIds)
+                .getResultList();
+
+        List<Order> moved = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (order.getStatus() == expectedStatus) {
+                order.setStatus(newStatus);
+                mutator.accept(order);
+                moved.add(order);
+            }
+        }
+        entityManager.flush();
+        return moved;
+    }
+}
@@ -0,0 +1,54 @@
+package com.learning.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+/**
+ * OrderStoreConfiguration - picks the OrderRepository implementation
+ * 
+ * orders.store=jpa (default) -> JpaOrderRepository (MySQL)
+ * orders.store=memory -> InMemoryOrderRepository (edge/cache nodes)
+ * orders.store=mapped -> MappedOrderRepository (memory-mapped files in
+ * orders.store.directory, no database)
+ * 
+ * The OrderEventLog follows the store: memory gets InMemoryOrderEventLog,
+ * mapped writes its events into its own segments (eventLog()), jpa uses
+ * JpaOrderEventLog.
+ */
+@Configuration(proxyBeanMethods = false)
+public class OrderStoreConfiguration {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "orders.store", havingValue = "memory")
+    public OrderRepository inMemoryOrderRepository() {
+        return new InMemoryOrderRepository();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "orders.store", havingValue = "memory")
+    public OrderEventLog inMemoryOrderEventLog() {
+        return new InMemoryOrderEventLog();
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    @ConditionalOnProperty(name = "orders.store", havingValue = "mapped")
+    public MappedOrderRepository mappedOrderRepository(
+            @Value("${orders.store.directory:data/orders}") Path directory) {
+        return new MappedOrderRepository(directory);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "orders.store", havingValue = "mapped")
+    public OrderEventLog mappedOrderEventLog(MappedOrderRepository mappedOrderRepository) {
+        return mappedOrderRepository.eventLog();
+    }
+}
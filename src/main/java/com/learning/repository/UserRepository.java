@@ -1,9 +1,15 @@
 package com.learning.repository;
 
 import com.learning.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,22 +21,41 @@ import java.util.Optional;
  * - save(), findById(), count(), deleteById(), findAll()
  * 
  * We only declare CUSTOM query methods here.
+ * 
+ * ArchivedUserLookup adds read fallbacks into users_archive.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, ArchivedUserLookup {
 
     /**
      * Find user by email
-     * Spring Data JPA automatically generates SQL: SELECT * FROM users WHERE email
-     * = ?
+     * Goes through the fixed-width hash index (see User#hashEmail), the real
+     * email comparison only filters out hash collisions.
      */
-    Optional<User> findByEmail(String email);
+    default Optional<User> findByEmail(String email) {
+        return findByEmailHash(User.hashEmail(email), User.normalizeEmail(email));
+    }
 
     /**
      * Check if email already exists
-     * Spring Data JPA generates: SELECT COUNT(*) > 0 FROM users WHERE email = ?
+     * Same hash lookup as findByEmail, no entity is loaded.
+     */
+    default boolean existsByEmail(String email) {
+        return existsByEmailHash(User.hashEmail(email), User.normalizeEmail(email));
+    }
+
+    /**
+     * SELECT * FROM users WHERE email_hash = ? AND LOWER(TRIM(email)) = ?
+     * The column is normalized the same way as the argument (User#normalizeEmail),
+     * so a stored email with surrounding whitespace still matches its hash.
+     * The function call keeps MySQL on idx_users_email_hash instead of the
+     * wide unique index on email.
      */
-    boolean existsByEmail(String email);
+    @Query("select u from User u where u.emailHash = :hash and lower(trim(u.email)) = :email")
+    Optional<User> findByEmailHash(@Param("hash") byte[] hash, @Param("email") String normalizedEmail);
+
+    @Query("select count(u) > 0 from User u where u.emailHash = :hash and lower(trim(u.email)) = :email")
+    boolean existsByEmailHash(@Param("hash") byte[] hash, @Param("email") String normalizedEmail);
 
     /**
      * Find all active users
@@ -38,6 +63,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByActiveTrue();
 
+    /**
+     * Keyset page of users that are inactive since before the cutoff
+     * SELECT * FROM users WHERE active = false AND COALESCE(updated_at,
+     * created_at) < ? AND id > ? ORDER BY id LIMIT ?
+     */
+    @Query("select u from User u where u.active = false and coalesce(u.updatedAt, u.createdAt) < :cutoff "
+            + "and u.id > :afterId order by u.id")
+    List<User> findArchiveCandidates(@Param("afterId") Long afterId,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable page);
+
+    /**
+     * Delete archived rows, re-checking they are still inactive
+     * Returns the number of rows removed.
+     */
+    @Modifying
+    @Query("delete from User u where u.id in :ids and u.active = false")
+    int deleteInactiveByIdIn(@Param("ids") Collection<Long> ids);
+
     // NOTE:
     // save(), findById(), count(), deleteById() come from JpaRepository!
     // We don't need to define them anymore.
@@ -0,0 +1,42 @@
+package com.learning.resilience;
+
+import java.time.Duration;
+
+/**
+ * AdaptiveTimeout - timeout that follows the dependency's observed latency
+ * 
+ * timeout = clamp(p99 of recent successful calls * multiplier, min, max).
+ * Until there are samples the max is used, so a cold dependency is not cut
+ * off early; once it is warm a slow outlier gives up long before max.
+ */
+public class AdaptiveTimeout {
+
+    private static final double PERCENTILE = 0.99;
+
+    private final LatencyTracker latencies;
+    private final double multiplier;
+    private final Duration min;
+    private final Duration max;
+
+    public AdaptiveTimeout(LatencyTracker latencies, double multiplier, Duration min, Duration max) {
+        if (min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("min timeout must not exceed max timeout");
+        }
+        this.latencies = latencies;
+        this.multiplier = multiplier;
+        this.min = min;
+        this.max = max;
+    }
+
+    public Duration current() {
+        Duration p99 = latencies.percentile(PERCENTILE);
+        if (p99 == null) {
+            return max;
+        }
+        Duration scaled = Duration.ofNanos((long) (p99.toNanos() * multiplier));
+        if (scaled.compareTo(min) < 0) {
+            return min;
+        }
+        return scaled.compareTo(max) > 0 ? max : scaled;
+    }
+}
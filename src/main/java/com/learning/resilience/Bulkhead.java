@@ -0,0 +1,50 @@
+package com.learning.resilience;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead - a dependency's own threads and queue
+ * 
+ * At most maxConcurrent calls run at once and queueCapacity wait; anything
+ * beyond is refused immediately (RejectedExecutionException) instead of
+ * piling up on request threads.
+ */
+public class Bulkhead implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    public Bulkhead(String name, int maxConcurrent, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-bulkhead-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> Future<T> submit(Callable<T> call) throws RejectedExecutionException {
+        return executor.submit(call);
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.learning.resilience;
+
+import java.time.Duration;
+
+/**
+ * CircuitBreaker - stops calling a dependency that keeps failing
+ * 
+ * CLOSED    -> calls flow; the last windowSize outcomes are kept. Once
+ * minimumCalls are in and the failure rate reaches the threshold: OPEN.
+ * OPEN      -> every call is refused until openDuration has passed.
+ * HALF_OPEN -> up to halfOpenProbes trial calls. All succeed: CLOSED (with a
+ * fresh window). Any fails: OPEN again.
+ * 
+ * Every permit from tryAcquire() must end in onSuccess(), onFailure() or
+ * release() (call never made).
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probesIssued;
+    private int probeSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+            Duration openDuration, int halfOpenProbes) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesIssued = 0;
+                probeSuccesses = 0;
+                // fall through: this caller is the first probe
+            case HALF_OPEN:
+            default:
+                if (probesIssued >= halfOpenProbes) {
+                    return false;
+                }
+                probesIssued++;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probeSuccesses >= halfOpenProbes) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            recordOutcome(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            recordOutcome(true);
+            if (calls >= minimumCalls && (double) failures / calls >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Give a permit back without an outcome (e.g. the bulkhead refused the call)
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesIssued > 0) {
+            probesIssued--;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void recordOutcome(boolean failed) {
+        if (calls == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+        calls = Math.min(calls + 1, window.length);
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,260 @@
+package com.learning.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * DependencyGuard - circuit breaker + bulkhead + adaptive timeout around one
+ * remote dependency
+ * 
+ * call(): circuit open? refuse. Bulkhead full? refuse. Otherwise run the call
+ * on the bulkhead and wait at most the adaptive timeout; on timeout the call
+ * is cancelled (interrupted) and counts as a failure for the breaker.
+ * Everything refused or timed out surfaces as DependencyUnavailableException;
+ * an exception thrown by the dependency itself is rethrown as is.
+ * 
+ * call(call, lateOutcome) is for calls with side effects (charges): a call
+ * that already started is left running on timeout and its eventual result
+ * goes to lateOutcome, so the caller can settle work it stopped waiting for.
+ * call(call, units, lateOutcome) guards a batch doing the work of several
+ * single calls as one call.
+ * 
+ * [NOTES]
+ * - A call that times out while still queued never runs: its outcome is
+ * known (nothing happened). One that was running when the caller gave up
+ * is reported with isOutcomeUnknown().
+ * - Refusals are cheap (no thread, no wait): a dead dependency costs callers
+ * microseconds instead of a full timeout each.
+ * - Only the dependency's own run time (not queue wait) feeds the latency
+ * window, so a backlog does not inflate the timeout it is judged by.
+ * - Meters, all tagged dependency=<name>:
+ *   dependency.calls{outcome=success|failure}           timer
+ *   dependency.rejections{reason=circuit_open|bulkhead|timeout}  counter
+ *   dependency.in.flight, dependency.queue.depth        gauges
+ *   dependency.circuit.state   gauge, 0 CLOSED / 1 OPEN / 2 HALF_OPEN
+ *   dependency.timeout         gauge, current timeout in ms
+ */
+public class DependencyGuard implements AutoCloseable {
+
+    /**
+     * Tuning for one dependency
+     */
+    public record Settings(int maxConcurrent, int queueCapacity,
+            double timeoutMultiplier, Duration minTimeout, Duration maxTimeout,
+            int breakerWindow, int breakerMinimumCalls, double breakerFailureRate,
+            Duration breakerOpenDuration, int breakerHalfOpenProbes) {
+
+        /**
+         * Timeout 3x p99 within [minTimeout, maxTimeout]; breaker opens at 50%
+         * failures over the last 50 calls (20 minimum) for 10s, then 3 probes
+         */
+        public static Settings of(int maxConcurrent, int queueCapacity, Duration minTimeout, Duration maxTimeout) {
+            return new Settings(maxConcurrent, queueCapacity, 3.0, minTimeout, maxTimeout,
+                    50, 20, 0.5, Duration.ofSeconds(10), 3);
+        }
+    }
+
+    private static final int LATENCY_WINDOW = 1_000;
+    private static final int LATENCY_REFRESH = 50;
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int ABANDONED = 3;
+
+    private final String name;
+    private final CircuitBreaker breaker;
+    private final Bulkhead bulkhead;
+    private final AdaptiveTimeout timeout;
+    private final LatencyTracker latencies;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadRejections;
+    private final Counter timeoutRejections;
+
+    public DependencyGuard(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.breaker = new CircuitBreaker(settings.breakerWindow(), settings.breakerMinimumCalls(),
+                settings.breakerFailureRate(), settings.breakerOpenDuration(), settings.breakerHalfOpenProbes());
+        this.bulkhead = new Bulkhead(name, settings.maxConcurrent(), settings.queueCapacity());
+        this.latencies = new LatencyTracker(LATENCY_WINDOW, LATENCY_REFRESH);
+        this.timeout = new AdaptiveTimeout(latencies, settings.timeoutMultiplier(),
+                settings.minTimeout(), settings.maxTimeout());
+
+        this.successTimer = callTimer("success", meterRegistry);
+        this.failureTimer = callTimer("failure", meterRegistry);
+        this.circuitOpenRejections = rejectionCounter("circuit_open", meterRegistry);
+        this.bulkheadRejections = rejectionCounter("bulkhead", meterRegistry);
+        this.timeoutRejections = rejectionCounter("timeout", meterRegistry);
+        Gauge.builder("dependency.in.flight", bulkhead, Bulkhead::activeCount)
+                .tag("dependency", name).register(meterRegistry);
+        Gauge.builder("dependency.queue.depth", bulkhead, Bulkhead::queueDepth)
+                .tag("dependency", name).register(meterRegistry);
+        Gauge.builder("dependency.circuit.state", breaker, cb -> cb.state().ordinal())
+                .tag("dependency", name).register(meterRegistry);
+        Gauge.builder("dependency.timeout", timeout, t -> t.current().toMillis())
+                .tag("dependency", name).baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    public <T> T call(Callable<T> call) {
+        return call(call, null);
+    }
+
+    /**
+     * Like call(call), but a started call is not cancelled when the caller
+     * gives up (timeout, interrupt): when it ends, lateOutcome gets (result,
+     * null) or (null, error), on the bulkhead thread. Only called if the
+     * DependencyUnavailableException thrown to the caller isOutcomeUnknown().
+     */
+    public <T> T call(Callable<T> call, BiConsumer<? super T, ? super Throwable> lateOutcome) {
+        return call(call, 1, lateOutcome);
+    }
+
+    /**
+     * Like call(call, lateOutcome), for a call doing the work of units
+     * single calls (a batch): it gets units times the timeout, and its run
+     * time enters the latency window per unit, so batches neither time out
+     * on the single-call limit nor inflate it. It counts as one call for the
+     * breaker and takes one bulkhead slot.
+     */
+    public <T> T call(Callable<T> call, int units, BiConsumer<? super T, ? super Throwable> lateOutcome) {
+        if (units < 1) {
+            throw new IllegalArgumentException("A call does at least one unit of work: " + units);
+        }
+        if (!breaker.tryAcquire()) {
+            circuitOpenRejections.increment();
+            throw new DependencyUnavailableException(name, "circuit open");
+        }
+
+        long submitted = System.nanoTime();
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Future<T> future;
+        try {
+            future = bulkhead.submit(() -> {
+                if (!state.compareAndSet(QUEUED, RUNNING)) {
+                    return null; // the caller gave up before it started
+                }
+                long started = System.nanoTime();
+                T result;
+                try {
+                    result = call.call();
+                } catch (Exception e) {
+                    if (!state.compareAndSet(RUNNING, DONE) && lateOutcome != null) {
+                        lateOutcome.accept(null, e);
+                    }
+                    throw e;
+                }
+                latencies.record((System.nanoTime() - started) / units);
+                if (!state.compareAndSet(RUNNING, DONE) && lateOutcome != null) {
+                    lateOutcome.accept(result, null);
+                }
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            breaker.release();
+            bulkheadRejections.increment();
+            throw new DependencyUnavailableException(name, "bulkhead full");
+        }
+
+        Duration limit = timeout.current().multipliedBy(units);
+        try {
+            T result;
+            try {
+                result = future.get(limit.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                int abandoned = abandon(state, future, lateOutcome != null);
+                if (abandoned != DONE) {
+                    breaker.onFailure();
+                    timeoutRejections.increment();
+                    failureTimer.record(Duration.ofNanos(System.nanoTime() - submitted));
+                    throw new DependencyUnavailableException(name, "timed out after " + limit.toMillis() + "ms"
+                            + (abandoned == QUEUED ? " before it started" : ""), null, abandoned == RUNNING);
+                }
+                result = future.get(); // finished as the timeout fired
+            }
+            breaker.onSuccess();
+            successTimer.record(Duration.ofNanos(System.nanoTime() - submitted));
+            return result;
+        } catch (ExecutionException e) {
+            breaker.onFailure();
+            failureTimer.record(Duration.ofNanos(System.nanoTime() - submitted));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new DependencyUnavailableException(name, "call failed", e.getCause());
+        } catch (InterruptedException e) {
+            int abandoned = abandon(state, future, lateOutcome != null);
+            if (abandoned == DONE && lateOutcome != null) {
+                handOver(future, lateOutcome);
+            }
+            breaker.release();
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name, "interrupted", e, abandoned != QUEUED);
+        }
+    }
+
+    // QUEUED: dropped, never runs. RUNNING: left to lateOutcome or interrupted. DONE: too late to give up
+    private static int abandon(AtomicInteger state, Future<?> future, boolean keepRunning) {
+        int prior = state.getAndUpdate(current -> current == DONE ? DONE : ABANDONED);
+        if (prior == QUEUED || prior == RUNNING && !keepRunning) {
+            future.cancel(true);
+        }
+        return prior;
+    }
+
+    // The call finished but the caller was interrupted before taking its result
+    private static <T> void handOver(Future<T> future, BiConsumer<? super T, ? super Throwable> lateOutcome) {
+        try {
+            lateOutcome.accept(future.get(), null);
+        } catch (ExecutionException e) {
+            lateOutcome.accept(null, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // cannot happen: the future is done
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return breaker.state();
+    }
+
+    public Duration currentTimeout() {
+        return timeout.current();
+    }
+
+    @Override
+    public void close() {
+        bulkhead.close();
+    }
+
+    private Timer callTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("dependency.calls")
+                .tag("dependency", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectionCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("dependency.rejections")
+                .tag("dependency", name)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.learning.resilience;
+
+/**
+ * Thrown by DependencyGuard when a call was refused (circuit open, bulkhead
+ * full) or gave up (timeout). isOutcomeUnknown(): the call had started when
+ * the caller gave up, so the remote side may still have done the work.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String dependency;
+    private final boolean outcomeUnknown;
+
+    public DependencyUnavailableException(String dependency, String reason) {
+        this(dependency, reason, null, false);
+    }
+
+    public DependencyUnavailableException(String dependency, String reason, Throwable cause) {
+        this(dependency, reason, cause, false);
+    }
+
+    public DependencyUnavailableException(String dependency, String reason, Throwable cause,
+            boolean outcomeUnknown) {
+        super(dependency + " unavailable: " + reason, cause);
+        this.dependency = dependency;
+        this.outcomeUnknown = outcomeUnknown;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public boolean isOutcomeUnknown() {
+        return outcomeUnknown;
+    }
+}
@@ -0,0 +1,57 @@
+package com.learning.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * LatencyTracker - percentiles over the last N call latencies
+ * 
+ * Ring buffer of the most recent samples. Percentiles are read from a sorted
+ * snapshot that is rebuilt every refreshEvery samples, so reads are an array
+ * lookup and writes stay O(1) most of the time.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final int refreshEvery;
+    private int next;
+    private int count;
+    private int sinceRefresh;
+    private volatile long[] sorted = new long[0];
+
+    public LatencyTracker(int windowSize, int refreshEvery) {
+        if (windowSize <= 0 || refreshEvery <= 0) {
+            throw new IllegalArgumentException("windowSize and refreshEvery must be positive");
+        }
+        this.samples = new long[windowSize];
+        this.refreshEvery = refreshEvery;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRefresh >= refreshEvery || sorted.length < refreshEvery) {
+            long[] snapshot = Arrays.copyOf(samples, count);
+            Arrays.sort(snapshot);
+            sorted = snapshot;
+            sinceRefresh = 0;
+        }
+    }
+
+    /**
+     * Latency at the given percentile (0..1), or null with no samples yet
+     */
+    public Duration percentile(double percentile) {
+        long[] snapshot = sorted;
+        if (snapshot.length == 0) {
+            return null;
+        }
+        int index = (int) Math.ceil(percentile * snapshot.length) - 1;
+        return Duration.ofNanos(snapshot[Math.max(0, Math.min(index, snapshot.length - 1))]);
+    }
+
+    public int sampleCount() {
+        return sorted.length;
+    }
+}
@@ -0,0 +1,25 @@
+package com.learning.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * OrderPipelineConfiguration - the OrderPipelineExecutors behind OrderService
+ * 
+ * orders.pipeline.store-threads         repository calls   (10, the Hikari pool)
+ * orders.pipeline.payment-threads       gateway calls      (20, payment bulkhead)
+ * orders.pipeline.notification-threads  emails             (2)
+ * The pools are shut down with the context.
+ */
+@Configuration(proxyBeanMethods = false)
+public class OrderPipelineConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public OrderPipelineExecutors orderPipelineExecutors(
+            @Value("${orders.pipeline.store-threads:10}") int storeThreads,
+            @Value("${orders.pipeline.payment-threads:20}") int paymentThreads,
+            @Value("${orders.pipeline.notification-threads:2}") int notificationThreads) {
+        return OrderPipelineExecutors.fixed(storeThreads, paymentThreads, notificationThreads);
+    }
+}
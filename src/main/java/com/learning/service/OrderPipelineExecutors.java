@@ -0,0 +1,81 @@
+package com.learning.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OrderPipelineExecutors - the thread pools behind OrderService's async API
+ * 
+ * One pool per kind of blocking work, so a slow stage can't starve the others:
+ * - store: repository calls (sized like the JDBC connection pool)
+ * - payment: PaymentGateway round trips (sized for gateway concurrency)
+ * - notification: fire-and-forget emails (small; a slow mail server only
+ * delays emails, never confirmations)
+ * 
+ * Java 17: platform threads. On 21+ the pools can be swapped for
+ * Executors.newVirtualThreadPerTaskExecutor() without touching OrderService.
+ */
+public class OrderPipelineExecutors implements AutoCloseable {
+
+    private final Executor store;
+    private final Executor payment;
+    private final Executor notification;
+
+    public OrderPipelineExecutors(Executor store, Executor payment, Executor notification) {
+        this.store = store;
+        this.payment = payment;
+        this.notification = notification;
+    }
+
+    /**
+     * Fixed-size daemon pools named order-store-N, order-payment-N,
+     * order-notification-N
+     */
+    public static OrderPipelineExecutors fixed(int storeThreads, int paymentThreads, int notificationThreads) {
+        return new OrderPipelineExecutors(
+                Executors.newFixedThreadPool(storeThreads, named("order-store")),
+                Executors.newFixedThreadPool(paymentThreads, named("order-payment")),
+                Executors.newFixedThreadPool(notificationThreads, named("order-notification")));
+    }
+
+    /**
+     * Runs every stage on the calling thread (tests)
+     */
+    public static OrderPipelineExecutors direct() {
+        Executor caller = Runnable::run;
+        return new OrderPipelineExecutors(caller, caller, caller);
+    }
+
+    public Executor store() {
+        return store;
+    }
+
+    public Executor payment() {
+        return payment;
+    }
+
+    public Executor notification() {
+        return notification;
+    }
+
+    @Override
+    public void close() {
+        for (Executor executor : new Executor[] { store, payment, notification }) {
+            if (executor instanceof ExecutorService service) {
+                service.shutdown();
+            }
+        }
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,18 +1,50 @@
 package com.learning.service;
 
 import com.learning.external.EmailService;
+import com.learning.external.EmailService.ShippingNotification;
 import com.learning.external.PaymentGateway;
+import com.learning.external.PaymentGateway.PaymentRequest;
 import com.learning.external.PaymentGateway.PaymentResult;
+import com.learning.model.Money;
 import com.learning.model.Order;
 import com.learning.model.Order.OrderStatus;
 import com.learning.model.OrderItem;
+import com.learning.model.OrderItemColumns;
+import com.learning.model.OrderStatusEvent;
 import com.learning.model.User;
+import com.learning.pricing.PriceQuote;
+import com.learning.pricing.PricingEngine;
+import com.learning.repository.OrderEventLog;
+import com.learning.repository.OrderFilter;
 import com.learning.repository.OrderRepository;
 import com.learning.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * OrderService - Complex business logic for orders
@@ -22,22 +54,63 @@ import java.util.Optional;
  * - UserRepository (database)
  * - PaymentGateway (external payment)
  * - EmailService (external email)
+ * - OrderEventLog (append-only status history)
+ * - OrderStateMachine (legal transitions, transition metrics/listeners)
+ * - OrderPipelineExecutors (thread pools for the async API)
+ * - PaymentIdempotencyStore (one payment attempt per order)
+ * - PricingEngine (discount rules, see quoteOrders)
+ * 
+ * Status changes are COMPARE-AND-SET (OrderRepository.transitionStatus):
+ * the status that was checked is the status that gets replaced, or the call
+ * fails. Each change also appends an OrderStatusEvent in the same atomic
+ * step, so the row is always current and the log is its full history.
+ * 
+ * As a bean it gets the wrapped PaymentGateway / EmailService
+ * (ExternalResilienceConfiguration) and the pools of OrderPipelineConfiguration.
  */
+@Service
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    /**
+     * Charges per PaymentGateway.processPayments round trip
+     */
+    static final int PAYMENT_BATCH_SIZE = 100;
+
+    /**
+     * Largest page getUserOrders serves (also the page size of exportUserOrders)
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final PaymentGateway paymentGateway;
     private final EmailService emailService;
+    private final OrderEventLog orderEventLog;
+    private final OrderStateMachine stateMachine;
+    private final OrderPipelineExecutors executors;
+    private final PaymentIdempotencyStore idempotencyStore;
+    private final PricingEngine pricingEngine;
 
     public OrderService(OrderRepository orderRepository,
             UserRepository userRepository,
             PaymentGateway paymentGateway,
-            EmailService emailService) {
+            EmailService emailService,
+            OrderEventLog orderEventLog,
+            OrderStateMachine stateMachine,
+            OrderPipelineExecutors executors,
+            PaymentIdempotencyStore idempotencyStore,
+            PricingEngine pricingEngine) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.paymentGateway = paymentGateway;
         this.emailService = emailService;
+        this.orderEventLog = orderEventLog;
+        this.stateMachine = stateMachine;
+        this.executors = executors;
+        this.idempotencyStore = idempotencyStore;
+        this.pricingEngine = pricingEngine;
     }
 
     /**
@@ -72,10 +145,12 @@ public class OrderService {
         // Create order
         Order order = new Order(userId, items);
         order.setShippingAddress(shippingAddress);
-        order.setTotalAmount(order.calculateTotal());
+        order.setContactEmail(user.getEmail());
         order.setStatus(OrderStatus.PENDING);
 
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        stateMachine.created(savedOrder);
+        return savedOrder;
     }
 
     /**
@@ -85,94 +160,457 @@ public class OrderService {
      * 1. Find order
      * 2. Verify order is pending
      * 3. Process payment
-     * 4. Update order status
+     * 4. Update order status (PENDING -> CONFIRMED, compare-and-set)
      * 5. Send confirmation email
+     * 
+     * If the order left PENDING while the card was charged (e.g. a concurrent
+     * cancel or payment won), the charge is refunded and the call fails.
+     * 
+     * Retries are idempotent (PaymentIdempotencyStore): while an attempt for
+     * the order is in flight a retry waits for it, after it succeeded a retry
+     * returns the order without charging again, and a retry of a failed
+     * attempt gets the same failure if it was still waiting.
+     * 
+     * If the gateway's answer times out the charge may still go through:
+     * the call fails with PaymentOutcomeUnknownException, the attempt stays
+     * open (retries get the same exception, nothing is charged twice), and
+     * the late answer is verified with verifyPayment and settles it: the
+     * order is confirmed, or the key is freed for a new attempt.
      */
     public Order processPayment(Long orderId, String cardToken) {
-        // Find order
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        Optional<CompletableFuture<PaymentResult>> earlier = idempotencyStore.begin(orderId);
+        if (earlier.isPresent()) {
+            return awaitEarlierAttempt(orderId, earlier.get());
+        }
+
+        Order savedOrder;
+        try {
+            Order order = loadPendingOrder(orderId);
+            PaymentResult result = charge(order, cardToken);
+            savedOrder = confirmPayment(order, result);
+            idempotencyStore.complete(orderId, result);
+        } catch (PaymentOutcomeUnknownException e) {
+            throw e; // the late answer ends the attempt
+        } catch (RuntimeException e) {
+            idempotencyStore.fail(orderId, e);
+            throw e;
+        }
+        sendOrderConfirmation(savedOrder);
+        return savedOrder;
+    }
+
+    /**
+     * Non-blocking processPayment
+     * 
+     * Same stages, each on its own pool (OrderPipelineExecutors):
+     * load (store) -> charge (payment) -> confirm (store) -> email
+     * (notification, fire-and-forget). The future completes as soon as the
+     * order is CONFIRMED; email failures are logged, never propagated.
+     * Failures complete the future exceptionally (CompletionException wrapping
+     * the same exceptions processPayment throws). Retries are idempotent as
+     * in processPayment; a retry's future follows the first attempt's.
+     */
+    public CompletableFuture<Order> processPaymentAsync(Long orderId, String cardToken) {
+        Optional<CompletableFuture<PaymentResult>> earlier = idempotencyStore.begin(orderId);
+        if (earlier.isPresent()) {
+            return earlier.get().thenApplyAsync(result -> findOrder(orderId), executors.store());
+        }
+
+        return CompletableFuture.supplyAsync(() -> loadPendingOrder(orderId), executors.store())
+                .thenApplyAsync(order -> new Charged(order, charge(order, cardToken)), executors.payment())
+                .thenApplyAsync(charged -> {
+                    Order savedOrder = confirmPayment(charged.order(), charged.result());
+                    idempotencyStore.complete(orderId, charged.result());
+                    return savedOrder;
+                }, executors.store())
+                .whenComplete((savedOrder, failure) -> {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof PaymentOutcomeUnknownException) {
+                        return; // the late answer ends the attempt
+                    }
+                    if (failure != null) {
+                        idempotencyStore.fail(orderId, cause);
+                    } else {
+                        CompletableFuture.runAsync(() -> sendOrderConfirmation(savedOrder), executors.notification())
+                                .exceptionally(error -> {
+                                    log.warn("Confirmation email for order {} failed", savedOrder.getId(), error);
+                                    return null;
+                                });
+                    }
+                });
+    }
+
+    private record Charged(Order order, PaymentResult result) {
+    }
+
+    // Retry of a payment already in flight or done: wait, then return the order as it is now
+    private Order awaitEarlierAttempt(Long orderId, CompletableFuture<PaymentResult> attempt) {
+        if (idempotencyStore.isOutcomeUnknown(orderId)) {
+            throw new PaymentOutcomeUnknownException(orderId, "an earlier charge timed out");
+        }
+        try {
+            attempt.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw e;
+        }
+        return findOrder(orderId);
+    }
+
+    /**
+     * One payment in a processPayments batch
+     */
+    public record PaymentCommand(Long orderId, String cardToken) {
+    }
+
+    /**
+     * Result for one PaymentCommand: the confirmed order, or why it failed
+     */
+    public record PaymentOutcome(Long orderId, boolean success, Order order, String message) {
+
+        static PaymentOutcome confirmed(Order order) {
+            return new PaymentOutcome(order.getId(), true, order, "Success");
+        }
+
+        static PaymentOutcome failed(Long orderId, String message) {
+            return new PaymentOutcome(orderId, false, null, message);
+        }
+    }
+
+    /**
+     * Process a burst of payments with a few round trips
+     * 
+     * 1. Load all orders (one query)
+     * 2. Charge the pending ones, PAYMENT_BATCH_SIZE per gateway call
+     * 3. Confirm every charged order with one batched update; if another
+     * writer got in the way, fall back to compare-and-set per order
+     * (losers are refunded, like processPayment)
+     * 4. Send confirmation emails (to each order's captured contact)
+     * 
+     * One bad order never fails the batch: every command gets a
+     * PaymentOutcome, in input order. A repeated order id is charged once.
+     * A charge whose answer timed out is reported as failed but is not
+     * treated as a decline: the order stays PENDING with its payment attempt
+     * open, and when the gateway's late answer arrives it is verified and
+     * the order confirmed (or the charge refunded if the order moved on).
+     * Orders already paid through PaymentIdempotencyStore are reported as
+     * confirmed without a charge; orders with a payment in flight elsewhere
+     * are skipped.
+     */
+    public List<PaymentOutcome> processPayments(List<PaymentCommand> commands) {
+        PaymentOutcome[] outcomes = new PaymentOutcome[commands.size()];
+        Map<Long, Integer> positions = new HashMap<>();
+        Map<Long, Order> orders = orderRepository
+                .findAllById(commands.stream().map(PaymentCommand::orderId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        // Validate
+        List<PaymentCommand> eligible = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            Long orderId = commands.get(i).orderId();
+            Order order = orders.get(orderId);
+            if (positions.putIfAbsent(orderId, i) != null) {
+                outcomes[i] = PaymentOutcome.failed(orderId, "Duplicate payment request for order " + orderId);
+            } else if (order == null) {
+                outcomes[i] = PaymentOutcome.failed(orderId, "Order not found: " + orderId);
+            } else {
+                Optional<CompletableFuture<PaymentResult>> earlier = idempotencyStore.begin(orderId);
+                if (earlier.isPresent()) {
+                    if (earlier.get().isDone() && !earlier.get().isCompletedExceptionally()) {
+                        outcomes[i] = PaymentOutcome.confirmed(order);
+                    } else if (idempotencyStore.isOutcomeUnknown(orderId)) {
+                        String message = new PaymentOutcomeUnknownException(orderId, "an earlier charge timed out")
+                                .getMessage();
+                        outcomes[i] = PaymentOutcome.failed(orderId, message);
+                    } else {
+                        outcomes[i] = PaymentOutcome.failed(orderId,
+                                "Payment already in progress for order " + orderId);
+                    }
+                } else if (!stateMachine.canTransition(order.getStatus(), OrderStatus.CONFIRMED)) {
+                    outcomes[i] = PaymentOutcome.failed(orderId, "Order is not pending payment: " + order.getStatus());
+                    idempotencyStore.fail(orderId, new IllegalStateException(outcomes[i].message()));
+                } else {
+                    eligible.add(commands.get(i));
+                }
+            }
+        }
+
+        try {
+            chargeAndConfirm(eligible, orders, positions, outcomes);
+        } catch (RuntimeException e) {
+            eligible.stream().map(PaymentCommand::orderId)
+                    .filter(orderId -> outcomes[positions.get(orderId)] == null)
+                    .forEach(orderId -> idempotencyStore.fail(orderId, e));
+            throw e;
+        }
+        return List.of(outcomes);
+    }
 
-        // Verify status
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new IllegalStateException("Order is not pending payment: " + order.getStatus());
+    // 2 + 3 of processPayments; ends every eligible order's idempotency attempt it decides
+    private void chargeAndConfirm(List<PaymentCommand> eligible, Map<Long, Order> orders,
+            Map<Long, Integer> positions, PaymentOutcome[] outcomes) {
+        // Charge in chunks
+        Map<Long, PaymentResult> charged = new LinkedHashMap<>();
+        for (int from = 0; from < eligible.size(); from += PAYMENT_BATCH_SIZE) {
+            List<PaymentCommand> chunk = eligible.subList(from, Math.min(from + PAYMENT_BATCH_SIZE, eligible.size()));
+            List<PaymentResult> results = paymentGateway.processPayments(chunk.stream()
+                    .map(command -> new PaymentRequest(orders.get(command.orderId()).getTotalAmount(), "INR",
+                            command.cardToken()))
+                    .toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long orderId = chunk.get(i).orderId();
+                PaymentResult result = results.get(i);
+                if (result.success()) {
+                    charged.put(orderId, result);
+                } else if (result.outcomeUnknown()) {
+                    // Maybe charged: the attempt stays open until the real answer settles it
+                    outcomes[positions.get(orderId)] = PaymentOutcome.failed(orderId,
+                            "Payment outcome unknown, settling when the gateway answers: " + result.message());
+                    settleLate(orderId, result);
+                } else {
+                    outcomes[positions.get(orderId)] = PaymentOutcome.failed(orderId,
+                            "Payment failed: " + result.message());
+                    idempotencyStore.fail(orderId, new RuntimeException(outcomes[positions.get(orderId)].message()));
+                }
+            }
+        }
+
+        // Confirm
+        List<Order> confirmed = confirmAll(orders, charged);
+        for (Order order : confirmed) {
+            outcomes[positions.get(order.getId())] = PaymentOutcome.confirmed(order);
+            idempotencyStore.complete(order.getId(), charged.remove(order.getId()));
+        }
+        charged.forEach((orderId, result) -> {
+            String message = refundLostRace(orderId, result, orders.get(orderId).getTotalAmount());
+            outcomes[positions.get(orderId)] = PaymentOutcome.failed(orderId, message);
+            idempotencyStore.fail(orderId, new IllegalStateException(message));
+        });
+
+        Map<Long, String> contactEmails = contactEmails(confirmed);
+        confirmed.forEach(order -> sendOrderConfirmation(order, contactEmails.get(order.getId())));
+    }
+
+    // A charge the gateway answered too late: confirm the order with it or refund it, then end the attempt
+    private void settleLate(Long orderId, PaymentResult unknown) {
+        idempotencyStore.markUnknown(orderId);
+        unknown.outcome()
+                .thenAcceptAsync(late -> {
+                    Order savedOrder;
+                    try {
+                        if (!late.success() || !stillCharged(late)) {
+                            throw new RuntimeException("Payment failed: " + late.message());
+                        }
+                        savedOrder = confirmPayment(findOrder(orderId), late);
+                        idempotencyStore.complete(orderId, late);
+                    } catch (RuntimeException e) {
+                        idempotencyStore.fail(orderId, e);
+                        throw e;
+                    }
+                    sendOrderConfirmation(savedOrder);
+                }, executors.payment())
+                .exceptionally(error -> {
+                    log.warn("Late payment for order {} not confirmed", orderId, error);
+                    return null;
+                });
+    }
+
+    // verifyPayment is the gateway's own record; if it cannot be asked, trust the charge result
+    private boolean stillCharged(PaymentResult result) {
+        try {
+            return paymentGateway.verifyPayment(result.transactionId());
+        } catch (RuntimeException e) {
+            log.warn("Could not verify payment {}, keeping it", result.transactionId(), e);
+            return true;
+        }
+    }
+
+    private List<Order> confirmAll(Map<Long, Order> orders, Map<Long, PaymentResult> charged) {
+        if (charged.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, LocalDateTime> enteredAt = new HashMap<>();
+        charged.keySet().forEach(orderId -> enteredAt.put(orderId, statusSince(orders.get(orderId))));
+
+        List<Order> confirmed;
+        try {
+            confirmed = orderRepository.transitionStatusAll(charged.keySet(), OrderStatus.PENDING,
+                    OrderStatus.CONFIRMED, order -> recordEvent(OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                            charged.get(order.getId()).transactionId(), null).accept(order));
+        } catch (OptimisticLockingFailureException e) {
+            // Someone changed one of the orders: settle them one by one
+            log.debug("Batched confirm of {} orders conflicted, confirming one by one", charged.size());
+            List<Order> settled = new ArrayList<>();
+            charged.forEach((orderId, result) -> tryTransition(orders.get(orderId), OrderStatus.PENDING,
+                    OrderStatus.CONFIRMED, result.transactionId(), null).ifPresent(settled::add));
+            return settled;
         }
+        confirmed.forEach(order -> stateMachine.fire(order, OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                enteredAt.get(order.getId())));
+        return confirmed;
+    }
+
+    // 1 + 2. Find order, verify it is pending
+    private Order loadPendingOrder(Long orderId) {
+        Order order = findOrder(orderId);
+        stateMachine.checkTransition(order.getStatus(), OrderStatus.CONFIRMED,
+                "Order is not pending payment: " + order.getStatus());
+        return order;
+    }
 
-        // Process payment
+    // 3. Process payment
+    private PaymentResult charge(Order order, String cardToken) {
         PaymentResult result = paymentGateway.processPayment(
                 order.getTotalAmount(),
                 "INR",
                 cardToken);
 
+        if (result.outcomeUnknown()) {
+            settleLate(order.getId(), result);
+            throw new PaymentOutcomeUnknownException(order.getId(), result.message());
+        }
         if (!result.success()) {
             throw new RuntimeException("Payment failed: " + result.message());
         }
+        return result;
+    }
 
-        // Update order
-        order.setPaymentId(result.transactionId());
-        order.setStatus(OrderStatus.CONFIRMED);
-        Order savedOrder = orderRepository.save(order);
+    // 4. Update order (refund if we lost the race)
+    private Order confirmPayment(Order order, PaymentResult result) {
+        BigDecimal amount = order.getTotalAmount();
+        return tryTransition(order, OrderStatus.PENDING, OrderStatus.CONFIRMED, result.transactionId(), null)
+                .orElseThrow(() -> new IllegalStateException(refundLostRace(order.getId(), result, amount)));
+    }
+
+    // Give back a charge whose order moved on; never throws, so one failed refund can't strand the others
+    private String refundLostRace(Long orderId, PaymentResult charge, BigDecimal amount) {
+        String lostRace = "Order " + orderId + " is no longer PENDING (changed concurrently), ";
+        try {
+            PaymentResult refund = paymentGateway.refundPayment(charge.transactionId(), amount);
+            if (refund.success()) {
+                return lostRace + "payment refunded";
+            }
+            log.error("Refund of {} for order {} declined: {}", charge.transactionId(), orderId, refund.message());
+            return lostRace + "refund failed: " + refund.message();
+        } catch (RuntimeException e) {
+            log.error("Refund of {} for order {} failed", charge.transactionId(), orderId, e);
+            return lostRace + "refund failed: " + e.getMessage();
+        }
+    }
 
-        // Send confirmation email
-        User user = userRepository.findById(order.getUserId()).orElse(null);
-        if (user != null) {
+    // 5. Send confirmation email (to the contact captured at checkout)
+    private void sendOrderConfirmation(Order order) {
+        sendOrderConfirmation(order, contactEmail(order));
+    }
+
+    private void sendOrderConfirmation(Order order, String contactEmail) {
+        if (contactEmail != null) {
             emailService.sendOrderConfirmation(
-                    user.getEmail(),
-                    orderId,
+                    contactEmail,
+                    order.getId(),
                     order.getTotalAmount().toString());
         }
+    }
 
-        return savedOrder;
+    /**
+     * The contact captured at checkout, or the user's email for orders stored
+     * without one (mapped-store records written before contactEmail existed
+     * decode with none); null if the user is gone too
+     */
+    private String contactEmail(Order order) {
+        if (order.getContactEmail() != null || order.getUserId() == null) {
+            return order.getContactEmail();
+        }
+        return userRepository.findById(order.getUserId()).map(User::getEmail).orElse(null);
+    }
+
+    /**
+     * contactEmail(order) for a batch, keyed by order id: one user lookup for
+     * all the orders stored without a contact
+     */
+    private Map<Long, String> contactEmails(List<Order> orders) {
+        List<Long> userIds = orders.stream()
+                .filter(order -> order.getContactEmail() == null)
+                .map(Order::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, String> userEmails = userIds.isEmpty() ? Map.of()
+                : userRepository.findAllById(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, User::getEmail));
+
+        Map<Long, String> contactEmails = new HashMap<>();
+        for (Order order : orders) {
+            String contactEmail = order.getContactEmail() != null
+                    ? order.getContactEmail()
+                    : userEmails.get(order.getUserId());
+            if (contactEmail != null) {
+                contactEmails.put(order.getId(), contactEmail);
+            }
+        }
+        return contactEmails;
     }
 
     /**
      * Cancel an order with refund
+     * 
+     * The order is cancelled (compare-and-set) BEFORE the refund, so a
+     * concurrent payment or shipment can't slip in between; a refund that is
+     * declined or throws moves it back.
      */
     public Order cancelOrder(Long orderId, String reason) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        Order order = findOrder(orderId);
+        OrderStatus current = order.getStatus();
 
         // Can only cancel if not shipped
-        if (order.getStatus() == OrderStatus.SHIPPED ||
-                order.getStatus() == OrderStatus.DELIVERED) {
-            throw new IllegalStateException("Cannot cancel shipped/delivered order");
-        }
+        stateMachine.checkTransition(current, OrderStatus.CANCELLED, current == OrderStatus.CANCELLED
+                ? "Order is already cancelled"
+                : "Cannot cancel shipped/delivered order");
+
+        Order cancelled = transition(order, current, OrderStatus.CANCELLED, null, null);
 
         // Refund if payment was made
-        if (order.getPaymentId() != null) {
-            PaymentResult refund = paymentGateway.refundPayment(
-                    order.getPaymentId(),
-                    order.getTotalAmount());
+        if (cancelled.getPaymentId() != null) {
+            PaymentResult refund;
+            try {
+                refund = paymentGateway.refundPayment(
+                        cancelled.getPaymentId(),
+                        cancelled.getTotalAmount());
+            } catch (RuntimeException e) {
+                // Compensation: the refund never happened, so neither does the cancel
+                transition(cancelled, OrderStatus.CANCELLED, current, null, null);
+                throw e;
+            }
 
             if (!refund.success()) {
+                // Compensation: outside the transition table on purpose
+                transition(cancelled, OrderStatus.CANCELLED, current, null, null);
                 throw new RuntimeException("Refund failed: " + refund.message());
             }
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        return cancelled;
     }
 
     /**
      * Ship an order
      */
     public Order shipOrder(Long orderId, String trackingNumber) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        Order order = findOrder(orderId);
 
-        if (order.getStatus() != OrderStatus.CONFIRMED &&
-                order.getStatus() != OrderStatus.PROCESSING) {
-            throw new IllegalStateException("Order not ready for shipping: " + order.getStatus());
-        }
+        OrderStatus current = order.getStatus();
+        stateMachine.checkTransition(current, OrderStatus.SHIPPED,
+                "Order not ready for shipping: " + current);
 
-        order.setStatus(OrderStatus.SHIPPED);
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = transition(order, current, OrderStatus.SHIPPED, null, trackingNumber);
 
-        // Send shipping notification
-        User user = userRepository.findById(order.getUserId()).orElse(null);
-        if (user != null) {
+        // Send shipping notification (to the contact captured at checkout)
+        String contactEmail = contactEmail(order);
+        if (contactEmail != null) {
             emailService.sendShippingNotification(
-                    user.getEmail(),
+                    contactEmail,
                     orderId,
                     trackingNumber);
         }
@@ -180,15 +618,187 @@ public class OrderService {
         return savedOrder;
     }
 
+    /**
+     * Result for one order of a shipOrders batch: the shipped order, or why
+     * it was not shipped
+     */
+    public record ShipmentOutcome(Long orderId, boolean success, Order order, String message) {
+
+        static ShipmentOutcome shipped(Order order) {
+            return new ShipmentOutcome(order.getId(), true, order, "Shipped");
+        }
+
+        static ShipmentOutcome failed(Long orderId, String message) {
+            return new ShipmentOutcome(orderId, false, null, message);
+        }
+    }
+
+    /**
+     * Ship a warehouse batch (order id -> tracking number) with a few round
+     * trips
+     * 
+     * 1. Load all orders (one query)
+     * 2. Ship the ready ones with one batched update per status they ship
+     * from (CONFIRMED, PROCESSING); if another writer got in the way, fall
+     * back to compare-and-set per order
+     * 3. Hand every shipping notification to EmailService in one call (orders
+     * stored without a contact share one user lookup)
+     * 
+     * One bad order never fails the batch: every order gets a
+     * ShipmentOutcome, in the map's iteration order. A failed notification
+     * call is logged; the orders stay shipped.
+     */
+    public List<ShipmentOutcome> shipOrders(Map<Long, String> trackingNumbers) {
+        Map<Long, Order> orders = orderRepository.findAllById(List.copyOf(trackingNumbers.keySet())).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        // Validate; null outcome = ready, keeps its place in the input order
+        Map<Long, ShipmentOutcome> outcomes = new LinkedHashMap<>();
+        Map<OrderStatus, List<Long>> readyByStatus = new EnumMap<>(OrderStatus.class);
+        for (Long orderId : trackingNumbers.keySet()) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                outcomes.put(orderId, ShipmentOutcome.failed(orderId, "Order not found: " + orderId));
+            } else if (!stateMachine.canTransition(order.getStatus(), OrderStatus.SHIPPED)) {
+                outcomes.put(orderId, ShipmentOutcome.failed(orderId,
+                        "Order not ready for shipping: " + order.getStatus()));
+            } else {
+                outcomes.put(orderId, null);
+                readyByStatus.computeIfAbsent(order.getStatus(), status -> new ArrayList<>()).add(orderId);
+            }
+        }
+
+        // Ship
+        List<Order> shipped = new ArrayList<>();
+        readyByStatus.forEach((from, orderIds) -> shipped.addAll(shipAll(orders, from, orderIds, trackingNumbers)));
+        shipped.forEach(order -> outcomes.put(order.getId(), ShipmentOutcome.shipped(order)));
+        outcomes.replaceAll((orderId, outcome) -> outcome != null ? outcome
+                : ShipmentOutcome.failed(orderId, "Order " + orderId + " changed concurrently, not shipped"));
+
+        // Notify
+        try {
+            Map<Long, String> contactEmails = contactEmails(shipped);
+            List<ShippingNotification> notifications = shipped.stream()
+                    .filter(order -> contactEmails.containsKey(order.getId()))
+                    .map(order -> new ShippingNotification(contactEmails.get(order.getId()), order.getId(),
+                            trackingNumbers.get(order.getId())))
+                    .toList();
+            if (!notifications.isEmpty()) {
+                emailService.sendShippingNotifications(notifications);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Shipping notifications for {} orders failed", shipped.size(), e);
+        }
+        return List.copyOf(outcomes.values());
+    }
+
+    private List<Order> shipAll(Map<Long, Order> orders, OrderStatus from, List<Long> orderIds,
+            Map<Long, String> trackingNumbers) {
+        Map<Long, LocalDateTime> enteredAt = new HashMap<>();
+        orderIds.forEach(orderId -> enteredAt.put(orderId, statusSince(orders.get(orderId))));
+
+        List<Order> moved;
+        try {
+            moved = orderRepository.transitionStatusAll(orderIds, from, OrderStatus.SHIPPED,
+                    order -> recordEvent(from, OrderStatus.SHIPPED, null, trackingNumbers.get(order.getId()))
+                            .accept(order));
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Batched ship of {} orders conflicted, shipping one by one", orderIds.size());
+            List<Order> settled = new ArrayList<>();
+            orderIds.forEach(orderId -> tryTransition(orders.get(orderId), from, OrderStatus.SHIPPED, null,
+                    trackingNumbers.get(orderId)).ifPresent(settled::add));
+            return settled;
+        }
+        moved.forEach(order -> stateMachine.fire(order, from, OrderStatus.SHIPPED, enteredAt.get(order.getId())));
+        return moved;
+    }
+
     /**
      * Get user's orders
      */
     public List<Order> getUserOrders(Long userId) {
-        // Verify user exists
-        if (!userRepository.findById(userId).isPresent()) {
+        List<Order> orders = orderRepository.findByUserId(userId);
+        if (orders.isEmpty()) {
+            requireUser(userId);
+        }
+        return orders;
+    }
+
+    /**
+     * One page of a user's orders, newest first, plus the cursor of the next
+     * page (null on the last page)
+     */
+    public record OrderPage(List<Order> orders, Long nextCursor) {
+    }
+
+    /**
+     * Get one keyset page of a user's orders
+     * 
+     * [NOTES]
+     * Pass the previous page's nextCursor to continue (null for the first
+     * page). limit + 1 rows are read so the last page is known without an
+     * extra query or a COUNT.
+     * The user is only looked up (existsById, no entity load) when the page
+     * is empty: a user with orders exists.
+     */
+    public OrderPage getUserOrders(Long userId, OrderFilter filter, Long cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+        List<Order> orders = orderRepository.findPageByUserId(userId, filter, cursor, limit + 1);
+        if (orders.isEmpty()) {
+            if (cursor == null) {
+                requireUser(userId);
+            }
+            return new OrderPage(List.of(), null);
+        }
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        return new OrderPage(List.copyOf(page), page.get(limit - 1).getId());
+    }
+
+    /**
+     * All of a user's orders matching the filter, newest first, read lazily
+     * page by page
+     * 
+     * [NOTES]
+     * For exports of very long histories: at most MAX_PAGE_SIZE orders are
+     * held at a time, and each page is its own short query (no transaction or
+     * cursor stays open while the caller writes the export). Nothing is read
+     * until the stream is consumed; an unknown user fails on the first page.
+     */
+    public Stream<Order> exportUserOrders(Long userId, OrderFilter filter) {
+        Spliterator<Order> pages = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            private Iterator<Order> current = Collections.emptyIterator();
+            private Long cursor;
+            private boolean started;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Order> action) {
+                while (!current.hasNext()) {
+                    if (started && cursor == null) {
+                        return false;
+                    }
+                    OrderPage page = getUserOrders(userId, filter, cursor, MAX_PAGE_SIZE);
+                    started = true;
+                    cursor = page.nextCursor();
+                    current = page.orders().iterator();
+                }
+                action.accept(current.next());
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
             throw new IllegalArgumentException("User not found: " + userId);
         }
-        return orderRepository.findByUserId(userId);
     }
 
     /**
@@ -198,8 +808,29 @@ public class OrderService {
         return orderRepository.findById(orderId);
     }
 
+    /**
+     * An order's lines as OrderItemColumns, for bulk readers (exports,
+     * B2B orders with tens of thousands of lines); no OrderItem is loaded
+     */
+    public OrderItemColumns getOrderItemColumns(Long orderId) {
+        return orderRepository.findItemColumns(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+    }
+
+    /**
+     * Full, replayable status history of an order (oldest first)
+     */
+    public List<OrderStatusEvent> getOrderHistory(Long orderId) {
+        return orderEventLog.findByOrderIdAndIdGreaterThanOrderByIdAsc(orderId, 0L);
+    }
+
     /**
      * Calculate order total with discount
+     * 
+     * Computed in Money (long minor units, exact); the BigDecimal path is only
+     * used for totals Money cannot hold. Both give the same value and scale.
+     * One flat percent off the stored total; discount rules are applied by
+     * quoteOrders.
      */
     public BigDecimal calculateTotalWithDiscount(Long orderId, int discountPercent) {
         Order order = orderRepository.findById(orderId)
@@ -209,10 +840,88 @@ public class OrderService {
             throw new IllegalArgumentException("Invalid discount: " + discountPercent);
         }
 
+        Money totalMoney = order.totalMoney();
+        if (totalMoney != null) {
+            try {
+                return totalMoney.minusPercent(discountPercent).toBigDecimal();
+            } catch (ArithmeticException overflow) {
+                // fall through to the exact path
+            }
+        }
         BigDecimal total = order.getTotalAmount();
         BigDecimal discount = total.multiply(BigDecimal.valueOf(discountPercent))
                 .divide(BigDecimal.valueOf(100));
 
         return total.subtract(discount);
     }
+
+    /**
+     * Price orders against the current discount rules (PricingEngine)
+     * 
+     * One findAllById for the whole batch, then one pass of the engine: every
+     * quote carries the same rulesVersion. Quotes come back in request order.
+     * 
+     * @throws IllegalArgumentException if an order does not exist
+     */
+    public List<PriceQuote> quoteOrders(List<Long> orderIds) {
+        Map<Long, Order> orders = orderRepository.findAllById(orderIds.stream().distinct().toList()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<Order> batch = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                throw new IllegalArgumentException("Order not found: " + orderId);
+            }
+            batch.add(order);
+        }
+        return pricingEngine.quoteAll(batch);
+    }
+
+    private Order findOrder(Long orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+    }
+
+    private Order transition(Order order, OrderStatus expected, OrderStatus newStatus, String paymentId,
+            String trackingNumber) {
+        return tryTransition(order, expected, newStatus, paymentId, trackingNumber)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Order " + order.getId() + " is no longer " + expected + " (changed concurrently)"));
+    }
+
+    /**
+     * Compare-and-set from the status the caller CHECKED (not order.getStatus()
+     * now: in-memory stores share the instance); on success the state machine
+     * records the transition and notifies its listeners
+     */
+    private Optional<Order> tryTransition(Order order, OrderStatus from, OrderStatus newStatus, String paymentId,
+            String trackingNumber) {
+        LocalDateTime enteredFromAt = statusSince(order);
+
+        Optional<Order> moved;
+        try {
+            moved = orderRepository.transitionStatus(order.getId(), from, newStatus,
+                    recordEvent(from, newStatus, paymentId, trackingNumber));
+        } catch (ConcurrencyFailureException lostRace) {
+            // OptimisticLockingFailureException, or a lock / deadlock loser
+            moved = Optional.empty();
+        }
+        moved.ifPresent(stored -> stateMachine.fire(stored, from, newStatus, enteredFromAt));
+        return moved;
+    }
+
+    /**
+     * Mutator that appends the status event and folds it into the order -
+     * runs inside the repository's atomic step
+     */
+    private Consumer<Order> recordEvent(OrderStatus from, OrderStatus to, String paymentId, String trackingNumber) {
+        return order -> order.apply(orderEventLog.save(new OrderStatusEvent(
+                order.getId(), order.getEventSeq() + 1, from, to, paymentId, trackingNumber, LocalDateTime.now())));
+    }
+
+    // When the order entered its current status (for transition timing)
+    private static LocalDateTime statusSince(Order order) {
+        return order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt();
+    }
 }
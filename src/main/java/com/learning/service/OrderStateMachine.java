@@ -0,0 +1,167 @@
+package com.learning.service;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * OrderStateMachine - the legal OrderStatus transitions, in one table
+ * 
+ * PENDING    -> CONFIRMED, CANCELLED
+ * CONFIRMED  -> PROCESSING, SHIPPED, CANCELLED
+ * PROCESSING -> SHIPPED, CANCELLED
+ * SHIPPED    -> DELIVERED
+ * DELIVERED, CANCELLED: final
+ * 
+ * [NOTES]
+ * - The table is an EnumMap of EnumSets (bit masks), built once:
+ * canTransition() is an array index plus a bit test.
+ * - Meters are registered up front for every legal transition, so fire()
+ * does no tag building or registry lookup:
+ *   order.transitions{from,to}      counter
+ *   order.transition.time{from,to}  time spent in "from" before moving on
+ *                                   (e.g. PENDING -> CONFIRMED = time to pay),
+ *                                   with a percentile histogram
+ * - Listeners run synchronously on the caller's thread after the transition
+ * is stored; keep them cheap. created() tells them about new orders too, so
+ * a listener sees every status change of every order.
+ * - Listeners are isolated: one that throws is logged and skipped. The
+ * transition is already stored, so its caller must not fail, and the other
+ * listeners must still hear about it.
+ */
+@Component
+public class OrderStateMachine {
+
+    /**
+     * Called after a transition has been stored (from = null: the order was
+     * just created in status "to")
+     */
+    @FunctionalInterface
+    public interface TransitionListener {
+        void onTransition(Order order, OrderStatus from, OrderStatus to, Duration timeInFrom);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStateMachine.class);
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = buildTable();
+
+    private final Map<OrderStatus, Map<OrderStatus, Counter>> counters = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, Map<OrderStatus, Timer>> timers = new EnumMap<>(OrderStatus.class);
+    private final List<TransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public OrderStateMachine(MeterRegistry meterRegistry) {
+        TRANSITIONS.forEach((from, targets) -> {
+            Map<OrderStatus, Counter> fromCounters = new EnumMap<>(OrderStatus.class);
+            Map<OrderStatus, Timer> fromTimers = new EnumMap<>(OrderStatus.class);
+            for (OrderStatus to : targets) {
+                fromCounters.put(to, Counter.builder("order.transitions")
+                        .tag("from", from.name())
+                        .tag("to", to.name())
+                        .register(meterRegistry));
+                fromTimers.put(to, Timer.builder("order.transition.time")
+                        .tag("from", from.name())
+                        .tag("to", to.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            counters.put(from, fromCounters);
+            timers.put(from, fromTimers);
+        });
+    }
+
+    private static Map<OrderStatus, Set<OrderStatus>> buildTable() {
+        Map<OrderStatus, Set<OrderStatus>> table = new EnumMap<>(OrderStatus.class);
+        table.put(OrderStatus.PENDING, EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+        table.put(OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        table.put(OrderStatus.PROCESSING, EnumSet.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        table.put(OrderStatus.SHIPPED, EnumSet.of(OrderStatus.DELIVERED));
+        table.put(OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        table.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        return table;
+    }
+
+    public boolean canTransition(OrderStatus from, OrderStatus to) {
+        return from != null && TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * Statuses reachable from "from" in one step (read-only)
+     */
+    public Set<OrderStatus> allowedTargets(OrderStatus from) {
+        return Collections.unmodifiableSet(TRANSITIONS.get(from));
+    }
+
+    /**
+     * Throws IllegalStateException with the given message if from -> to is not
+     * in the table
+     */
+    public void checkTransition(OrderStatus from, OrderStatus to, String message) {
+        if (!canTransition(from, to)) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    public void addListener(TransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TransitionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notify listeners of a newly stored order
+     */
+    public void created(Order order) {
+        notifyListeners(order, null, order.getStatus(), Duration.ZERO);
+    }
+
+    /**
+     * Record a stored transition and notify listeners
+     * 
+     * enteredFromAt = when the order entered "from" (its updatedAt before the
+     * transition). Transitions outside the table (compensations) are not
+     * counted but still reach listeners.
+     */
+    public void fire(Order order, OrderStatus from, OrderStatus to, LocalDateTime enteredFromAt) {
+        Duration timeInFrom = enteredFromAt == null
+                ? Duration.ZERO
+                : Duration.between(enteredFromAt, LocalDateTime.now());
+        if (timeInFrom.isNegative()) {
+            timeInFrom = Duration.ZERO;
+        }
+
+        Counter counter = counters.get(from).get(to);
+        if (counter != null) {
+            counter.increment();
+            timers.get(from).get(to).record(timeInFrom);
+        }
+        notifyListeners(order, from, to, timeInFrom);
+    }
+
+    private void notifyListeners(Order order, OrderStatus from, OrderStatus to, Duration timeInFrom) {
+        for (TransitionListener listener : listeners) {
+            try {
+                listener.onTransition(order, from, to, timeInFrom);
+            } catch (RuntimeException e) {
+                log.warn("Transition listener {} failed for order {} ({} -> {})",
+                        listener, order.getId(), from, to, e);
+            }
+        }
+    }
+}
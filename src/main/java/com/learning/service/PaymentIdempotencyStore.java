@@ -0,0 +1,141 @@
+package com.learning.service;
+
+import com.learning.external.PaymentGateway.PaymentResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * PaymentIdempotencyStore - one payment attempt per order at a time
+ * 
+ * Keyed by order id. The first caller to begin() owns the attempt and must
+ * end it with complete() or fail(); everyone else gets the owner's result
+ * (a future that may still be running) and never reaches the gateway.
+ * 
+ * [NOTES]
+ * - IN-FLIGHT: begun, not yet ended. Never expires (the gateway call is
+ * bounded by its own timeout).
+ * - OUTCOME UNKNOWN: in flight, but the owner stopped waiting for the
+ * gateway (markUnknown). The key stays taken until the late answer is
+ * settled with complete() or fail(): a retry must not charge again while
+ * the first charge may still go through.
+ * - COMPLETED: charged and confirmed. Kept for ttl so late client retries
+ * are answered from here, then evicted.
+ * - Failed attempts are removed at once: waiters see the failure, the next
+ * retry (e.g. with another card) starts a new attempt.
+ * - Expired entries are dropped lazily by begin() and swept every
+ * SWEEP_EVERY begins, so the map stays bounded without a scheduler.
+ */
+@Component
+public class PaymentIdempotencyStore {
+
+    private static final int SWEEP_EVERY = 1_024;
+
+    private static final class Entry {
+        final CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        // Only meaningful once completed is set (nanoTime values can be any long)
+        volatile long expiresAt;
+        volatile boolean completed;
+        volatile boolean outcomeUnknown;
+
+        boolean expired(long now) {
+            return completed && now - expiresAt >= 0;
+        }
+    }
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger beginsSinceSweep = new AtomicInteger();
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public PaymentIdempotencyStore(@Value("${payments.idempotency.ttl:24h}") Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    PaymentIdempotencyStore(Duration ttl, LongSupplier nanoTime) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Idempotency TTL must be positive");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Start a payment attempt for this order
+     * 
+     * @return empty if the caller now owns the attempt; otherwise the result
+     *         of the attempt already in flight or completed
+     */
+    public Optional<CompletableFuture<PaymentResult>> begin(Long orderId) {
+        if (beginsSinceSweep.incrementAndGet() >= SWEEP_EVERY) {
+            beginsSinceSweep.set(0);
+            evictExpired();
+        }
+        long now = nanoTime.getAsLong();
+        Entry created = new Entry();
+        Entry current = entries.compute(orderId,
+                (id, existing) -> existing == null || existing.expired(now) ? created : existing);
+        return current == created ? Optional.empty() : Optional.of(current.result);
+    }
+
+    /**
+     * The owner charged and confirmed the order
+     */
+    public void complete(Long orderId, PaymentResult result) {
+        Entry entry = owned(orderId);
+        entry.expiresAt = nanoTime.getAsLong() + ttlNanos;
+        entry.completed = true;
+        entry.result.complete(result);
+    }
+
+    /**
+     * The owner's charge timed out and may still go through: keep the key
+     * until complete() or fail() settles it
+     */
+    public void markUnknown(Long orderId) {
+        owned(orderId).outcomeUnknown = true;
+    }
+
+    /**
+     * Whether the attempt for this order is open with an unknown outcome
+     */
+    public boolean isOutcomeUnknown(Long orderId) {
+        Entry entry = entries.get(orderId);
+        return entry != null && entry.outcomeUnknown && !entry.result.isDone();
+    }
+
+    /**
+     * The owner's attempt failed: waiters get the error, the key is freed
+     */
+    public void fail(Long orderId, Throwable error) {
+        Entry entry = owned(orderId);
+        entries.remove(orderId, entry);
+        entry.result.completeExceptionally(error);
+    }
+
+    public void evictExpired() {
+        long now = nanoTime.getAsLong();
+        entries.values().removeIf(entry -> entry.expired(now));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry owned(Long orderId) {
+        Entry entry = entries.get(orderId);
+        if (entry == null || entry.result.isDone()) {
+            throw new IllegalStateException("No payment attempt in flight for order " + orderId);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,22 @@
+package com.learning.service;
+
+/**
+ * The gateway did not answer a charge in time: the card may or may not have
+ * been charged. The order stays PENDING and its payment attempt stays open
+ * until the gateway's late answer settles it (confirmed, or the key freed
+ * for a new attempt); retrying before that gets this exception again.
+ */
+public class PaymentOutcomeUnknownException extends IllegalStateException {
+
+    private final Long orderId;
+
+    public PaymentOutcomeUnknownException(Long orderId, String reason) {
+        super("Payment outcome for order " + orderId + " is not known yet (" + reason
+                + "); it is settled when the gateway answers, retry later");
+        this.orderId = orderId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+}
@@ -0,0 +1,119 @@
+package com.learning.service;
+
+import com.learning.model.ArchivedUser;
+import com.learning.model.User;
+import com.learning.repository.ArchivedUserRepository;
+import com.learning.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * UserArchiveJob - moves long-inactive users into users_archive
+ * 
+ * Flow (per run):
+ * 1. Read a keyset chunk (id > last id) of users inactive since the cutoff
+ * 2. In ONE short transaction: insert them into users_archive, delete them
+ * from users (re-checking active = false)
+ * 3. Sleep between chunks so foreground queries keep the buffer pool and
+ * the row locks
+ * 
+ * If a user was reactivated between read and delete, the chunk is rolled
+ * back and retried on the next run.
+ */
+@Component
+public class UserArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(UserArchiveJob.class);
+
+    private final UserRepository userRepository;
+    private final ArchivedUserRepository archivedUserRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration inactiveFor;
+    private final int chunkSize;
+    private final Duration pauseBetweenChunks;
+
+    public UserArchiveJob(UserRepository userRepository,
+            ArchivedUserRepository archivedUserRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${users.archive.inactive-days:365}") long inactiveDays,
+            @Value("${users.archive.chunk-size:500}") int chunkSize,
+            @Value("${users.archive.pause-ms:200}") long pauseMillis) {
+        this.userRepository = userRepository;
+        this.archivedUserRepository = archivedUserRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inactiveFor = Duration.ofDays(inactiveDays);
+        this.chunkSize = chunkSize;
+        this.pauseBetweenChunks = Duration.ofMillis(pauseMillis);
+    }
+
+    @Scheduled(cron = "${users.archive.cron:0 30 3 * * *}")
+    public void run() {
+        archiveInactiveUsers(LocalDateTime.now().minus(inactiveFor));
+    }
+
+    /**
+     * Archive every user inactive since before the cutoff
+     * 
+     * @return number of users moved to users_archive
+     */
+    public int archiveInactiveUsers(LocalDateTime cutoff) {
+        long lastId = 0L;
+        int archived = 0;
+
+        while (true) {
+            List<User> chunk = userRepository.findArchiveCandidates(lastId, cutoff, PageRequest.ofSize(chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+
+            Integer moved = transactionTemplate.execute(status -> moveChunk(chunk, status::setRollbackOnly));
+            archived += moved == null ? 0 : moved;
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+
+        log.info("Archived {} users inactive since {}", archived, cutoff);
+        return archived;
+    }
+
+    private int moveChunk(List<User> chunk, Runnable rollback) {
+        LocalDateTime now = LocalDateTime.now();
+        archivedUserRepository.saveAll(chunk.stream().map(user -> ArchivedUser.from(user, now)).toList());
+
+        List<Long> ids = chunk.stream().map(User::getId).toList();
+        int deleted = userRepository.deleteInactiveByIdIn(ids);
+        if (deleted != ids.size()) {
+            // Someone reactivated a user in this chunk - leave it for the next run
+            log.warn("Archive chunk after id {} changed concurrently, rolling back", ids.get(0));
+            rollback.run();
+            return 0;
+        }
+        return deleted;
+    }
+
+    private void pause() {
+        if (pauseBetweenChunks.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archive job interrupted", e);
+        }
+    }
+}
@@ -38,7 +38,7 @@ public class UserService {
      * 
      * Business logic:
      * 1. Validate input
-     * 2. Check if email exists
+     * 2. Check if email exists (users and users_archive)
      * 3. Save user
      * 4. Send welcome email
      */
@@ -55,7 +55,7 @@ public class UserService {
         }
 
         // Check duplicate email
-        if (userRepository.existsByEmail(email)) {
+        if (emailTaken(email)) {
             throw new IllegalStateException("Email already registered: " + email);
         }
 
@@ -76,22 +76,26 @@ public class UserService {
 
     /**
      * Find user by ID
+     * Falls back to users_archive for long-inactive users.
      */
     public Optional<User> findById(Long id) {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Invalid user ID");
         }
-        return userRepository.findById(id);
+        return userRepository.findById(id)
+                .or(() -> userRepository.findArchivedById(id));
     }
 
     /**
      * Find user by email
+     * Falls back to users_archive for long-inactive users.
      */
     public Optional<User> findByEmail(String email) {
         if (email == null || email.isBlank()) {
             return Optional.empty();
         }
-        return userRepository.findByEmail(email);
+        return userRepository.findByEmail(email)
+                .or(() -> userRepository.findArchivedByEmail(email));
     }
 
     /**
@@ -122,7 +126,7 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
 
         // If email is changing, check for duplicates
-        if (!user.getEmail().equals(newEmail) && userRepository.existsByEmail(newEmail)) {
+        if (!user.getEmail().equals(newEmail) && emailTaken(newEmail)) {
             throw new IllegalStateException("Email already in use: " + newEmail);
         }
 
@@ -150,6 +154,11 @@ public class UserService {
         return emailService.sendPasswordResetEmail(email, resetToken);
     }
 
+    // Registered in users, or in users_archive (archived users keep their email)
+    private boolean emailTaken(String email) {
+        return userRepository.existsByEmail(email) || userRepository.findArchivedByEmail(email).isPresent();
+    }
+
     private String generateResetToken() {
         // Simple token generation - in real app use secure random
         return "RESET-" + System.currentTimeMillis();
@@ -0,0 +1,17 @@
+-- Discount rules priced by PricingEngine (DiscountRule entity), reloaded by
+-- PricingRuleLoader. kind selects the columns that apply:
+--   TIER         min_subtotal
+--   PRODUCT      target_id = product id
+--   USER         target_id = user id
+--   TIME_WINDOW  valid_from, valid_until
+CREATE TABLE discount_rules (
+    id           BIGINT         NOT NULL AUTO_INCREMENT,
+    kind         VARCHAR(20)    NOT NULL,
+    target_id    BIGINT,
+    min_subtotal DECIMAL(19, 2),
+    valid_from   DATETIME(6),
+    valid_until  DATETIME(6),
+    percent      INT            NOT NULL,
+    active       BIT(1)         NOT NULL DEFAULT 1,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,14 @@
+-- Baseline: exactly the schema ddl-auto generated for User before Flyway.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    active      BIT(1)       NOT NULL,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
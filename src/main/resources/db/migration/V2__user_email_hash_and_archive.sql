@@ -0,0 +1,25 @@
+-- Fixed-width email lookup key (User#hashEmail): MD5 of the trimmed,
+-- lowercased email. Existing rows are backfilled with the same digest.
+ALTER TABLE users ADD COLUMN email_hash BINARY(16);
+
+UPDATE users SET email_hash = UNHEX(MD5(LOWER(TRIM(email))));
+
+ALTER TABLE users MODIFY email_hash BINARY(16) NOT NULL;
+
+CREATE INDEX idx_users_email_hash ON users (email_hash);
+
+-- Long-inactive users moved out of users by UserArchiveJob
+CREATE TABLE users_archive (
+    id          BIGINT       NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    email_hash  BINARY(16)   NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    active      BIT(1)       NOT NULL,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    archived_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_users_archive_email_hash ON users_archive (email_hash);
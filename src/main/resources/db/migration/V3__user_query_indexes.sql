@@ -0,0 +1,7 @@
+-- Indexes for the UserRepository query patterns
+
+-- findByActiveTrue (active = 1) and the archive keyset scan (active = 0 AND id > ? ORDER BY id)
+CREATE INDEX idx_users_active_id ON users (active, id);
+
+-- Listings ordered by registration time
+CREATE INDEX idx_users_created_at ON users (created_at);
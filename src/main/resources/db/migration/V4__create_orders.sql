@@ -0,0 +1,39 @@
+-- Orders and order items (Order / OrderItem entities)
+
+-- MySQL has no sequences: Hibernate emulates them with single-row tables
+CREATE TABLE order_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO order_seq VALUES (1);
+
+CREATE TABLE order_item_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO order_item_seq VALUES (1);
+
+CREATE TABLE orders (
+    id               BIGINT        NOT NULL,
+    user_id          BIGINT        NOT NULL,
+    total_amount     DECIMAL(19, 2),
+    status           VARCHAR(20)   NOT NULL,
+    shipping_address VARCHAR(500),
+    payment_id       VARCHAR(100),
+    created_at       DATETIME(6),
+    updated_at       DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- findByUserId / findByStatus
+CREATE INDEX idx_orders_user_id ON orders (user_id, id);
+CREATE INDEX idx_orders_status ON orders (status, id);
+
+CREATE TABLE order_items (
+    id           BIGINT         NOT NULL,
+    order_id     BIGINT         NOT NULL,
+    product_id   BIGINT,
+    product_name VARCHAR(255),
+    quantity     INT            NOT NULL,
+    price        DECIMAL(19, 2),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,23 @@
+-- Append-only order status history; orders rows become periodic snapshots
+
+CREATE TABLE order_status_event_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO order_status_event_seq VALUES (1);
+
+CREATE TABLE order_status_events (
+    id              BIGINT       NOT NULL,
+    order_id        BIGINT       NOT NULL,
+    from_status     VARCHAR(20)  NOT NULL,
+    to_status       VARCHAR(20)  NOT NULL,
+    payment_id      VARCHAR(100),
+    tracking_number VARCHAR(100),
+    occurred_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Tail lookup: WHERE order_id = ? AND id > ? ORDER BY id
+CREATE INDEX idx_order_status_events_order ON order_status_events (order_id, id);
+
+-- Last event folded into the snapshot row
+ALTER TABLE orders ADD COLUMN last_event_id BIGINT;
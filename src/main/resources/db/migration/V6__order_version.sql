@@ -0,0 +1,3 @@
+-- Optimistic lock for compare-and-set status transitions:
+-- UPDATE orders SET ..., version = version + 1 WHERE id = ? AND version = ?
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- Customer email captured on the order at checkout, so confirmation and
+-- shipping notifications need no users lookup
+ALTER TABLE orders ADD COLUMN contact_email VARCHAR(255);
+
+-- Backfill existing orders from their users (archived ones included)
+UPDATE orders o
+    JOIN users u ON u.id = o.user_id
+SET o.contact_email = u.email
+WHERE o.contact_email IS NULL;
+
+UPDATE orders o
+    JOIN users_archive a ON a.id = o.user_id
+SET o.contact_email = a.email
+WHERE o.contact_email IS NULL;
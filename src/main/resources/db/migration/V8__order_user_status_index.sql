@@ -0,0 +1,3 @@
+-- Keyset pages of one user's orders filtered by status:
+-- WHERE user_id = ? AND status = ? AND id < ? ORDER BY id DESC LIMIT ?
+CREATE INDEX idx_orders_user_status ON orders (user_id, status, id);
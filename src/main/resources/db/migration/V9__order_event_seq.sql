@@ -0,0 +1,18 @@
+-- Per-order event numbering: (order_id, seq) is unique, so two writers that
+-- appended from the same state cannot both succeed
+
+ALTER TABLE order_status_events ADD COLUMN seq INT NOT NULL DEFAULT 0;
+UPDATE order_status_events e
+JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY order_id ORDER BY id) AS seq
+      FROM order_status_events) numbered ON numbered.id = e.id
+SET e.seq = numbered.seq;
+ALTER TABLE order_status_events ALTER COLUMN seq DROP DEFAULT;
+ALTER TABLE order_status_events
+    ADD CONSTRAINT uk_order_status_events_order_seq UNIQUE (order_id, seq);
+
+-- Events folded into the snapshot row: the next event must be event_seq + 1
+ALTER TABLE orders ADD COLUMN event_seq INT NOT NULL DEFAULT 0;
+UPDATE orders o
+JOIN (SELECT order_id, COUNT(*) AS events FROM order_status_events GROUP BY order_id) counted
+    ON counted.order_id = o.id
+SET o.event_seq = counted.events;
@@ -1,5 +1,7 @@
 package com.learning.integration;
 
+import com.learning.querycount.QueryCountConfiguration;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
@@ -18,8 +20,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
  * 1. Full Integration Test: Extend `AbstractIntegrationTest` (which extends
  * this + adds @SpringBootTest)
  * 2. Repository Slice Test: Extend this + add @DataJpaTest
+ * 
+ * The DataSource is wrapped for statement counting, so any subclass can use
+ * @ExpectedQueries.
  */
 @Testcontainers
+@Import(QueryCountConfiguration.class)
 public abstract class AbstractContainerBaseTest {
 
     // Define MySQL Container
@@ -36,7 +42,6 @@ public abstract class AbstractContainerBaseTest {
         registry.add("spring.datasource.username", mysql::getUsername);
         registry.add("spring.datasource.password", mysql::getPassword);
 
-        // Ensure Hibernate creates tables
-        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        // Tables come from Flyway (db/migration), same as production
     }
 }
@@ -1,6 +1,8 @@
 package com.learning.integration;
 
+import com.learning.external.PaymentGateway;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
@@ -27,4 +29,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 public abstract class AbstractIntegrationTest extends AbstractContainerBaseTest {
     // Inherits container setup from AbstractContainerBaseTest
     // Adds @SpringBootTest for Full Context
+
+    // OrderService needs a gateway; we NEVER charge real money in tests
+    @MockBean
+    protected PaymentGateway paymentGateway;
 }
@@ -0,0 +1,109 @@
+package com.learning.integration;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.external.EmailService;
+import com.learning.external.PaymentGateway.PaymentResult;
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import com.learning.model.User;
+import com.learning.repository.UserRepository;
+import com.learning.service.OrderService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════════════════════╗
+ * ║ ORDER ANALYTICS INTEGRATION TEST ║
+ * ╚══════════════════════════════════════════════════════════════════════════════╝
+ * 
+ * Flow:
+ * OrderService bean -> OrderStateMachine bean -> OrderAnalytics listener ->
+ * GET /actuator/orderanalytics
+ * 
+ * Concept:
+ * - The analytics are fed only if OrderService and OrderAnalytics share the
+ * OrderStateMachine bean; a status change made through the service must show
+ * up in the endpoint.
+ * - Other tests may share the context, so counts are compared before/after.
+ */
+@AutoConfigureMockMvc
+@DisplayName("📈 Order Analytics Integration (actuator endpoint + MySQL)")
+class OrderAnalyticsIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private JsonNode orderAnalytics() throws Exception {
+        String body = mockMvc.perform(get("/actuator/orderanalytics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(body);
+    }
+
+    private static long count(JsonNode analytics, String field, String key) {
+        return analytics.path(field).path(key).asLong(0);
+    }
+
+    @Test
+    @DisplayName("Should count an order created and paid through OrderService")
+    void shouldFeedEndpointFromOrderService() throws Exception {
+        // Given
+        User user = userRepository.save(new User("Analyst", "analyst@test.com", "password123"));
+        given(paymentGateway.processPayment(any(), any(), any()))
+                .willReturn(new PaymentResult(true, "txn_1", "Success"));
+        JsonNode before = orderAnalytics();
+
+        // When
+        Order order = orderService.createOrder(user.getId(),
+                List.of(new OrderItem(1L, "Item", 2, new BigDecimal("10.00"))), "1 Main St");
+        JsonNode created = orderAnalytics();
+        orderService.processPayment(order.getId(), "tok_1");
+        JsonNode paid = orderAnalytics();
+
+        // Then
+        assertThat(count(created, "ordersByStatus", "PENDING"))
+                .isEqualTo(count(before, "ordersByStatus", "PENDING") + 1);
+        assertThat(count(created, "ordersBySegment", "small"))
+                .isEqualTo(count(before, "ordersBySegment", "small") + 1);
+        assertThat(count(paid, "ordersByStatus", "PENDING"))
+                .isEqualTo(count(before, "ordersByStatus", "PENDING"));
+        assertThat(count(paid, "ordersByStatus", "CONFIRMED"))
+                .isEqualTo(count(before, "ordersByStatus", "CONFIRMED") + 1);
+        assertThat(windowRevenue(paid).subtract(windowRevenue(created))).isEqualByComparingTo("20.00");
+    }
+
+    private static BigDecimal windowRevenue(JsonNode analytics) {
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (JsonNode minute : analytics.path("revenuePerMinute")) {
+            revenue = revenue.add(minute.path("revenue").decimalValue());
+        }
+        return revenue;
+    }
+}
@@ -0,0 +1,121 @@
+package com.learning.integration;
+
+import com.learning.external.EmailService;
+import com.learning.external.HedgingPaymentGateway;
+import com.learning.external.PaymentGateway;
+import com.learning.external.PaymentGateway.PaymentResult;
+import com.learning.external.ResilientEmailService;
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItem;
+import com.learning.model.User;
+import com.learning.repository.OrderRepository;
+import com.learning.repository.UserRepository;
+import com.learning.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════════════════════╗
+ * ║ ORDER SERVICE INTEGRATION TEST ║
+ * ╚══════════════════════════════════════════════════════════════════════════════╝
+ * 
+ * Concept:
+ * - OrderService is a bean: it must get the RESILIENT gateway and email
+ * service, not the raw ones.
+ * 
+ * Setup:
+ * - The external services are plain beans (not @MockBean, which would skip
+ * ExternalResilienceConfiguration's wrapping), backed by Mockito mocks.
+ * - Real MySQL for orders and users.
+ */
+@SpringBootTest
+@Import(OrderServiceIntegrationTest.ExternalServices.class)
+@DisplayName("📦 Order Service Integration (resilient externals)")
+class OrderServiceIntegrationTest extends AbstractContainerBaseTest {
+
+    static final PaymentGateway GATEWAY = mock(PaymentGateway.class);
+    static final EmailService MAIL_SERVER = mock(EmailService.class);
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ExternalServices {
+
+        @Bean
+        PaymentGateway paymentGateway() {
+            return GATEWAY;
+        }
+
+        @Bean
+        EmailService emailService() {
+            return MAIL_SERVER;
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void resetMocks() {
+        reset(GATEWAY, MAIL_SERVER);
+    }
+
+    @Test
+    @DisplayName("Should wire OrderService to the guarded external services")
+    void shouldWrapExternalServices() {
+        assertThat(paymentGateway).isInstanceOf(HedgingPaymentGateway.class);
+        assertThat(emailService).isInstanceOf(ResilientEmailService.class);
+    }
+
+    @Test
+    @DisplayName("Should charge through the payment guard and confirm the order in MySQL")
+    void shouldPayThroughGuard() {
+        // Given
+        User user = userRepository.save(new User("Buyer", "buyer@test.com", "password123"));
+        Order order = orderService.createOrder(user.getId(),
+                List.of(new OrderItem(1L, "Item", 2, new BigDecimal("10.00"))), "1 Main St");
+        given(GATEWAY.processPayment(any(), any(), any())).willReturn(new PaymentResult(true, "txn_1", "Success"));
+
+        // When
+        orderService.processPayment(order.getId(), "tok_1");
+
+        // Then
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(stored.getPaymentId()).isEqualTo("txn_1");
+        assertThat(meterRegistry.get("dependency.calls").tags("dependency", "payment", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        verify(MAIL_SERVER).sendOrderConfirmation("buyer@test.com", order.getId(), "20.00");
+    }
+}
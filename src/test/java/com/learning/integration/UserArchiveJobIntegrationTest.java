@@ -0,0 +1,74 @@
+package com.learning.integration;
+
+import com.learning.external.EmailService;
+import com.learning.model.User;
+import com.learning.repository.ArchivedUserRepository;
+import com.learning.repository.UserRepository;
+import com.learning.service.UserArchiveJob;
+import com.learning.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════════════════════╗
+ * ║ USER ARCHIVE JOB INTEGRATION TEST ║
+ * ╚══════════════════════════════════════════════════════════════════════════════╝
+ * 
+ * Concept:
+ * - Long-inactive users are MOVED (insert + delete) into users_archive.
+ * - Reads through UserService still find them by id and email.
+ */
+@DisplayName("🗄️ User Archive Job Integration")
+class UserArchiveJobIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserArchiveJob userArchiveJob;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ArchivedUserRepository archivedUserRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void cleanUp() {
+        archivedUserRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should move inactive users to the archive and still find them")
+    void shouldArchiveInactiveUsers() {
+        // Given
+        User active = userRepository.save(new User("Active", "still.here@test.com", "password123"));
+        User inactive = new User("Gone", "gone@test.com", "password123");
+        inactive.setActive(false);
+        inactive = userRepository.save(inactive);
+
+        // When (cutoff in the future = everything inactive qualifies)
+        int archived = userArchiveJob.archiveInactiveUsers(LocalDateTime.now().plusDays(1));
+
+        // Then
+        assertEquals(1, archived);
+        assertTrue(userRepository.findById(inactive.getId()).isEmpty());
+        assertTrue(userRepository.findById(active.getId()).isPresent());
+        assertTrue(archivedUserRepository.existsById(inactive.getId()));
+
+        // Transparent read fallback
+        assertEquals("gone@test.com", userService.findById(inactive.getId()).orElseThrow().getEmail());
+        assertEquals(inactive.getId(), userService.findByEmail("GONE@test.com").orElseThrow().getId());
+    }
+}
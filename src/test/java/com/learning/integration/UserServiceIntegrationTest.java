@@ -2,6 +2,7 @@ package com.learning.integration;
 
 import com.learning.external.EmailService;
 import com.learning.model.User;
+import com.learning.querycount.ExpectedQueries;
 import com.learning.repository.UserRepository;
 import com.learning.service.UserService;
 import org.junit.jupiter.api.DisplayName;
@@ -72,4 +73,14 @@ class UserServiceIntegrationTest extends AbstractIntegrationTest {
 
         System.out.println("✅ Verified: Service Layer correctly blocked duplicate!");
     }
+
+    @Test
+    @ExpectedQueries(select = 1, insert = 1)
+    @DisplayName("Registration should cost exactly one lookup and one insert")
+    void shouldRegisterWithMinimalQueries() {
+        // existsByEmail -> 1 SELECT on email_hash, save -> 1 INSERT (IDENTITY, no re-read)
+        User result = userService.registerUser("Counted", "counted@test.com", "password123");
+
+        assertNotNull(result.getId());
+    }
 }
@@ -3,30 +3,54 @@ package com.learning.junit5;
 import com.learning.service.OrderService;
 
 import com.learning.external.EmailService;
+import com.learning.external.EmailService.ShippingNotification;
 import com.learning.external.PaymentGateway;
 import com.learning.external.PaymentGateway.PaymentResult;
 import com.learning.model.Order;
 import com.learning.model.Order.OrderStatus;
 import com.learning.model.OrderItem;
 import com.learning.model.User;
+import com.learning.pricing.PriceQuote;
+import com.learning.pricing.PricingEngine;
+import com.learning.pricing.PricingRule;
+import com.learning.repository.InMemoryOrderEventLog;
+import com.learning.repository.OrderFilter;
 import com.learning.repository.OrderRepository;
 import com.learning.repository.UserRepository;
+import com.learning.service.OrderPipelineExecutors;
+import com.learning.service.OrderStateMachine;
+import com.learning.service.PaymentIdempotencyStore;
+import com.learning.service.PaymentOutcomeUnknownException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
@@ -53,9 +77,41 @@ class OrderServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Spy
+    private InMemoryOrderEventLog orderEventLog = new InMemoryOrderEventLog();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private OrderStateMachine stateMachine = new OrderStateMachine(meterRegistry);
+
+    @Spy
+    private OrderPipelineExecutors executors = OrderPipelineExecutors.direct();
+
+    @Spy
+    private PaymentIdempotencyStore idempotencyStore = new PaymentIdempotencyStore(Duration.ofMinutes(10));
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
     @InjectMocks
     private OrderService orderService;
 
+    /**
+     * Stub transitionStatus as a compare-and-set on this order
+     */
+    private void stubTransitions(Order order) {
+        given(orderRepository.transitionStatus(eq(order.getId()), any(), any(), any())).willAnswer(invocation -> {
+            OrderStatus expected = invocation.getArgument(1);
+            if (order.getStatus() != expected) {
+                return Optional.empty();
+            }
+            order.setStatus(invocation.getArgument(2));
+            invocation.<Consumer<Order>>getArgument(3).accept(order);
+            return Optional.of(order);
+        });
+    }
+
     @Nested
     @DisplayName("Create Order Scenarios")
     class CreateOrder {
@@ -85,6 +141,7 @@ class OrderServiceTest {
             assertThat(order.getId()).isEqualTo(100L);
             assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
             assertThat(order.getTotalAmount()).isEqualTo(BigDecimal.TEN);
+            assertThat(order.getContactEmail()).isEqualTo("test@test.com");
             verify(orderRepository).save(any(Order.class));
         }
 
@@ -132,14 +189,12 @@ class OrderServiceTest {
             order.setId(orderId);
             order.setStatus(OrderStatus.PENDING);
             order.setTotalAmount(BigDecimal.TEN);
-
-            User user = new User("User", "test@test.com", "pass");
+            order.setContactEmail("test@test.com");
 
             given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
             given(paymentGateway.processPayment(any(), any(), any()))
                     .willReturn(new PaymentResult(true, "txn_123", "Success"));
-            given(orderRepository.save(any(Order.class))).willReturn(order);
-            given(userRepository.findById(1L)).willReturn(Optional.of(user));
+            stubTransitions(order);
 
             // When
             Order processed = orderService.processPayment(orderId, "token_123");
@@ -148,6 +203,66 @@ class OrderServiceTest {
             assertThat(processed.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
             assertThat(processed.getPaymentId()).isEqualTo("txn_123");
             verify(emailService).sendOrderConfirmation(eq("test@test.com"), eq(orderId), any());
+            verifyNoInteractions(userRepository);
+            assertThat(orderService.getOrderHistory(orderId))
+                    .singleElement()
+                    .satisfies(event -> {
+                        assertThat(event.getFromStatus()).isEqualTo(OrderStatus.PENDING);
+                        assertThat(event.getToStatus()).isEqualTo(OrderStatus.CONFIRMED);
+                        assertThat(event.getPaymentId()).isEqualTo("txn_123");
+                    });
+            verify(orderRepository, never()).save(any());
+            assertThat(meterRegistry.get("order.transitions")
+                    .tag("from", "PENDING").tag("to", "CONFIRMED").counter().count()).isEqualTo(1.0);
+            assertThat(meterRegistry.get("order.transition.time")
+                    .tag("from", "PENDING").tag("to", "CONFIRMED").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should confirm asynchronously even if the email fails")
+        void shouldProcessPaymentAsync() {
+            // Given
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+            order.setContactEmail("test@test.com");
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(new PaymentResult(true, "txn_123", "Success"));
+            stubTransitions(order);
+            given(emailService.sendOrderConfirmation(any(), any(), any()))
+                    .willThrow(new RuntimeException("SMTP down"));
+
+            // When
+            Order processed = orderService.processPaymentAsync(orderId, "token_123").join();
+
+            // Then
+            assertThat(processed.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(processed.getPaymentId()).isEqualTo("txn_123");
+            verify(emailService).sendOrderConfirmation(eq("test@test.com"), eq(orderId), any());
+        }
+
+        @Test
+        @DisplayName("Should complete exceptionally if the async payment is rejected")
+        void shouldFailPaymentAsync() {
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(new PaymentResult(false, null, "Insufficient Funds"));
+
+            assertThat(orderService.processPaymentAsync(orderId, "token"))
+                    .failsWithin(Duration.ofSeconds(1))
+                    .withThrowableOfType(ExecutionException.class)
+                    .withMessageContaining("Payment failed");
+            verifyNoInteractions(emailService);
         }
 
         @Test
@@ -156,6 +271,7 @@ class OrderServiceTest {
             // Given
             Long orderId = 1L;
             Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
             order.setStatus(OrderStatus.PENDING);
             order.setTotalAmount(BigDecimal.TEN);
 
@@ -168,6 +284,400 @@ class OrderServiceTest {
                     .isInstanceOf(RuntimeException.class)
                     .hasMessageContaining("Payment failed");
         }
+
+        @Test
+        @DisplayName("Should refund if the order changed while paying")
+        void shouldRefundWhenOrderChangedConcurrently() {
+            // Given - another caller cancelled the order during the charge
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willAnswer(invocation -> {
+                        order.setStatus(OrderStatus.CANCELLED);
+                        return new PaymentResult(true, "txn_123", "Success");
+                    });
+            stubTransitions(order);
+
+            // When & Then
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "token"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("changed concurrently");
+            verify(paymentGateway).refundPayment("txn_123", BigDecimal.TEN);
+            verifyNoInteractions(emailService);
+            assertThat(orderService.getOrderHistory(orderId)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should refund if the database rejects the confirm as stale")
+        void shouldRefundWhenConfirmLosesOptimisticLock() {
+            // Given - the order moved between the repository's read and its UPDATE
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(new PaymentResult(true, "txn_123", "Success"));
+            given(orderRepository.transitionStatus(eq(orderId), any(), any(), any()))
+                    .willThrow(new OptimisticLockingFailureException("Order 1 changed concurrently"));
+            given(paymentGateway.refundPayment("txn_123", BigDecimal.TEN))
+                    .willReturn(new PaymentResult(true, "ref_1", "Refunded"));
+
+            // When & Then
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "token"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("payment refunded");
+            verify(paymentGateway).refundPayment("txn_123", BigDecimal.TEN);
+            verifyNoInteractions(emailService);
+        }
+
+        @Test
+        @DisplayName("Should report a refund that throws after losing the race")
+        void shouldReportRefundFailureWhenConfirmLosesRace() {
+            // Given
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(new PaymentResult(true, "txn_123", "Success"));
+            given(orderRepository.transitionStatus(eq(orderId), any(), any(), any()))
+                    .willThrow(new OptimisticLockingFailureException("Order 1 changed concurrently"));
+            given(paymentGateway.refundPayment("txn_123", BigDecimal.TEN))
+                    .willThrow(new RuntimeException("Gateway down"));
+
+            // When & Then: the caller learns the money was kept, and a retry may start over
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "token"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("refund failed: Gateway down");
+            assertThat(idempotencyStore.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should answer a retry of a completed payment without charging again")
+        void shouldReturnFirstResultToRetry() {
+            // Given
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(new PaymentResult(true, "txn_123", "Success"));
+            stubTransitions(order);
+
+            // When - the client timed out and retries
+            orderService.processPayment(orderId, "token_123");
+            Order retried = orderService.processPayment(orderId, "token_123");
+
+            // Then
+            assertThat(retried.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(retried.getPaymentId()).isEqualTo("txn_123");
+            verify(paymentGateway, times(1)).processPayment(any(), any(), any());
+            assertThat(orderService.getOrderHistory(orderId)).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should make a concurrent retry wait for the payment in flight")
+        void shouldWaitForPaymentInFlight() throws Exception {
+            // Given - the first charge blocks until released
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            CountDownLatch charging = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any())).willAnswer(invocation -> {
+                charging.countDown();
+                release.await();
+                return new PaymentResult(true, "txn_123", "Success");
+            });
+            stubTransitions(order);
+
+            // When
+            CompletableFuture<Order> first = CompletableFuture.supplyAsync(
+                    () -> orderService.processPayment(orderId, "token_123"));
+            charging.await();
+            CompletableFuture<Order> retry = CompletableFuture.supplyAsync(
+                    () -> orderService.processPayment(orderId, "token_123"));
+            verify(idempotencyStore, timeout(1_000).times(2)).begin(orderId);
+            assertThat(retry).isNotDone();
+            release.countDown();
+
+            // Then
+            assertThat(first.get(1, TimeUnit.SECONDS).getPaymentId()).isEqualTo("txn_123");
+            assertThat(retry.get(1, TimeUnit.SECONDS).getPaymentId()).isEqualTo("txn_123");
+            verify(paymentGateway, times(1)).processPayment(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should allow a new attempt after a declined payment")
+        void shouldRetryAfterDecline() {
+            // Given
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(new PaymentResult(false, null, "Insufficient Funds"))
+                    .willReturn(new PaymentResult(true, "txn_456", "Success"));
+            stubTransitions(order);
+
+            // When
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "empty_card"))
+                    .hasMessageContaining("Payment failed");
+            Order processed = orderService.processPayment(orderId, "other_card");
+
+            // Then
+            assertThat(processed.getPaymentId()).isEqualTo("txn_456");
+            verify(paymentGateway, times(2)).processPayment(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should not charge a retry while a timed-out charge is unsettled")
+        void shouldHoldRetryUntilTimedOutChargeSettles() {
+            // Given: the gateway's answer does not arrive in time
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+            CompletableFuture<PaymentResult> lateAnswer = new CompletableFuture<>();
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(PaymentResult.unknown("payment unavailable: timed out after 200ms", lateAnswer));
+            given(paymentGateway.verifyPayment("txn_late")).willReturn(true);
+            stubTransitions(order);
+
+            // When: the charge times out and the client retries
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "token_123"))
+                    .isInstanceOf(PaymentOutcomeUnknownException.class);
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "token_123"))
+                    .isInstanceOf(PaymentOutcomeUnknownException.class);
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+
+            // When: the first charge went through after all, and the client retries again
+            lateAnswer.complete(new PaymentResult(true, "txn_late", "Success"));
+            Order retried = orderService.processPayment(orderId, "token_123");
+
+            // Then: confirmed with the first charge, never charged twice
+            assertThat(retried.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(retried.getPaymentId()).isEqualTo("txn_late");
+            verify(paymentGateway, times(1)).processPayment(any(), any(), any());
+            verify(paymentGateway).verifyPayment("txn_late");
+            verify(paymentGateway, never()).refundPayment(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should allow a new attempt once a timed-out charge turns out declined")
+        void shouldRetryAfterTimedOutDecline() {
+            // Given
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+            CompletableFuture<PaymentResult> lateAnswer = new CompletableFuture<>();
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.processPayment(any(), any(), any()))
+                    .willReturn(PaymentResult.unknown("payment unavailable: timed out after 200ms", lateAnswer))
+                    .willReturn(new PaymentResult(true, "txn_456", "Success"));
+            stubTransitions(order);
+
+            // When
+            assertThatThrownBy(() -> orderService.processPayment(orderId, "token_123"))
+                    .isInstanceOf(PaymentOutcomeUnknownException.class);
+            lateAnswer.complete(new PaymentResult(false, null, "Insufficient Funds"));
+            Order processed = orderService.processPayment(orderId, "other_card");
+
+            // Then
+            assertThat(processed.getPaymentId()).isEqualTo("txn_456");
+            verify(paymentGateway, times(2)).processPayment(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Payment Scenarios")
+    class BatchPayments {
+
+        private Order pendingOrder(Long id) {
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(id);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN);
+            return order;
+        }
+
+        @Test
+        @DisplayName("Should charge in one gateway call and report per-order outcomes")
+        void shouldProcessPaymentBatch() {
+            // Given
+            Order pending = pendingOrder(1L);
+            Order declined = pendingOrder(2L);
+            Order shipped = pendingOrder(3L);
+            shipped.setStatus(OrderStatus.SHIPPED);
+            pending.setContactEmail("test@test.com");
+
+            given(orderRepository.findAllById(List.of(1L, 2L, 3L, 404L)))
+                    .willReturn(List.of(pending, declined, shipped));
+            given(paymentGateway.processPayments(any())).willReturn(List.of(
+                    new PaymentResult(true, "txn_1", "Success"),
+                    new PaymentResult(false, null, "Insufficient Funds")));
+            given(orderRepository.transitionStatusAll(any(), eq(OrderStatus.PENDING), eq(OrderStatus.CONFIRMED), any()))
+                    .willAnswer(invocation -> {
+                        pending.setStatus(OrderStatus.CONFIRMED);
+                        invocation.<Consumer<Order>>getArgument(3).accept(pending);
+                        return List.of(pending);
+                    });
+
+            // When
+            List<OrderService.PaymentOutcome> outcomes = orderService.processPayments(List.of(
+                    new OrderService.PaymentCommand(1L, "tok_1"),
+                    new OrderService.PaymentCommand(2L, "tok_2"),
+                    new OrderService.PaymentCommand(3L, "tok_3"),
+                    new OrderService.PaymentCommand(404L, "tok_4"),
+                    new OrderService.PaymentCommand(1L, "tok_1")));
+
+            // Then
+            assertThat(outcomes).extracting(OrderService.PaymentOutcome::success)
+                    .containsExactly(true, false, false, false, false);
+            assertThat(outcomes).extracting(OrderService.PaymentOutcome::message).containsExactly(
+                    "Success",
+                    "Payment failed: Insufficient Funds",
+                    "Order is not pending payment: SHIPPED",
+                    "Order not found: 404",
+                    "Duplicate payment request for order 1");
+            assertThat(pending.getPaymentId()).isEqualTo("txn_1");
+            verify(paymentGateway, times(1)).processPayments(any());
+            verify(orderRepository, never()).transitionStatus(any(), any(), any(), any());
+            verify(emailService).sendOrderConfirmation("test@test.com", 1L, "10");
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should fall back to per-order confirm when the batch conflicts")
+        void shouldFallBackOnBatchConflict() {
+            // Given: order 2 was cancelled while the batch was being charged
+            Order first = pendingOrder(1L);
+            Order second = pendingOrder(2L);
+
+            given(orderRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(first, second));
+            given(paymentGateway.processPayments(any())).willAnswer(invocation -> {
+                second.setStatus(OrderStatus.CANCELLED);
+                return List.of(new PaymentResult(true, "txn_1", "Success"), new PaymentResult(true, "txn_2", "Success"));
+            });
+            given(orderRepository.transitionStatusAll(any(), any(), any(), any()))
+                    .willThrow(new OptimisticLockingFailureException("stale order 2"));
+            given(paymentGateway.refundPayment("txn_2", BigDecimal.TEN))
+                    .willReturn(new PaymentResult(true, "ref_2", "Refunded"));
+            stubTransitions(first);
+            stubTransitions(second);
+
+            // When
+            List<OrderService.PaymentOutcome> outcomes = orderService.processPayments(List.of(
+                    new OrderService.PaymentCommand(1L, "tok_1"),
+                    new OrderService.PaymentCommand(2L, "tok_2")));
+
+            // Then
+            assertThat(outcomes).extracting(OrderService.PaymentOutcome::success).containsExactly(true, false);
+            assertThat(outcomes.get(1).message()).contains("payment refunded");
+            verify(paymentGateway).refundPayment("txn_2", BigDecimal.TEN);
+            assertThat(first.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        }
+
+        @Test
+        @DisplayName("Should refund the other lost orders when one refund throws")
+        void shouldKeepRefundingAfterRefundThrows() {
+            // Given: orders 1 and 2 were both cancelled while the batch was being charged
+            Order first = pendingOrder(1L);
+            Order second = pendingOrder(2L);
+
+            given(orderRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(first, second));
+            given(paymentGateway.processPayments(any())).willAnswer(invocation -> {
+                first.setStatus(OrderStatus.CANCELLED);
+                second.setStatus(OrderStatus.CANCELLED);
+                return List.of(new PaymentResult(true, "txn_1", "Success"),
+                        new PaymentResult(true, "txn_2", "Success"));
+            });
+            given(orderRepository.transitionStatusAll(any(), any(), any(), any()))
+                    .willThrow(new OptimisticLockingFailureException("stale orders"));
+            given(paymentGateway.refundPayment("txn_1", BigDecimal.TEN))
+                    .willThrow(new RuntimeException("Gateway down"));
+            given(paymentGateway.refundPayment("txn_2", BigDecimal.TEN))
+                    .willReturn(new PaymentResult(true, "ref_2", "Refunded"));
+            stubTransitions(first);
+            stubTransitions(second);
+
+            // When
+            List<OrderService.PaymentOutcome> outcomes = orderService.processPayments(List.of(
+                    new OrderService.PaymentCommand(1L, "tok_1"),
+                    new OrderService.PaymentCommand(2L, "tok_2")));
+
+            // Then: both reported, and neither attempt is left in flight
+            assertThat(outcomes).extracting(OrderService.PaymentOutcome::message)
+                    .containsExactly(
+                            "Order 1 is no longer PENDING (changed concurrently), refund failed: Gateway down",
+                            "Order 2 is no longer PENDING (changed concurrently), payment refunded");
+            verify(idempotencyStore).fail(eq(1L), any());
+            verify(idempotencyStore).fail(eq(2L), any());
+            assertThat(idempotencyStore.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should keep a timed-out charge open and confirm the order when the gateway answers")
+        void shouldSettleTimedOutCharge() {
+            // Given: the gateway's answer for order 1 did not arrive in time
+            Order order = pendingOrder(1L);
+            CompletableFuture<PaymentResult> lateAnswer = new CompletableFuture<>();
+            given(orderRepository.findAllById(List.of(1L))).willReturn(List.of(order));
+            given(paymentGateway.processPayments(any())).willReturn(List.of(
+                    PaymentResult.unknown("payment unavailable: timed out after 200ms", lateAnswer)));
+
+            // When
+            List<OrderService.PaymentOutcome> outcomes = orderService.processPayments(List.of(
+                    new OrderService.PaymentCommand(1L, "tok_1")));
+
+            // Then: not a decline, the attempt stays open
+            assertThat(outcomes).singleElement().satisfies(outcome -> {
+                assertThat(outcome.success()).isFalse();
+                assertThat(outcome.message()).contains("outcome unknown");
+            });
+            assertThat(idempotencyStore.begin(1L)).hasValueSatisfying(attempt -> assertThat(attempt).isNotDone());
+
+            // When: the charge went through after all
+            PaymentResult charged = new PaymentResult(true, "txn_1", "Success");
+            given(paymentGateway.verifyPayment("txn_1")).willReturn(true);
+            given(orderRepository.findById(1L)).willReturn(Optional.of(order));
+            stubTransitions(order);
+            lateAnswer.complete(charged);
+
+            // Then
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(order.getPaymentId()).isEqualTo("txn_1");
+            assertThat(idempotencyStore.begin(1L))
+                    .hasValueSatisfying(attempt -> assertThat(attempt).isCompletedWithValue(charged));
+            verify(paymentGateway, never()).refundPayment(any(), any());
+        }
     }
 
     @Nested
@@ -180,16 +690,21 @@ class OrderServiceTest {
             // Given
             Long orderId = 1L;
             Order order = new Order(1L, List.of());
+            order.setId(orderId);
             order.setStatus(OrderStatus.PENDING);
 
             given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
-            given(orderRepository.save(any())).willReturn(order); // Return Mock
+            stubTransitions(order);
 
             // When
             Order cancelled = orderService.cancelOrder(orderId, "Changed mind");
 
             // Then
             assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+            assertThat(orderService.getOrderHistory(orderId))
+                    .extracting(event -> event.getToStatus())
+                    .containsExactly(OrderStatus.CANCELLED);
+            verify(orderRepository, never()).save(any());
         }
 
         @Test
@@ -197,6 +712,7 @@ class OrderServiceTest {
         void shouldNotCancelShipped() {
             Long orderId = 1L;
             Order order = new Order(1L, List.of());
+            order.setId(orderId);
             order.setStatus(OrderStatus.SHIPPED);
 
             given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
@@ -204,5 +720,336 @@ class OrderServiceTest {
             assertThatThrownBy(() -> orderService.cancelOrder(orderId, "Reason"))
                     .isInstanceOf(IllegalStateException.class);
         }
+
+        @Test
+        @DisplayName("Should not refund if the order changed before cancel")
+        void shouldFailCancelWhenOrderChangedConcurrently() {
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of());
+            order.setId(orderId);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setPaymentId("txn_123");
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(orderRepository.transitionStatus(eq(orderId), eq(OrderStatus.CONFIRMED), eq(OrderStatus.CANCELLED), any()))
+                    .willReturn(Optional.empty()); // shipped in between
+
+            assertThatThrownBy(() -> orderService.cancelOrder(orderId, "Reason"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("changed concurrently");
+            verifyNoInteractions(paymentGateway);
+        }
+
+        @Test
+        @DisplayName("Should restore status if refund fails")
+        void shouldRestoreStatusWhenRefundFails() {
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of());
+            order.setId(orderId);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setPaymentId("txn_123");
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.refundPayment("txn_123", BigDecimal.TEN))
+                    .willReturn(new PaymentResult(false, null, "Gateway down"));
+            stubTransitions(order);
+
+            assertThatThrownBy(() -> orderService.cancelOrder(orderId, "Reason"))
+                    .hasMessageContaining("Refund failed");
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(orderService.getOrderHistory(orderId))
+                    .extracting(event -> event.getToStatus())
+                    .containsExactly(OrderStatus.CANCELLED, OrderStatus.CONFIRMED);
+        }
+
+        @Test
+        @DisplayName("Should restore status if refund throws")
+        void shouldRestoreStatusWhenRefundThrows() {
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of());
+            order.setId(orderId);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setPaymentId("txn_123");
+            order.setTotalAmount(BigDecimal.TEN);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(paymentGateway.refundPayment("txn_123", BigDecimal.TEN))
+                    .willThrow(new RuntimeException("Gateway down"));
+            stubTransitions(order);
+
+            assertThatThrownBy(() -> orderService.cancelOrder(orderId, "Reason"))
+                    .hasMessageContaining("Gateway down");
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(orderService.getOrderHistory(orderId))
+                    .extracting(event -> event.getToStatus())
+                    .containsExactly(OrderStatus.CANCELLED, OrderStatus.CONFIRMED);
+        }
+    }
+    @Nested
+    @DisplayName("Ship Order Scenarios")
+    class ShipOrder {
+
+        @Test
+        @DisplayName("Should ship and notify the contact captured on the order")
+        void shouldShipOrder() {
+            // Given
+            Long orderId = 1L;
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setContactEmail("test@test.com");
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            stubTransitions(order);
+
+            // When
+            Order shipped = orderService.shipOrder(orderId, "TRACK-1");
+
+            // Then
+            assertThat(shipped.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+            assertThat(orderService.getOrderHistory(orderId))
+                    .singleElement()
+                    .satisfies(event -> assertThat(event.getTrackingNumber()).isEqualTo("TRACK-1"));
+            verify(emailService).sendShippingNotification("test@test.com", orderId, "TRACK-1");
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should notify the user of an order stored without a contact")
+        void shouldNotifyUserWithoutContact() {
+            // Given: as decoded from a mapped-store record written before contactEmail
+            Long orderId = 1L;
+            Order order = new Order(5L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setId(orderId);
+            order.setStatus(OrderStatus.CONFIRMED);
+            User user = new User("Old Customer", "old@test.com", "pass");
+            user.setId(5L);
+
+            given(orderRepository.findById(orderId)).willReturn(Optional.of(order));
+            given(userRepository.findById(5L)).willReturn(Optional.of(user));
+            stubTransitions(order);
+
+            // When
+            orderService.shipOrder(orderId, "TRACK-1");
+
+            // Then
+            verify(emailService).sendShippingNotification("old@test.com", orderId, "TRACK-1");
+        }
+
+        @Test
+        @DisplayName("Should look up the users of a batch's contactless orders once")
+        void shouldLookUpUsersOnceForBatch() {
+            // Given
+            Order withoutContact = new Order(5L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            withoutContact.setId(1L);
+            withoutContact.setStatus(OrderStatus.CONFIRMED);
+            Order withContact = new Order(6L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            withContact.setId(2L);
+            withContact.setStatus(OrderStatus.PROCESSING);
+            withContact.setContactEmail("b@test.com");
+            User user = new User("Old Customer", "old@test.com", "pass");
+            user.setId(5L);
+
+            Map<Long, String> trackingNumbers = new LinkedHashMap<>();
+            trackingNumbers.put(1L, "TRACK-1");
+            trackingNumbers.put(2L, "TRACK-2");
+
+            given(orderRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(withoutContact, withContact));
+            given(userRepository.findAllById(List.of(5L))).willReturn(List.of(user));
+            stubBatchTransition(OrderStatus.CONFIRMED, withoutContact);
+            stubBatchTransition(OrderStatus.PROCESSING, withContact);
+
+            // When
+            orderService.shipOrders(trackingNumbers);
+
+            // Then
+            verify(emailService).sendShippingNotifications(List.of(
+                    new ShippingNotification("old@test.com", 1L, "TRACK-1"),
+                    new ShippingNotification("b@test.com", 2L, "TRACK-2")));
+            verify(userRepository, times(1)).findAllById(any());
+            verify(userRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should ship a batch with one load, one update per status and one email call")
+        void shouldShipOrderBatch() {
+            // Given
+            Order confirmed = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            confirmed.setId(1L);
+            confirmed.setStatus(OrderStatus.CONFIRMED);
+            confirmed.setContactEmail("a@test.com");
+            Order processing = new Order(2L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            processing.setId(2L);
+            processing.setStatus(OrderStatus.PROCESSING);
+            processing.setContactEmail("b@test.com");
+            Order pending = new Order(3L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            pending.setId(3L);
+            pending.setStatus(OrderStatus.PENDING);
+
+            Map<Long, String> trackingNumbers = new LinkedHashMap<>();
+            trackingNumbers.put(3L, "TRACK-3");
+            trackingNumbers.put(2L, "TRACK-2");
+            trackingNumbers.put(404L, "TRACK-404");
+            trackingNumbers.put(1L, "TRACK-1");
+
+            given(orderRepository.findAllById(List.of(3L, 2L, 404L, 1L)))
+                    .willReturn(List.of(confirmed, processing, pending));
+            stubBatchTransition(OrderStatus.CONFIRMED, confirmed);
+            stubBatchTransition(OrderStatus.PROCESSING, processing);
+
+            // When
+            List<OrderService.ShipmentOutcome> outcomes = orderService.shipOrders(trackingNumbers);
+
+            // Then
+            assertThat(outcomes).extracting(OrderService.ShipmentOutcome::orderId).containsExactly(3L, 2L, 404L, 1L);
+            assertThat(outcomes).extracting(OrderService.ShipmentOutcome::message).containsExactly(
+                    "Order not ready for shipping: PENDING",
+                    "Shipped",
+                    "Order not found: 404",
+                    "Shipped");
+            assertThat(orderService.getOrderHistory(2L))
+                    .singleElement()
+                    .satisfies(event -> assertThat(event.getTrackingNumber()).isEqualTo("TRACK-2"));
+            verify(emailService).sendShippingNotifications(List.of(
+                    new ShippingNotification("a@test.com", 1L, "TRACK-1"),
+                    new ShippingNotification("b@test.com", 2L, "TRACK-2")));
+            verify(emailService, never()).sendShippingNotification(any(), any(), any());
+            verify(orderRepository, never()).transitionStatus(any(), any(), any(), any());
+            verifyNoInteractions(userRepository);
+        }
+
+        private void stubBatchTransition(OrderStatus from, Order order) {
+            given(orderRepository.transitionStatusAll(eq(List.of(order.getId())), eq(from), eq(OrderStatus.SHIPPED), any()))
+                    .willAnswer(invocation -> {
+                        order.setStatus(OrderStatus.SHIPPED);
+                        invocation.<Consumer<Order>>getArgument(3).accept(order);
+                        return List.of(order);
+                    });
+        }
+    }
+
+    @Nested
+    @DisplayName("User Order Queries")
+    class UserOrders {
+
+        private List<Order> userOrders(long... ids) {
+            List<Order> orders = new ArrayList<>();
+            for (long id : ids) {
+                Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+                order.setId(id);
+                orders.add(order);
+            }
+            return orders;
+        }
+
+        @Test
+        @DisplayName("Should return a page and the cursor of the next one without looking up the user")
+        void shouldPageUserOrders() {
+            // Given
+            OrderFilter filter = OrderFilter.status(OrderStatus.PENDING);
+            given(orderRepository.findPageByUserId(1L, filter, null, 3)).willReturn(userOrders(9, 7, 4));
+            given(orderRepository.findPageByUserId(1L, filter, 7L, 3)).willReturn(userOrders(4, 2));
+
+            // When
+            OrderService.OrderPage first = orderService.getUserOrders(1L, filter, null, 2);
+            OrderService.OrderPage last = orderService.getUserOrders(1L, filter, first.nextCursor(), 2);
+
+            // Then
+            assertThat(first.orders()).extracting(Order::getId).containsExactly(9L, 7L);
+            assertThat(first.nextCursor()).isEqualTo(7L);
+            assertThat(last.orders()).extracting(Order::getId).containsExactly(4L, 2L);
+            assertThat(last.nextCursor()).isNull();
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should check the user exists only when the first page is empty")
+        void shouldRejectUnknownUser() {
+            // Given
+            given(orderRepository.findPageByUserId(eq(1L), any(), any(), anyInt())).willReturn(List.of());
+            given(userRepository.existsById(1L)).willReturn(true);
+            given(orderRepository.findPageByUserId(eq(404L), any(), any(), anyInt())).willReturn(List.of());
+            given(userRepository.existsById(404L)).willReturn(false);
+
+            // When
+            OrderService.OrderPage empty = orderService.getUserOrders(1L, OrderFilter.ALL, null, 10);
+
+            // Then
+            assertThat(empty.orders()).isEmpty();
+            assertThat(empty.nextCursor()).isNull();
+            assertThatThrownBy(() -> orderService.getUserOrders(404L, OrderFilter.ALL, null, 10))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("User not found");
+            verify(userRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should export every page lazily")
+        void shouldExportUserOrders() {
+            // Given
+            long[] firstPage = new long[OrderService.MAX_PAGE_SIZE + 1];
+            for (int i = 0; i < firstPage.length; i++) {
+                firstPage[i] = 1_000 - i;
+            }
+            long cursor = firstPage[OrderService.MAX_PAGE_SIZE - 1];
+            given(orderRepository.findPageByUserId(1L, OrderFilter.ALL, null, OrderService.MAX_PAGE_SIZE + 1))
+                    .willReturn(userOrders(firstPage));
+            given(orderRepository.findPageByUserId(1L, OrderFilter.ALL, cursor, OrderService.MAX_PAGE_SIZE + 1))
+                    .willReturn(userOrders(3, 2, 1));
+
+            // When
+            Stream<Order> export = orderService.exportUserOrders(1L, OrderFilter.ALL);
+
+            // Then
+            verifyNoInteractions(orderRepository);
+            assertThat(export.map(Order::getId).toList())
+                    .hasSize(OrderService.MAX_PAGE_SIZE + 3)
+                    .endsWith(3L, 2L, 1L)
+                    .doesNotHaveDuplicates();
+            verify(orderRepository, times(2)).findPageByUserId(any(), any(), any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("Quote Orders")
+    class QuoteOrders {
+
+        private Order order(long id, long userId) {
+            Order order = new Order(userId, List.of(new OrderItem(1L, "Item", 2, new BigDecimal("10.00"))));
+            order.setId(id);
+            return order;
+        }
+
+        @Test
+        @DisplayName("Should price a batch with one lookup, in request order")
+        void shouldQuoteOrders() {
+            // Given
+            pricingEngine.reload(List.of(new PricingRule.UserDiscount(7L, 10)));
+            given(orderRepository.findAllById(List.of(2L, 1L))).willReturn(List.of(order(1L, 7L), order(2L, 8L)));
+
+            // When
+            List<PriceQuote> quotes = orderService.quoteOrders(List.of(2L, 1L, 2L));
+
+            // Then
+            assertThat(quotes).extracting(PriceQuote::orderId).containsExactly(2L, 1L, 2L);
+            assertThat(quotes).extracting(PriceQuote::total)
+                    .containsExactly(new BigDecimal("20.00"), new BigDecimal("18.00"), new BigDecimal("20.00"));
+            assertThat(quotes).extracting(PriceQuote::rulesVersion).containsOnly(pricingEngine.rulesVersion());
+            verify(orderRepository, times(1)).findAllById(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a batch with an unknown order")
+        void shouldRejectUnknownOrder() {
+            // Given
+            given(orderRepository.findAllById(List.of(1L, 404L))).willReturn(List.of(order(1L, 7L)));
+
+            // When & Then
+            assertThatThrownBy(() -> orderService.quoteOrders(List.of(1L, 404L)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Order not found: 404");
+            verify(pricingEngine, never()).quoteAll(any());
+        }
     }
 }
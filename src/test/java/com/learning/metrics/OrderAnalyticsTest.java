@@ -0,0 +1,180 @@
+package com.learning.metrics;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItem;
+import com.learning.repository.InMemoryOrderRepository;
+import com.learning.service.OrderStateMachine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Unit test for OrderAnalytics
+ * 
+ * Transitions are fired on a real OrderStateMachine, baselines come from an
+ * InMemoryOrderRepository, the clock is mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderAnalyticsTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:15:30Z");
+
+    @Mock
+    private Clock clock;
+
+    private final OrderStateMachine stateMachine = new OrderStateMachine(new SimpleMeterRegistry());
+    private final InMemoryOrderRepository repository = new InMemoryOrderRepository();
+
+    private OrderAnalytics analytics() {
+        return new OrderAnalytics(stateMachine, repository, clock, OrderAnalytics::spendBand);
+    }
+
+    private Order order(long id, String price) {
+        Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, new BigDecimal(price))));
+        order.setId(id);
+        return order;
+    }
+
+    private void pay(Order order) {
+        order.setPaymentId("PAY-" + order.getId());
+        order.setStatus(OrderStatus.CONFIRMED);
+        stateMachine.fire(order, OrderStatus.PENDING, OrderStatus.CONFIRMED, null);
+    }
+
+    @Test
+    @DisplayName("Should start from the stored counts and follow every transition")
+    void shouldCountOrdersByStatus() {
+        // Given
+        repository.save(new Order(1L, List.of()));
+        repository.save(new Order(2L, List.of()));
+        OrderAnalytics analytics = analytics();
+        analytics.resync();
+        given(clock.millis()).willReturn(NOW.toEpochMilli());
+
+        // When
+        Order order = order(10L, "20.00");
+        stateMachine.created(order);
+        pay(order);
+
+        // Then
+        assertThat(analytics.count(OrderStatus.PENDING)).isEqualTo(2);
+        assertThat(analytics.count(OrderStatus.CONFIRMED)).isEqualTo(1);
+        assertThat(analytics.snapshot().ordersByStatus()).containsEntry(OrderStatus.SHIPPED, 0L);
+    }
+
+    @Test
+    @DisplayName("Should bucket revenue per minute, net of cancellations")
+    void shouldTrackRevenuePerMinute() {
+        // Given
+        OrderAnalytics analytics = analytics();
+        Order first = order(1L, "20.00");
+        Order second = order(2L, "5.50");
+        Order third = order(3L, "100.00");
+
+        // When: two paid orders one minute, a cancellation and a payment the next
+        given(clock.millis()).willReturn(NOW.minusSeconds(60).toEpochMilli());
+        pay(first);
+        pay(second);
+        given(clock.millis()).willReturn(NOW.toEpochMilli());
+        first.setStatus(OrderStatus.CANCELLED);
+        stateMachine.fire(first, OrderStatus.CONFIRMED, OrderStatus.CANCELLED, null);
+        pay(third);
+
+        // Then
+        List<OrderAnalytics.MinuteRevenue> revenue = analytics.snapshot().revenuePerMinute();
+        assertThat(revenue).hasSize(OrderAnalytics.WINDOW_MINUTES);
+        assertThat(revenue.get(revenue.size() - 2).revenue()).isEqualByComparingTo("25.50");
+        assertThat(revenue.get(revenue.size() - 2).paidOrders()).isEqualTo(2);
+        assertThat(revenue.get(revenue.size() - 1).minute()).isEqualTo(Instant.parse("2026-03-01T10:15:00Z"));
+        assertThat(revenue.get(revenue.size() - 1).revenue()).isEqualByComparingTo("80.00");
+        assertThat(revenue.get(0).revenue()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Should drop a minute once the ring has moved past it")
+    void shouldExpireOldMinutes() {
+        // Given
+        OrderAnalytics analytics = analytics();
+        given(clock.millis()).willReturn(NOW.toEpochMilli());
+        pay(order(1L, "20.00"));
+
+        // When
+        given(clock.millis()).willReturn(NOW.plusSeconds(60L * OrderAnalytics.WINDOW_MINUTES).toEpochMilli());
+        pay(order(2L, "7.00"));
+
+        // Then
+        assertThat(analytics.snapshot().revenuePerMinute())
+                .extracting(OrderAnalytics.MinuteRevenue::revenue)
+                .filteredOn(amount -> amount.signum() != 0)
+                .singleElement()
+                .satisfies(amount -> assertThat(amount).isEqualByComparingTo("7.00"));
+    }
+
+    @Test
+    @DisplayName("Should count created orders per segment")
+    void shouldCountOrdersBySegment() {
+        // Given
+        OrderAnalytics analytics = analytics();
+        given(clock.millis()).willReturn(NOW.toEpochMilli());
+
+        // When
+        stateMachine.created(order(1L, "10.00"));
+        stateMachine.created(order(2L, "49.99"));
+        stateMachine.created(order(3L, "120.00"));
+        stateMachine.created(order(4L, "999.00"));
+
+        // Then
+        assertThat(analytics.snapshot().ordersBySegment())
+                .containsEntry("small", 2L)
+                .containsEntry("medium", 1L)
+                .containsEntry("large", 1L);
+    }
+
+    @Test
+    @DisplayName("Should not lose counts under concurrent transitions")
+    void shouldCountConcurrently() throws Exception {
+        // Given
+        OrderAnalytics analytics = analytics();
+        given(clock.millis()).willReturn(NOW.toEpochMilli());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When: 8 threads create and pay 1,000 orders each
+        List<Future<?>> futures = IntStream.range(0, 8)
+                .mapToObj(t -> pool.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        Order order = order(t * 1_000L + i, "1.00");
+                        stateMachine.created(order);
+                        pay(order);
+                    }
+                }))
+                .toList();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Then
+        OrderAnalytics.Snapshot snapshot = analytics.snapshot();
+        assertThat(snapshot.ordersByStatus())
+                .containsEntry(OrderStatus.PENDING, 0L)
+                .containsEntry(OrderStatus.CONFIRMED, 8_000L);
+        assertThat(snapshot.revenuePerMinute().get(OrderAnalytics.WINDOW_MINUTES - 1).revenue())
+                .isEqualByComparingTo("8000.00");
+    }
+}
@@ -0,0 +1,83 @@
+package com.learning.metrics;
+
+import com.learning.model.User;
+import com.learning.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Unit test for RepositoryMetricsInterceptor
+ * 
+ * The repository call is a mocked MethodInvocation, meters go to a
+ * SimpleMeterRegistry.
+ */
+@ExtendWith(MockitoExtension.class)
+class RepositoryMetricsInterceptorTest {
+
+    @Mock
+    private MethodInvocation invocation;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final RepositoryMetricsInterceptor interceptor = new RepositoryMetricsInterceptor(
+            "UserRepository", () -> registry, Duration.ofSeconds(1));
+
+    @Test
+    @DisplayName("Should time the call and record rows returned")
+    void shouldRecordLatencyAndRows() throws Throwable {
+        // Given
+        given(invocation.getMethod()).willReturn(UserRepository.class.getMethod("findByActiveTrue"));
+        given(invocation.proceed()).willReturn(List.of(new User(), new User(), new User()));
+
+        // When
+        interceptor.invoke(invocation);
+        interceptor.invoke(invocation);
+
+        // Then
+        assertThat(registry.get("repository.invocations")
+                .tags("repository", "UserRepository", "method", "findByActiveTrue", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get("repository.rows").tag("method", "findByActiveTrue")
+                .summary().totalAmount()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should count failures under outcome=error and rethrow")
+    void shouldRecordErrors() throws Throwable {
+        // Given
+        given(invocation.getMethod()).willReturn(UserRepository.class.getMethod("findByEmail", String.class));
+        given(invocation.proceed()).willThrow(new IllegalStateException("DB down"));
+
+        // When & Then
+        assertThatThrownBy(() -> interceptor.invoke(invocation)).hasMessage("DB down");
+        assertThat(registry.get("repository.invocations").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should describe parameter shapes without leaking values")
+    void shouldDescribeParameterShapes() {
+        String shapes = RepositoryMetricsInterceptor.parameterShapes(
+                new Object[] { "secret@test.com", new byte[16], new ArrayList<>(List.of(1L, 2L)), PageRequest.ofSize(500), null });
+
+        assertThat(shapes)
+                .isEqualTo("String(len=15), byte[16], ArrayList(size=2), Pageable(page=0, size=500), null")
+                .doesNotContain("secret");
+        assertThat(RepositoryMetricsInterceptor.rowCount(Optional.empty())).isZero();
+        assertThat(RepositoryMetricsInterceptor.rowCount(42L)).isEqualTo(-1);
+    }
+}
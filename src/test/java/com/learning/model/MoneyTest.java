@@ -0,0 +1,109 @@
+package com.learning.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for Money and the Money-based order totals: results must be
+ * equal (value AND scale) to the BigDecimal arithmetic they replace
+ */
+class MoneyTest {
+
+    @ParameterizedTest(name = "{0} less {1}% = {2}")
+    @CsvSource({
+            "10, 0, 10",
+            "10, 15, 8.5",
+            "10, 33, 6.7",
+            "10.00, 15, 8.50",
+            "99.99, 10, 89.991",
+            "0.01, 1, 0.0099",
+            "100, 100, 0"
+    })
+    @DisplayName("Should discount with BigDecimal's exact-division scale")
+    void shouldMatchBigDecimalDiscount(String total, int percent, String expected) {
+        BigDecimal amount = new BigDecimal(total);
+        BigDecimal viaBigDecimal = amount.subtract(
+                amount.multiply(BigDecimal.valueOf(percent)).divide(BigDecimal.valueOf(100)));
+
+        BigDecimal viaMoney = Money.of(amount).minusPercent(percent).toBigDecimal();
+
+        assertThat(viaMoney).isEqualTo(viaBigDecimal).isEqualTo(new BigDecimal(expected));
+    }
+
+    @Test
+    @DisplayName("Should sum an order like BigDecimal, scale included")
+    void shouldMatchBigDecimalTotal() {
+        Order order = new Order(1L, List.of(
+                new OrderItem(1L, "Keyboard", 2, new BigDecimal("49.99")),
+                new OrderItem(2L, "Mouse", 1, new BigDecimal("19.5")),
+                new OrderItem(3L, "Cable", 3, BigDecimal.TEN)));
+
+        assertThat(order.calculateTotal()).isEqualTo(new BigDecimal("149.48"));
+        assertThat(new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN))).calculateTotal())
+                .isEqualTo(BigDecimal.TEN);
+        assertThat(new Order(1L, List.of()).calculateTotal()).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should fall back to BigDecimal when minor units overflow a long")
+    void shouldFallBackOnOverflow() {
+        BigDecimal huge = new BigDecimal("92233720368547758.07");
+        Order order = new Order(1L, List.of(
+                new OrderItem(1L, "A", 2, huge),
+                new OrderItem(2L, "B", 1, new BigDecimal("1E+3"))));
+
+        assertThat(order.calculateTotal()).isEqualTo(huge.multiply(BigDecimal.valueOf(2)).add(new BigDecimal("1E+3")));
+        assertThat(order.getItems().get(0).getSubtotal()).isEqualTo(new BigDecimal("184467440737095516.14"));
+    }
+
+    @Test
+    @DisplayName("Should pick up a price changed behind the cache")
+    void shouldRefreshCachedPrice() {
+        OrderItem item = new OrderItem(1L, "Item", 3, new BigDecimal("1.50"));
+        assertThat(item.getSubtotal()).isEqualTo(new BigDecimal("4.50"));
+
+        item.setPrice(new BigDecimal("2.25"));
+
+        assertThat(item.getSubtotal()).isEqualTo(new BigDecimal("6.75"));
+    }
+
+    @Test
+    @DisplayName("Should sum mixed scales to the BigDecimal sum, scale included")
+    void shouldSumLikeBigDecimal() {
+        Money.Sum sum = new Money.Sum();
+
+        sum.addLine(new Money(1999, 2), 3);
+        sum.add(5, 0);
+        sum.addLine(new Money(1, 3), 2);
+        sum.subtract(50, 1);
+
+        BigDecimal expected = new BigDecimal("19.99").multiply(BigDecimal.valueOf(3)).add(BigDecimal.valueOf(5))
+                .add(new BigDecimal("0.001").multiply(BigDecimal.valueOf(2))).subtract(new BigDecimal("5.0"));
+        assertThat(sum.toBigDecimal()).isEqualTo(expected).isEqualTo(new BigDecimal("59.972"));
+        assertThat(sum.scale()).isEqualTo(3);
+        assertThatThrownBy(() -> sum.add(Long.MAX_VALUE, 3)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should check overflow and scale")
+    void shouldCheckArithmetic() {
+        assertThatThrownBy(() -> new Money(Long.MAX_VALUE, 2).plus(new Money(1, 2)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> new Money(Long.MAX_VALUE / 2, 0).times(3))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1E+3")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(Money.ofMinor(1999, Currency.getInstance("INR")).toBigDecimal())
+                .isEqualTo(new BigDecimal("19.99"));
+        assertThat(new Money(150, 2).plus(new Money(2, 0))).isEqualTo(new Money(350, 2));
+    }
+}
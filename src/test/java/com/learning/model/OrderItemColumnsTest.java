@@ -0,0 +1,73 @@
+package com.learning.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for OrderItemColumns (round trip, name dictionary, totals)
+ */
+class OrderItemColumnsTest {
+
+    private final List<OrderItem> items = List.of(
+            new OrderItem(1L, "Keyboard", 2, new BigDecimal("49.99")),
+            new OrderItem(2L, "Mouse", 1, new BigDecimal("19.5")),
+            new OrderItem(1L, "Keyboard", 1, new BigDecimal("49.99")),
+            new OrderItem(null, null, 3, BigDecimal.TEN));
+
+    @Test
+    @DisplayName("Should give back the same items through the List view")
+    void shouldRoundTripItems() {
+        OrderItemColumns columns = OrderItemColumns.of(items);
+
+        List<OrderItem> view = columns.asList();
+
+        assertThat(view).hasSize(4);
+        assertThat(view).extracting(OrderItem::getProductId).containsExactly(1L, 2L, 1L, null);
+        assertThat(view).extracting(OrderItem::getProductName).containsExactly("Keyboard", "Mouse", "Keyboard", null);
+        assertThat(view).extracting(OrderItem::getQuantity).containsExactly(2, 1, 1, 3);
+        assertThat(view).extracting(OrderItem::getPrice).containsExactly(
+                new BigDecimal("49.99"), new BigDecimal("19.5"), new BigDecimal("49.99"), BigDecimal.TEN);
+        assertThatThrownBy(() -> view.add(items.get(0))).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should store each distinct product name once")
+    void shouldDeduplicateNames() {
+        OrderItemColumns columns = new OrderItemColumns(0);
+        for (int i = 0; i < 1_000; i++) {
+            columns.add(null, (long) i, "SKU-" + (i % 7), 1, BigDecimal.ONE);
+        }
+
+        assertThat(columns.size()).isEqualTo(1_000);
+        assertThat(columns.distinctNames()).isEqualTo(7);
+        assertThat(columns.getProductName(15)).isEqualTo("SKU-1");
+    }
+
+    @Test
+    @DisplayName("Should total like Order.calculateTotal, scale included")
+    void shouldMatchOrderTotal() {
+        OrderItemColumns columns = OrderItemColumns.of(items);
+
+        assertThat(columns.calculateTotal())
+                .isEqualTo(new Order(1L, items).calculateTotal())
+                .isEqualTo(new BigDecimal("199.47"));
+        assertThat(new OrderItemColumns().calculateTotal()).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should reject prices that do not fit in minor units")
+    void shouldRejectUnrepresentablePrice() {
+        OrderItemColumns columns = new OrderItemColumns();
+
+        assertThatThrownBy(() -> columns.add(null, 1L, "Bulk", 1, new BigDecimal("1E+3")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not representable");
+        assertThatThrownBy(() -> columns.getQuantity(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
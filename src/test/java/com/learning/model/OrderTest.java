@@ -0,0 +1,146 @@
+package com.learning.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for Order's running total (addItem / removeItem / updateItem)
+ * 
+ * After every change the running total must equal the full recompute,
+ * scale included.
+ */
+class OrderTest {
+
+    @Test
+    @DisplayName("Should keep total and item count current through add, update and remove")
+    void shouldMaintainRunningTotal() {
+        Order order = new Order(1L, List.of(new OrderItem(1L, "Keyboard", 2, new BigDecimal("49.99"))));
+        OrderItem mouse = new OrderItem(2L, "Mouse", 1, new BigDecimal("19.5"));
+        OrderItem cable = new OrderItem(3L, "Cable", 3, BigDecimal.TEN);
+
+        order.addItem(mouse);
+        order.addItem(cable);
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("149.48"));
+        assertThat(order.getItemCount()).isEqualTo(6);
+
+        order.updateItem(mouse, 2, new BigDecimal("18.25"));
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("166.48"));
+        assertThat(order.getItemCount()).isEqualTo(7);
+
+        assertThat(order.removeItem(order.getItems().get(0))).isTrue();
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("66.50"));
+        assertThat(order.getTotalAmount()).isEqualTo(order.calculateTotal());
+    }
+
+    @Test
+    @DisplayName("Should drop back to the scale of the remaining items")
+    void shouldFollowScaleOfRemainingItems() {
+        OrderItem precise = new OrderItem(1L, "Fuel", 1, new BigDecimal("1.999"));
+        Order order = new Order(1L, new ArrayList<>(List.of(new OrderItem(2L, "Item", 1, BigDecimal.TEN))));
+        order.addItem(precise);
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("11.999"));
+
+        order.removeItem(precise);
+
+        // plain BigDecimal sum of what is left: 10 (scale 0), not 10.000
+        assertThat(order.getTotalAmount()).isEqualTo(BigDecimal.TEN);
+        order.removeItem(order.getItems().get(0));
+        assertThat(order.getTotalAmount()).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should fall back to full recompute for prices Money cannot hold")
+    void shouldFallBackForUnrepresentablePrices() {
+        Order order = new Order(1L, new ArrayList<>());
+        OrderItem odd = new OrderItem(1L, "Bulk", 1, new BigDecimal("1E+3"));
+
+        order.addItem(new OrderItem(2L, "Item", 2, new BigDecimal("0.50")));
+        order.addItem(odd);
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("1001.00"));
+
+        order.removeItem(odd);
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("1.00"));
+        assertThat(order.recalculateTotal()).isEqualTo(new BigDecimal("1.00"));
+    }
+
+    @Test
+    @DisplayName("Should build the running total lazily for orders filled by setItems")
+    void shouldBuildRunningTotalLazily() {
+        Order order = new Order();
+        order.setItems(List.of(new OrderItem(1L, "Item", 3, new BigDecimal("2.50"))));
+
+        order.addItem(new OrderItem(2L, "Other", 1, BigDecimal.ONE));
+
+        assertThat(order.getTotalAmount()).isEqualTo(new BigDecimal("8.50"));
+        assertThat(order.getItemCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should reject updates to items of another order")
+    void shouldRejectForeignItems() {
+        Order order = new Order(1L, new ArrayList<>());
+        OrderItem foreign = new OrderItem(1L, "Item", 1, BigDecimal.ONE);
+
+        assertThat(order.removeItem(foreign)).isFalse();
+        assertThatThrownBy(() -> order.updateItem(foreign, 2, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not part of order");
+    }
+
+    @Test
+    @DisplayName("Should remove lines from anywhere by swapping in the last line")
+    void shouldSwapRemove() {
+        List<OrderItem> lines = new ArrayList<>();
+        for (int n = 0; n < 1_000; n++) {
+            lines.add(new OrderItem((long) n, "Product " + n, 1, BigDecimal.ONE));
+        }
+        Order order = new Order(1L, lines);
+
+        for (int n = 0; n < 1_000; n += 2) {
+            assertThat(order.removeItem(lines.get(n))).isTrue();
+        }
+
+        assertThat(order.getItems()).hasSize(500).containsExactlyInAnyOrderElementsOf(
+                lines.stream().filter(item -> item.getProductId() % 2 == 1).toList());
+        assertThat(order.getTotalAmount()).isEqualTo(BigDecimal.valueOf(500));
+        assertThat(order.removeItem(lines.get(0))).as("already removed").isFalse();
+    }
+
+    @Test
+    @DisplayName("Should still find lines added behind addItem")
+    void shouldReindexAfterDirectListChange() {
+        Order order = new Order(1L, new ArrayList<>());
+        OrderItem first = new OrderItem(1L, "Item", 1, BigDecimal.ONE);
+        order.addItem(first);
+        OrderItem direct = new OrderItem(2L, "Direct", 1, BigDecimal.TEN);
+        order.getItems().add(0, direct); // shifts first to index 1
+
+        assertThat(order.removeItem(first)).isTrue();
+        assertThat(order.getItems()).containsExactly(direct);
+        assertThat(order.recalculateTotal()).isEqualTo(BigDecimal.TEN);
+    }
+
+    @Test
+    @DisplayName("Should sum large orders in parallel to exactly the sequential total")
+    void shouldMatchSequentialTotalInParallel() {
+        List<OrderItem> items = new ArrayList<>();
+        for (int n = 0; n < 20_000; n++) {
+            BigDecimal price = n == 12_345 ? new BigDecimal("0.125") : BigDecimal.valueOf(199 + n % 1_000, n % 3);
+            items.add(new OrderItem((long) n, "Product " + n, 1 + n % 5, price));
+        }
+        Order order = new Order(1L, items);
+        BigDecimal sequential = order.calculateTotal();
+
+        assertThat(order.calculateTotal(1)).isEqualTo(sequential);
+
+        order.addItem(new OrderItem(20_000L, "Bulk", 1, new BigDecimal("1E+3")));
+        assertThat(order.calculateTotal(1)).isEqualTo(sequential.add(new BigDecimal("1E+3")));
+    }
+}
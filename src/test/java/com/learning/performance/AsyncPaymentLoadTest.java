@@ -0,0 +1,170 @@
+package com.learning.performance;
+
+import com.learning.external.EmailService;
+import com.learning.external.PaymentGateway;
+import com.learning.external.PaymentGateway.PaymentResult;
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItem;
+import com.learning.repository.InMemoryOrderEventLog;
+import com.learning.repository.InMemoryOrderRepository;
+import com.learning.repository.UserRepository;
+import com.learning.pricing.PricingEngine;
+import com.learning.service.OrderPipelineExecutors;
+import com.learning.service.OrderService;
+import com.learning.service.OrderStateMachine;
+import com.learning.service.PaymentIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Load test: blocking processPayment vs processPaymentAsync.
+ * 
+ * Same burst of ORDERS payments against a gateway that takes GATEWAY_MILLIS
+ * and a mail server that takes EMAIL_MILLIS:
+ * - BLOCKING: one request thread per in-flight payment (REQUEST_THREADS),
+ * each held for load + charge + confirm + email.
+ * - ASYNC: one caller thread submits everything; the pipeline pools do the
+ * work and the future completes before the email is sent.
+ * Prints peak extra threads, p50/p99 latency (submit -> confirmed) and wall time.
+ */
+@Tag("benchmark")
+public class AsyncPaymentLoadTest {
+
+    private static final int ORDERS = 2_000;
+    private static final int REQUEST_THREADS = 200;
+    private static final long GATEWAY_MILLIS = 20;
+    private static final long EMAIL_MILLIS = 30;
+
+    @Test
+    public void runPaymentLoadTest() throws Exception {
+        System.out.println("\n🔥 STARTING PAYMENT PIPELINE LOAD TEST 🔥");
+
+        report("BLOCKING", runBlocking());
+        report("ASYNC", runAsync());
+    }
+
+    private record Result(long[] latenciesNanos, long wallMillis, int peakExtraThreads) {
+    }
+
+    private static Result runBlocking() throws Exception {
+        Fixture fixture = fixture(null);
+        OrderService orderService = fixture.orderService();
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baseline = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        long[] latencies = new long[ORDERS];
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            int n = i;
+            long submitted = System.nanoTime();
+            futures.add(requestThreads.submit(() -> {
+                orderService.processPayment((long) n + 1, "tok_" + n);
+                latencies[n] = System.nanoTime() - submitted;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long wall = (System.nanoTime() - start) / 1_000_000;
+        int peak = threads.getPeakThreadCount() - baseline;
+        requestThreads.shutdown();
+
+        assertThat(fixture.repository().findByStatus(OrderStatus.CONFIRMED)).hasSize(ORDERS);
+        return new Result(latencies, wall, peak);
+    }
+
+    private static Result runAsync() {
+        try (OrderPipelineExecutors executors = OrderPipelineExecutors.fixed(8, 100, 4)) {
+            Fixture fixture = fixture(executors);
+            OrderService orderService = fixture.orderService();
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            int baseline = threads.getThreadCount();
+            threads.resetPeakThreadCount();
+
+            long[] latencies = new long[ORDERS];
+            long start = System.nanoTime();
+            List<CompletableFuture<Order>> futures = new ArrayList<>(ORDERS);
+            for (int i = 0; i < ORDERS; i++) {
+                int n = i;
+                long submitted = System.nanoTime();
+                futures.add(orderService.processPaymentAsync((long) n + 1, "tok_" + n)
+                        .whenComplete((order, error) -> latencies[n] = System.nanoTime() - submitted));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            long wall = (System.nanoTime() - start) / 1_000_000;
+            int peak = threads.getPeakThreadCount() - baseline;
+
+            assertThat(fixture.repository().findByStatus(OrderStatus.CONFIRMED)).hasSize(ORDERS);
+            return new Result(latencies, wall, peak);
+        }
+    }
+
+    private record Fixture(OrderService orderService, InMemoryOrderRepository repository) {
+    }
+
+    /**
+     * OrderService over an in-memory store preloaded with ORDERS pending
+     * orders, and slow stubs for the external services
+     */
+    private static Fixture fixture(OrderPipelineExecutors executors) {
+        InMemoryOrderRepository repository = new InMemoryOrderRepository();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setTotalAmount(BigDecimal.TEN);
+            order.setContactEmail("load@test.com");
+            repository.save(order);
+        }
+
+        PaymentGateway gateway = mock(PaymentGateway.class, withSettings().stubOnly());
+        given(gateway.processPayment(any(), any(), any())).willAnswer(invocation -> {
+            Thread.sleep(GATEWAY_MILLIS);
+            return new PaymentResult(true, "txn_" + invocation.getArgument(2), "Success");
+        });
+        EmailService emailService = mock(EmailService.class, withSettings().stubOnly());
+        given(emailService.sendOrderConfirmation(any(), any(), any())).willAnswer(invocation -> {
+            Thread.sleep(EMAIL_MILLIS);
+            return true;
+        });
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+
+        OrderService orderService = new OrderService(repository, userRepository, gateway, emailService,
+                new InMemoryOrderEventLog(), new OrderStateMachine(new SimpleMeterRegistry()), executors,
+                new PaymentIdempotencyStore(Duration.ofHours(1)), new PricingEngine());
+        return new Fixture(orderService, repository);
+    }
+
+    private static void report(String mode, Result result) {
+        long[] sorted = result.latenciesNanos().clone();
+        Arrays.sort(sorted);
+        System.out.printf("📊 %-8s threads +%-4d p50 %5d ms  p99 %5d ms  wall %6d ms%n",
+                mode, result.peakExtraThreads(),
+                sorted[sorted.length / 2] / 1_000_000,
+                sorted[(int) (sorted.length * 0.99)] / 1_000_000,
+                result.wallMillis());
+    }
+}
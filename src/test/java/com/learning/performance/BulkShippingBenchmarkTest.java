@@ -0,0 +1,220 @@
+package com.learning.performance;
+
+import com.learning.external.EmailService;
+import com.learning.external.PaymentGateway;
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItem;
+import com.learning.model.OrderItemColumns;
+import com.learning.repository.InMemoryOrderEventLog;
+import com.learning.repository.InMemoryOrderRepository;
+import com.learning.repository.OrderFilter;
+import com.learning.repository.OrderRepository;
+import com.learning.repository.UserRepository;
+import com.learning.pricing.PricingEngine;
+import com.learning.service.OrderPipelineExecutors;
+import com.learning.service.OrderService;
+import com.learning.service.OrderStateMachine;
+import com.learning.service.PaymentIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Shipping ORDERS confirmed orders: shipOrder per order vs one shipOrders
+ * batch
+ * 
+ * Every repository call costs ROUND_TRIP_MICROS and every EmailService call
+ * EMAIL_MILLIS (a bulk send costs the same as a single one), so the gap is
+ * the round trips saved: 2 repository calls + 1 email per order vs
+ * 2 repository calls + 1 email per batch. Prints orders/s and call counts.
+ */
+@Tag("benchmark")
+public class BulkShippingBenchmarkTest {
+
+    private static final int ORDERS = 1_000;
+    private static final long ROUND_TRIP_MICROS = 500;
+    private static final long EMAIL_MILLIS = 2;
+
+    @Test
+    public void runBulkShippingBenchmark() {
+        System.out.println("\n🔥 STARTING BULK SHIPPING BENCHMARK 🔥");
+
+        Fixture single = fixture();
+        long start = System.nanoTime();
+        for (long orderId = 1; orderId <= ORDERS; orderId++) {
+            single.orderService().shipOrder(orderId, "TRACK-" + orderId);
+        }
+        report("PER ORDER", System.nanoTime() - start, single);
+
+        Fixture batch = fixture();
+        Map<Long, String> trackingNumbers = new LinkedHashMap<>();
+        for (long orderId = 1; orderId <= ORDERS; orderId++) {
+            trackingNumbers.put(orderId, "TRACK-" + orderId);
+        }
+        start = System.nanoTime();
+        List<OrderService.ShipmentOutcome> outcomes = batch.orderService().shipOrders(trackingNumbers);
+        report("BATCH", System.nanoTime() - start, batch);
+
+        assertThat(outcomes).allMatch(OrderService.ShipmentOutcome::success);
+        assertThat(single.repository().findByStatus(OrderStatus.SHIPPED)).hasSize(ORDERS);
+        assertThat(batch.repository().findByStatus(OrderStatus.SHIPPED)).hasSize(ORDERS);
+    }
+
+    private static void report(String mode, long nanos, Fixture fixture) {
+        System.out.printf("📊 %-9s %,7.0f ms  %,9.0f orders/s  repository calls %,5d  email calls %,5d%n",
+                mode, nanos / 1e6, ORDERS / (nanos / 1e9), fixture.repository().calls().get(),
+                fixture.emailCalls().get());
+    }
+
+    private record Fixture(OrderService orderService, RoundTripOrderRepository repository, AtomicInteger emailCalls) {
+    }
+
+    /**
+     * OrderService over ORDERS confirmed orders, with slow repository and
+     * email stubs
+     */
+    private static Fixture fixture() {
+        InMemoryOrderRepository store = new InMemoryOrderRepository();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(1L, List.of(new OrderItem(1L, "Item", 1, BigDecimal.TEN)));
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setContactEmail("ship@test.com");
+            store.save(order);
+        }
+        RoundTripOrderRepository repository = new RoundTripOrderRepository(store);
+
+        AtomicInteger emailCalls = new AtomicInteger();
+        EmailService emailService = mock(EmailService.class, withSettings().stubOnly());
+        given(emailService.sendShippingNotification(any(), any(), any())).willAnswer(invocation -> {
+            emailCalls.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(EMAIL_MILLIS));
+            return true;
+        });
+        given(emailService.sendShippingNotifications(any())).willAnswer(invocation -> {
+            emailCalls.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(EMAIL_MILLIS));
+            return invocation.<List<?>>getArgument(0).stream().map(notification -> true).toList();
+        });
+
+        OrderService orderService = new OrderService(repository, mock(UserRepository.class),
+                mock(PaymentGateway.class), emailService, new InMemoryOrderEventLog(),
+                new OrderStateMachine(new SimpleMeterRegistry()), OrderPipelineExecutors.direct(),
+                new PaymentIdempotencyStore(Duration.ofHours(1)), new PricingEngine());
+        return new Fixture(orderService, repository, emailCalls);
+    }
+
+    /**
+     * In-memory store where every call costs one simulated database round trip
+     */
+    private static final class RoundTripOrderRepository implements OrderRepository {
+
+        private final OrderRepository delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        RoundTripOrderRepository(OrderRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        AtomicInteger calls() {
+            return calls;
+        }
+
+        private void roundTrip() {
+            calls.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ROUND_TRIP_MICROS));
+        }
+
+        @Override
+        public Order save(Order order) {
+            roundTrip();
+            return delegate.save(order);
+        }
+
+        @Override
+        public Optional<Order> findById(Long id) {
+            roundTrip();
+            return delegate.findById(id);
+        }
+
+        @Override
+        public List<Order> findAllById(Iterable<Long> ids) {
+            roundTrip();
+            return delegate.findAllById(ids);
+        }
+
+        @Override
+        public List<Order> findByUserId(Long userId) {
+            roundTrip();
+            return delegate.findByUserId(userId);
+        }
+
+        @Override
+        public List<Order> findPageByUserId(Long userId, OrderFilter filter, Long beforeId, int limit) {
+            roundTrip();
+            return delegate.findPageByUserId(userId, filter, beforeId, limit);
+        }
+
+        @Override
+        public Optional<OrderItemColumns> findItemColumns(Long orderId) {
+            roundTrip();
+            return delegate.findItemColumns(orderId);
+        }
+
+        @Override
+        public List<Order> findByStatus(OrderStatus status) {
+            roundTrip();
+            return delegate.findByStatus(status);
+        }
+
+        @Override
+        public long countByStatus(OrderStatus status) {
+            roundTrip();
+            return delegate.countByStatus(status);
+        }
+
+        @Override
+        public void deleteById(Long id) {
+            roundTrip();
+            delegate.deleteById(id);
+        }
+
+        @Override
+        public Optional<Order> transitionStatus(Long orderId, OrderStatus expectedStatus, OrderStatus newStatus,
+                Consumer<Order> mutator) {
+            roundTrip();
+            return delegate.transitionStatus(orderId, expectedStatus, newStatus, mutator);
+        }
+
+        @Override
+        public List<Order> transitionStatusAll(Collection<Long> orderIds, OrderStatus expectedStatus,
+                OrderStatus newStatus, Consumer<Order> mutator) {
+            roundTrip();
+            return delegate.transitionStatusAll(orderIds, expectedStatus, newStatus, mutator);
+        }
+
+        @Override
+        public long count() {
+            roundTrip();
+            return delegate.count();
+        }
+    }
+}
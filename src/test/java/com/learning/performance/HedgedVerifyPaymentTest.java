@@ -0,0 +1,164 @@
+package com.learning.performance;
+
+import com.learning.external.HedgingPaymentGateway;
+import com.learning.external.PaymentGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hedged vs plain verifyPayment against a gateway with a long tail:
+ * FAST_MIN..FAST_MAX ms for most calls, SLOW_MILLIS for SLOW_RATE of them.
+ * 
+ * Plain p99 is the slow mode; hedged p99 should be about
+ * "p95 delay + one fast call", with hedges within the 5% budget.
+ */
+@Tag("benchmark")
+public class HedgedVerifyPaymentTest {
+
+    private static final int CALLS = 2_000;
+    private static final int CALLER_THREADS = 16;
+    private static final int FAST_MIN = 2;
+    private static final int FAST_MAX = 8;
+    private static final int SLOW_MILLIS = 150;
+    private static final double SLOW_RATE = 0.03;
+    private static final double BUDGET = 0.05;
+
+    /**
+     * verifyPayment with a bimodal latency distribution
+     */
+    static class TailLatencyGateway implements PaymentGateway {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public boolean verifyPayment(String transactionId) {
+            calls.incrementAndGet();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long millis = random.nextDouble() < SLOW_RATE ? SLOW_MILLIS : random.nextInt(FAST_MIN, FAST_MAX + 1);
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("cancelled");
+            }
+            return true;
+        }
+
+        @Override
+        public PaymentResult processPayment(BigDecimal amount, String currency, String cardToken) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void runHedgedVerifyTest() throws Exception {
+        System.out.println("\n🔥 STARTING HEDGED VERIFY PAYMENT TEST 🔥");
+
+        TailLatencyGateway plainStub = new TailLatencyGateway();
+        long[] plain = run(plainStub);
+
+        TailLatencyGateway hedgedStub = new TailLatencyGateway();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        long[] hedged;
+        try (HedgingPaymentGateway gateway = new HedgingPaymentGateway(hedgedStub, CALLER_THREADS * 2,
+                0.95, BUDGET, Duration.ofMillis(1), registry)) {
+            hedged = run(gateway);
+            System.out.printf("📊 hedge delay now %d ms%n", gateway.hedgeDelay().toMillis());
+        }
+
+        double sent = registry.get("payment.verify.hedges").tag("outcome", "sent").counter().count();
+        double won = registry.get("payment.verify.hedges").tag("outcome", "won").counter().count();
+        report("PLAIN", plain, plainStub.calls.get());
+        report("HEDGED", hedged, hedgedStub.calls.get());
+        System.out.printf("📊 hedges sent %.0f (%.1f%%), won %.0f%n", sent, 100 * sent / CALLS, won);
+
+        assertThat(p99(hedged)).isLessThan(p99(plain) / 2);
+        assertThat(sent).isLessThanOrEqualTo(CALLS * BUDGET + 10);
+    }
+
+    @Test
+    public void shouldCancelTheLosingRequest() throws Exception {
+        CountDownLatch hung = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+        PaymentGateway stub = new TailLatencyGateway() {
+            @Override
+            public boolean verifyPayment(String transactionId) {
+                // calls 1..20 warm up at ~1ms, call 21 hangs, call 22 (the hedge) is fast
+                int n = calls.incrementAndGet();
+                try {
+                    Thread.sleep(n == 21 ? 10_000 : 1);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    hung.countDown();
+                    throw new IllegalStateException("cancelled");
+                }
+                return true;
+            }
+        };
+
+        try (HedgingPaymentGateway gateway = new HedgingPaymentGateway(stub, 4, 0.95, BUDGET,
+                Duration.ofMillis(1), new SimpleMeterRegistry())) {
+            for (int i = 0; i < 20; i++) {
+                gateway.verifyPayment("txn_" + i);
+            }
+
+            long start = System.nanoTime();
+            assertThat(gateway.verifyPayment("txn_slow")).isTrue();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+            hung.await();
+            assertThat(interrupted.get()).isEqualTo(1);
+            assertThat(calls.get()).isEqualTo(22);
+        }
+    }
+
+    private static long[] run(PaymentGateway gateway) throws Exception {
+        long[] latencies = new long[CALLS];
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_THREADS);
+        List<Future<?>> futures = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            int n = i;
+            futures.add(callers.submit(() -> {
+                long start = System.nanoTime();
+                gateway.verifyPayment("txn_" + n);
+                latencies[n] = System.nanoTime() - start;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        callers.shutdown();
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long p99(long[] sorted) {
+        return sorted[(int) (sorted.length * 0.99)];
+    }
+
+    private static void report(String mode, long[] sorted, int gatewayCalls) {
+        System.out.printf("📊 %-7s p50 %4d ms  p99 %4d ms  max %4d ms  gateway calls %d%n",
+                mode, sorted[sorted.length / 2] / 1_000_000, p99(sorted) / 1_000_000,
+                sorted[sorted.length - 1] / 1_000_000, gatewayCalls);
+    }
+}
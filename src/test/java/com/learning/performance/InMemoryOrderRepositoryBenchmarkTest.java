@@ -0,0 +1,93 @@
+package com.learning.performance;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.repository.InMemoryOrderRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded throughput benchmark for InMemoryOrderRepository.
+ * 
+ * Mixed workload per operation: 20% save (new order or status transition),
+ * 40% findById, 20% findByUserId, 20% findByStatus(DELIVERED) - a small
+ * status set, which must stay cheap however many SHIPPED orders exist (O(result)).
+ * Runs 1 -> 32 threads and prints ops/s for each.
+ */
+@Tag("benchmark")
+public class InMemoryOrderRepositoryBenchmarkTest {
+
+    private static final int PRELOADED_ORDERS = 100_000;
+    private static final int USERS = 10_000;
+    private static final long RUN_MILLIS = 1_000;
+
+    @Test
+    public void runConcurrencyBenchmark() throws InterruptedException {
+        System.out.println("\n🔥 STARTING IN-MEMORY ORDER REPOSITORY BENCHMARK 🔥");
+
+        for (int threads : new int[] { 1, 2, 4, 8, 16, 32 }) {
+            InMemoryOrderRepository repository = new InMemoryOrderRepository();
+            for (int i = 0; i < PRELOADED_ORDERS; i++) {
+                repository.save(new Order((long) (i % USERS), List.of()));
+            }
+            long ops = run(repository, threads);
+            System.out.printf("📊 %2d threads: %,12d ops/s%n", threads, ops * 1000 / RUN_MILLIS);
+        }
+    }
+
+    private static long run(InMemoryOrderRepository repository, int threads) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                awaitQuietly(start);
+                while (System.currentTimeMillis() < deadline) {
+                    for (int n = 0; n < 100; n++) {
+                        int dice = random.nextInt(10);
+                        long id = 1 + random.nextInt(PRELOADED_ORDERS);
+                        if (dice < 2) {
+                            repository.findById(id).ifPresent(order -> {
+                                order.setStatus(order.getStatus() == OrderStatus.SHIPPED
+                                        ? OrderStatus.CONFIRMED
+                                        : OrderStatus.SHIPPED);
+                                repository.save(order);
+                            });
+                        } else if (dice < 6) {
+                            repository.findById(id);
+                        } else if (dice < 8) {
+                            repository.findByUserId((long) random.nextInt(USERS));
+                        } else {
+                            repository.findByStatus(OrderStatus.DELIVERED);
+                        }
+                    }
+                    ops.add(100);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
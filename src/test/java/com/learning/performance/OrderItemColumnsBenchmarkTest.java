@@ -0,0 +1,96 @@
+package com.learning.performance;
+
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import com.learning.model.OrderItemColumns;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk order items: List<OrderItem> vs OrderItemColumns
+ * 
+ * ITEMS lines over SKUS products, names parsed per line (a new String each,
+ * like JSON input). Prints retained heap per line (used heap after GC) and
+ * the time to total the order.
+ */
+@Tag("benchmark")
+public class OrderItemColumnsBenchmarkTest {
+
+    private static final int ITEMS = 200_000;
+    private static final int SKUS = 500;
+    private static final int TOTAL_ROUNDS = 200;
+
+    @Test
+    public void runOrderItemColumnsBenchmark() {
+        System.out.println("\n🔥 STARTING ORDER ITEM COLUMNS BENCHMARK 🔥");
+
+        long listBytes = retained(OrderItemColumnsBenchmarkTest::newItems);
+        long columnBytes = retained(() -> {
+            OrderItemColumns columns = new OrderItemColumns(ITEMS);
+            for (int n = 0; n < ITEMS; n++) {
+                columns.add(null, (long) (n % SKUS), new String("Product " + (n % SKUS)), 1 + n % 5,
+                        BigDecimal.valueOf(199 + n % 1_000, 2));
+            }
+            return columns;
+        });
+        System.out.printf("📊 Heap per line: List<OrderItem> %d B  |  columns %d B%n",
+                listBytes / ITEMS, columnBytes / ITEMS);
+
+        Order order = new Order(1L, newItems());
+        OrderItemColumns columns = OrderItemColumns.of(order.getItems());
+        assertThat(columns.calculateTotal()).isEqualTo(order.calculateTotal());
+
+        double listNanos = timePerCall(order::calculateTotal);
+        double columnNanos = timePerCall(columns::calculateTotal);
+        System.out.printf("📊 Total of %,d lines: List<OrderItem> %,.0f ns  |  columns %,.0f ns%n",
+                ITEMS, listNanos, columnNanos);
+
+        assertThat(columnBytes).isLessThan(listBytes / 2);
+    }
+
+    private static List<OrderItem> newItems() {
+        List<OrderItem> items = new ArrayList<>(ITEMS);
+        for (int n = 0; n < ITEMS; n++) {
+            items.add(new OrderItem((long) (n % SKUS), new String("Product " + (n % SKUS)), 1 + n % 5,
+                    BigDecimal.valueOf(199 + n % 1_000, 2)));
+        }
+        return items;
+    }
+
+    // Used heap after GC with the built structure alive, minus without it
+    private static long retained(Supplier<Object> build) {
+        Runtime runtime = Runtime.getRuntime();
+        long before = usedAfterGc(runtime);
+        Object built = build.get();
+        long after = usedAfterGc(runtime);
+        assertThat(built).isNotNull();
+        return after - before;
+    }
+
+    private static long usedAfterGc(Runtime runtime) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double timePerCall(Supplier<BigDecimal> total) {
+        BigDecimal sink = null;
+        for (int i = 0; i < TOTAL_ROUNDS; i++) {
+            sink = total.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TOTAL_ROUNDS; i++) {
+            sink = total.get();
+        }
+        assertThat(sink).isNotNull();
+        return (double) (System.nanoTime() - start) / TOTAL_ROUNDS;
+    }
+}
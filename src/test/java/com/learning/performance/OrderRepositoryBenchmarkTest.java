@@ -0,0 +1,74 @@
+package com.learning.performance;
+
+import com.learning.external.EmailService;
+import com.learning.integration.AbstractIntegrationTest;
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import com.learning.repository.JpaOrderRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput benchmark for JpaOrderRepository on Testcontainers MySQL.
+ * 
+ * Each save is its own transaction (like a checkout request): 1 INSERT for
+ * the order + 1 batched INSERT for its items. Reads go through the entity
+ * graph (orders + items in one SELECT per user).
+ */
+@Tag("benchmark")
+public class OrderRepositoryBenchmarkTest extends AbstractIntegrationTest {
+
+    @MockBean
+    private EmailService emailService;
+
+    @Autowired
+    private JpaOrderRepository orderRepository;
+
+    private static final int ORDER_COUNT = 2_000;
+    private static final int ITEMS_PER_ORDER = 10;
+    private static final int USERS = 100;
+
+    @Test
+    public void runOrderBenchmark() {
+        System.out.println("\n🔥 STARTING ORDER REPOSITORY BENCHMARK 🔥");
+        long baseline = orderRepository.count();
+
+        // Warm-up (JIT, connection pool, sequence pool)
+        IntStream.range(0, 100).forEach(i -> orderRepository.save(newOrder(i)));
+
+        long start = System.nanoTime();
+        IntStream.range(0, ORDER_COUNT).forEach(i -> orderRepository.save(newOrder(i)));
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        int read = 0;
+        for (long userId = 0; userId < USERS; userId++) {
+            read += orderRepository.findByUserId(userId).size();
+        }
+        double readSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("📊 Created %d orders (%d items each) in %.2fs -> %.0f orders/s%n",
+                ORDER_COUNT, ITEMS_PER_ORDER, writeSeconds, ORDER_COUNT / writeSeconds);
+        System.out.printf("📊 Read %d orders with items in %.2fs -> %.0f orders/s%n",
+                read, readSeconds, read / readSeconds);
+
+        assertEquals(baseline + ORDER_COUNT + 100, orderRepository.count());
+    }
+
+    private static Order newOrder(int i) {
+        List<OrderItem> items = IntStream.range(0, ITEMS_PER_ORDER)
+                .mapToObj(n -> new OrderItem((long) n, "Product " + n, 1 + n, new BigDecimal("19.99")))
+                .toList();
+        Order order = new Order((long) (i % USERS), items);
+        order.setShippingAddress("Benchmark Street " + i);
+        return order;
+    }
+}
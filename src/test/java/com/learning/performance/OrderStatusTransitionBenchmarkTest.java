@@ -0,0 +1,122 @@
+package com.learning.performance;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.repository.InMemoryOrderRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention benchmark for status transitions.
+ * 
+ * All threads flip a small set of HOT orders PENDING <-> CONFIRMED:
+ * - CAS: transitionStatus (compare-and-set per order, no global lock)
+ * - LOCKED: one pessimistic lock around read-check-save
+ * Prints successful transitions/s and lost races/s for 1 -> 32 threads, and
+ * checks that no transition was applied twice (successes == version bumps).
+ */
+@Tag("benchmark")
+public class OrderStatusTransitionBenchmarkTest {
+
+    private static final int HOT_ORDERS = 64;
+    private static final long RUN_MILLIS = 1_000;
+
+    @Test
+    public void runContentionBenchmark() throws InterruptedException {
+        System.out.println("\n🔥 STARTING ORDER STATUS TRANSITION BENCHMARK 🔥");
+
+        for (int threads : new int[] { 1, 2, 4, 8, 16, 32 }) {
+            for (boolean locked : new boolean[] { false, true }) {
+                InMemoryOrderRepository repository = new InMemoryOrderRepository();
+                for (int i = 0; i < HOT_ORDERS; i++) {
+                    repository.save(new Order((long) i, List.of()));
+                }
+                LongAdder wins = new LongAdder();
+                LongAdder losses = new LongAdder();
+                run(repository, threads, locked, wins, losses);
+
+                long versions = 0;
+                for (long id = 1; id <= HOT_ORDERS; id++) {
+                    Long version = repository.findById(id).orElseThrow().getVersion();
+                    versions += version == null ? 0 : version;
+                }
+                assertThat(versions).isEqualTo(wins.sum());
+
+                System.out.printf("📊 %2d threads %-6s: %,12d transitions/s %,12d lost races/s%n",
+                        threads, locked ? "LOCKED" : "CAS",
+                        wins.sum() * 1000 / RUN_MILLIS, losses.sum() * 1000 / RUN_MILLIS);
+            }
+        }
+    }
+
+    private static void run(InMemoryOrderRepository repository, int threads, boolean locked,
+            LongAdder wins, LongAdder losses) throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                awaitQuietly(start);
+                while (System.currentTimeMillis() < deadline) {
+                    for (int n = 0; n < 100; n++) {
+                        long id = 1 + random.nextInt(HOT_ORDERS);
+                        // Every caller decides from what it READ, like OrderService
+                        OrderStatus seen = repository.findById(id).orElseThrow().getStatus();
+                        OrderStatus next = seen == OrderStatus.PENDING ? OrderStatus.CONFIRMED : OrderStatus.PENDING;
+                        boolean won = locked
+                                ? lockedTransition(repository, lock, id, seen, next)
+                                : repository.transitionStatus(id, seen, next, order -> {
+                                }).isPresent();
+                        (won ? wins : losses).increment();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * Baseline: SELECT ... FOR UPDATE style - serialize every read-check-save
+     */
+    private static boolean lockedTransition(InMemoryOrderRepository repository, ReentrantLock lock,
+            long id, OrderStatus expected, OrderStatus next) {
+        lock.lock();
+        try {
+            Order order = repository.findById(id).orElseThrow();
+            if (order.getStatus() != expected) {
+                return false;
+            }
+            order.setStatus(next);
+            order.setVersion(order.getVersion() == null ? 1L : order.getVersion() + 1);
+            repository.save(order);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.learning.performance;
+
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order totals: BigDecimal stream reduce (the old calculateTotal) vs the
+ * Money-based calculateTotal, for 1, 10, 1,000 and 100,000 items.
+ * 
+ * Prints ns per call and bytes allocated per call (per-thread allocation
+ * counter). The Money path allocates only its result, whatever the size.
+ */
+@Tag("benchmark")
+public class OrderTotalBenchmarkTest {
+
+    private static final int[] SIZES = {1, 10, 1_000, 100_000};
+    private static final long ITEMS_PER_ROUND = 5_000_000;
+
+    @Test
+    public void runOrderTotalBenchmark() {
+        System.out.println("\n🔥 STARTING ORDER TOTAL BENCHMARK 🔥");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int size : SIZES) {
+            Order order = newOrder(size);
+            BigDecimal expected = bigDecimalTotal(order.getItems());
+            assertThat(order.calculateTotal()).isEqualTo(expected);
+
+            int calls = (int) Math.max(10, ITEMS_PER_ROUND / size);
+            Result old = measure(threads, calls, () -> bigDecimalTotal(order.getItems()));
+            Result money = measure(threads, calls, order::calculateTotal);
+
+            System.out.printf("📊 %,7d items  BigDecimal %,12.0f ns %,12.0f B  |  Money %,10.0f ns %,6.0f B%n",
+                    size, old.nanosPerCall(), old.bytesPerCall(), money.nanosPerCall(), money.bytesPerCall());
+            assertThat(money.bytesPerCall()).isLessThan(256);
+        }
+    }
+
+    private record Result(double nanosPerCall, double bytesPerCall) {
+    }
+
+    private static Result measure(com.sun.management.ThreadMXBean threads, int calls, Supplier<BigDecimal> total) {
+        long threadId = Thread.currentThread().getId();
+        BigDecimal sink = BigDecimal.ZERO;
+        // Warm-up
+        for (int i = 0; i < calls; i++) {
+            sink = total.get();
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            sink = total.get();
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(threadId) - bytes;
+        assertThat(sink).isNotNull();
+        return new Result((double) nanos / calls, (double) bytes / calls);
+    }
+
+    private static BigDecimal bigDecimalTotal(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Order newOrder(int size) {
+        return new Order(1L, IntStream.range(0, size)
+                .mapToObj(n -> new OrderItem((long) n, "Product " + n, 1 + n % 5,
+                        BigDecimal.valueOf(199 + n % 1_000, 2)))
+                .toList());
+    }
+}
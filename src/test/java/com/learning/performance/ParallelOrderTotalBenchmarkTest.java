@@ -0,0 +1,94 @@
+package com.learning.performance;
+
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel (fork-join) vs sequential Order.calculateTotal()
+ * 
+ * 1. Crossover: both paths for 1,000 .. 1,000,000 items; prints the smallest
+ * size where fork-join wins, to compare with
+ * Order.DEFAULT_PARALLEL_TOTAL_THRESHOLD.
+ * 2. Scaling: 1,000,000 items in pools of 1, 2, 4 .. N workers (the task
+ * runs in the pool it is called from), speed-up relative to 1 worker.
+ * 
+ * Timings depend on the machine; only equality with the sequential total
+ * is asserted.
+ */
+@Tag("benchmark")
+public class ParallelOrderTotalBenchmarkTest {
+
+    private static final int[] SIZES = {1_000, 10_000, 50_000, 100_000, 1_000_000};
+    private static final long ITEMS_PER_ROUND = 20_000_000;
+
+    @Test
+    public void runParallelOrderTotalBenchmark() throws Exception {
+        System.out.println("\n🔥 STARTING PARALLEL ORDER TOTAL BENCHMARK 🔥");
+        System.out.println("📊 Crossover (default threshold: " + Order.DEFAULT_PARALLEL_TOTAL_THRESHOLD + " items)");
+        Integer crossover = null;
+        for (int size : SIZES) {
+            Order order = newOrder(size);
+            int calls = (int) Math.max(10, ITEMS_PER_ROUND / size);
+
+            BigDecimal expected = order.calculateTotal(Integer.MAX_VALUE);
+            double sequential = nanosPerCall(calls, () -> order.calculateTotal(Integer.MAX_VALUE));
+            assertThat(order.calculateTotal(1)).isEqualTo(expected);
+            double parallel = nanosPerCall(calls, () -> order.calculateTotal(1));
+
+            if (crossover == null && parallel < sequential) {
+                crossover = size;
+            }
+            System.out.printf("📊 %,9d items  sequential %,12.0f ns  |  fork-join %,12.0f ns  (%.2fx)%n",
+                    size, sequential, parallel, sequential / parallel);
+        }
+        System.out.println("📊 Fork-join first wins at: " + (crossover != null ? crossover + " items" : "never"));
+
+        System.out.println("📊 Scaling, 1,000,000 items");
+        Order order = newOrder(1_000_000);
+        double single = 0;
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int workers = 1; workers <= cores; workers = workers == cores ? cores + 1 : Math.min(cores, workers * 2)) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                double nanos = pool.submit(() -> nanosPerCall(20, () -> order.calculateTotal(1))).get();
+                if (workers == 1) {
+                    single = nanos;
+                }
+                System.out.printf("📊 %2d workers  %,12.0f ns  speed-up %.2fx%n", workers, nanos, single / nanos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static double nanosPerCall(int calls, Supplier<BigDecimal> total) {
+        BigDecimal sink = BigDecimal.ZERO;
+        // Warm-up
+        for (int i = 0; i < calls; i++) {
+            sink = total.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            sink = total.get();
+        }
+        long nanos = System.nanoTime() - start;
+        assertThat(sink).isNotNull();
+        return (double) nanos / calls;
+    }
+
+    private static Order newOrder(int size) {
+        return new Order(1L, IntStream.range(0, size)
+                .mapToObj(n -> new OrderItem((long) n, "Product " + n, 1 + n % 5,
+                        BigDecimal.valueOf(199 + n % 1_000, 2)))
+                .toList());
+    }
+}
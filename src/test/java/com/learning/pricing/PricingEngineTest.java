@@ -0,0 +1,114 @@
+package com.learning.pricing;
+
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for PricingEngine (rule kinds, precedence, hot reload, batches)
+ */
+class PricingEngineTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-15T12:00:00Z");
+
+    private final PricingEngine engine = new PricingEngine(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Should apply product discounts per line, then the best order-level discount")
+    void shouldApplyBestOrderLevelDiscount() {
+        engine.reload(List.of(
+                new PricingRule.ProductDiscount(1L, 10),
+                new PricingRule.Tier(new BigDecimal("25"), 5),
+                new PricingRule.UserDiscount(7L, 8),
+                new PricingRule.TimeWindow(NOW.minusSeconds(60), NOW.plusSeconds(60), 3)));
+
+        PriceQuote quote = engine.quote(order(1L, 7L));
+
+        assertThat(quote.subtotal()).isEqualTo(new BigDecimal("25.50"));
+        assertThat(quote.orderPercent()).isEqualTo(8);
+        // (20.00 - 10%) + 5.50 = 23.50, less 8%
+        assertThat(quote.total()).isEqualTo(new BigDecimal("21.62"));
+        assertThat(quote.discount()).isEqualTo(new BigDecimal("3.88"));
+    }
+
+    @Test
+    @DisplayName("Should ignore tiers above the subtotal and closed time windows")
+    void shouldSkipRulesThatDoNotMatch() {
+        engine.reload(List.of(
+                new PricingRule.Tier(new BigDecimal("10"), 2),
+                new PricingRule.Tier(new BigDecimal("100"), 20),
+                new PricingRule.TimeWindow(NOW.plusSeconds(60), NOW.plusSeconds(120), 50),
+                new PricingRule.UserDiscount(8L, 30)));
+
+        PriceQuote quote = engine.quote(order(1L, 7L));
+
+        assertThat(quote.orderPercent()).isEqualTo(2);
+        assertThat(quote.total()).isEqualTo(new BigDecimal("24.99"));
+    }
+
+    @Test
+    @DisplayName("Should switch rule sets atomically and keep the old ones on a bad reload")
+    void shouldHotReloadRules() {
+        Order order = order(1L, 7L);
+        long first = engine.reload(List.of(new PricingRule.UserDiscount(7L, 10)));
+        PriceQuote before = engine.quote(order);
+
+        long second = engine.reload(List.of(new PricingRule.UserDiscount(7L, 20)));
+        PriceQuote after = engine.quote(order);
+
+        assertThat(second).isGreaterThan(first);
+        assertThat(before.rulesVersion()).isEqualTo(first);
+        assertThat(before.total()).isEqualTo(new BigDecimal("22.95"));
+        assertThat(after.rulesVersion()).isEqualTo(second);
+        assertThat(after.total()).isEqualTo(new BigDecimal("20.40"));
+
+        assertThatThrownBy(() -> engine.reload(List.of(new PricingRule.Tier(new BigDecimal("1E+3"), 5))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(engine.rulesVersion()).isEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should price a batch like single quotes, including amounts Money cannot hold")
+    void shouldPriceBatches() {
+        engine.reload(List.of(new PricingRule.ProductDiscount(1L, 10), new PricingRule.UserDiscount(7L, 5)));
+        Order large = new Order(7L, List.of(new OrderItem(1L, "Bulk", 1, new BigDecimal("1E+3"))));
+        List<Order> orders = List.of(order(1L, 7L), order(2L, 8L), large);
+
+        List<PriceQuote> quotes = engine.quoteAll(orders);
+
+        assertThat(quotes).hasSize(3);
+        for (int i = 0; i < orders.size(); i++) {
+            assertThat(quotes.get(i)).isEqualTo(engine.quote(orders.get(i)));
+        }
+        // 1000 - 10% = 900, less 5%
+        assertThat(quotes.get(2).total()).isEqualByComparingTo("855");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid rules")
+    void shouldRejectInvalidRules() {
+        assertThatThrownBy(() -> new PricingRule.ProductDiscount(1L, 101))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid discount");
+        assertThatThrownBy(() -> new PricingRule.TimeWindow(NOW, NOW, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Order order(Long id, Long userId) {
+        Order order = new Order(userId, List.of(
+                new OrderItem(1L, "Keyboard", 2, new BigDecimal("10.00")),
+                new OrderItem(2L, "Mouse", 1, new BigDecimal("5.50"))));
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,94 @@
+package com.learning.pricing;
+
+import com.learning.model.DiscountRule;
+import com.learning.repository.DiscountRuleRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Unit test for PricingRuleLoader (discount_rules rows -> PricingEngine)
+ */
+@ExtendWith(MockitoExtension.class)
+class PricingRuleLoaderTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-15T12:00:00Z");
+
+    @Mock
+    private DiscountRuleRepository discountRuleRepository;
+
+    private final PricingEngine engine = new PricingEngine(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Should publish every rule kind and skip an unchanged table")
+    void shouldPublishChangedRulesOnly() {
+        // Given
+        PricingRuleLoader loader = new PricingRuleLoader(discountRuleRepository, engine);
+        given(discountRuleRepository.findByActiveTrueOrderById()).willReturn(List.of(
+                DiscountRule.tier(new BigDecimal("100.00"), 5),
+                DiscountRule.product(1L, 10),
+                DiscountRule.user(7L, 8),
+                DiscountRule.timeWindow(NOW.minusSeconds(60), NOW.plusSeconds(60), 3)));
+
+        // When
+        boolean first = loader.reload();
+        long version = engine.rulesVersion();
+        boolean second = loader.reload();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(engine.rulesVersion()).isEqualTo(version);
+        assertThat(engine.ruleCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should pick up an edited rule on the next reload")
+    void shouldReloadEditedRule() {
+        // Given
+        PricingRuleLoader loader = new PricingRuleLoader(discountRuleRepository, engine);
+        DiscountRule rule = DiscountRule.user(7L, 10);
+        given(discountRuleRepository.findByActiveTrueOrderById()).willReturn(List.of(rule));
+        loader.reload();
+        long before = engine.rulesVersion();
+
+        // When
+        rule.setPercent(20);
+        boolean reloaded = loader.reload();
+
+        // Then
+        assertThat(reloaded).isTrue();
+        assertThat(engine.rulesVersion()).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("Should keep the current rules when a row is invalid")
+    void shouldKeepRulesOnInvalidRow() {
+        // Given
+        PricingRuleLoader loader = new PricingRuleLoader(discountRuleRepository, engine);
+        given(discountRuleRepository.findByActiveTrueOrderById())
+                .willReturn(List.of(DiscountRule.user(7L, 10)))
+                .willReturn(List.of(DiscountRule.user(7L, 20), DiscountRule.product(null, 5)));
+        loader.reload();
+        long before = engine.rulesVersion();
+
+        // When
+        boolean reloaded = loader.reload();
+
+        // Then
+        assertThat(reloaded).isFalse();
+        assertThat(engine.rulesVersion()).isEqualTo(before);
+        assertThat(engine.ruleCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.learning.querycount;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fail the test when it issues a different number of SQL statements
+ * 
+ * Usage:
+ * 
+ * <pre>
+ * &#64;Test
+ * &#64;ExpectedQueries(select = 1, insert = 1)
+ * void shouldRegisterUser() { ... }
+ * </pre>
+ * 
+ * Only statements issued by the test method itself are counted (not by
+ * @BeforeEach / @AfterEach setup and cleanup); they are checked right after
+ * it. -1 (the default) means "don't check this kind". Statements are counted when they reach the JDBC driver,
+ * so inside a @DataJpaTest (rolled back, never committed) call flush() if
+ * pending UPDATE/DELETE statements should be counted.
+ * 
+ * The DataSource must be wrapped by QueryCountConfiguration (imported by
+ * AbstractContainerBaseTest).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@ExtendWith(QueryCountExtension.class)
+public @interface ExpectedQueries {
+
+    int select() default -1;
+
+    int insert() default -1;
+
+    int update() default -1;
+
+    int delete() default -1;
+}
@@ -0,0 +1,73 @@
+package com.learning.querycount;
+
+import com.learning.querycount.QueryRecorder.QueryType;
+import com.learning.querycount.QueryRecorder.RecordedQuery;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * JUnit 5 extension behind @ExpectedQueries
+ * 
+ * beforeTestExecution: start recording. afterTestExecution: compare counts per
+ * statement type and fail with the full list of executed statements on a
+ * mismatch. Only the test method itself is measured: SQL from @BeforeEach /
+ * @AfterEach fixtures runs outside the recording window.
+ */
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryRecorder.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        List<RecordedQuery> queries = QueryRecorder.stop();
+        ExpectedQueries expected = findAnnotation(context);
+        if (expected == null) {
+            return;
+        }
+
+        Map<QueryType, Long> actual = queries.stream()
+                .collect(Collectors.groupingBy(RecordedQuery::type, Collectors.counting()));
+
+        List<String> mismatches = new ArrayList<>();
+        check(mismatches, QueryType.SELECT, expected.select(), actual);
+        check(mismatches, QueryType.INSERT, expected.insert(), actual);
+        check(mismatches, QueryType.UPDATE, expected.update(), actual);
+        check(mismatches, QueryType.DELETE, expected.delete(), actual);
+
+        if (!mismatches.isEmpty()) {
+            StringBuilder report = new StringBuilder("Unexpected SQL statement count: ")
+                    .append(String.join(", ", mismatches))
+                    .append("\nExecuted statements (").append(queries.size()).append("):");
+            for (int i = 0; i < queries.size(); i++) {
+                report.append("\n  ").append(i + 1).append(". ").append(queries.get(i));
+            }
+            throw new AssertionFailedError(report.toString());
+        }
+    }
+
+    private static void check(List<String> mismatches, QueryType type, int expected, Map<QueryType, Long> actual) {
+        long count = actual.getOrDefault(type, 0L);
+        if (expected >= 0 && count != expected) {
+            mismatches.add(type + " expected " + expected + " but was " + count);
+        }
+    }
+
+    private static ExpectedQueries findAnnotation(ExtensionContext context) {
+        return context.getTestMethod()
+                .flatMap(method -> AnnotationSupport.findAnnotation(method, ExpectedQueries.class))
+                .or(() -> context.getTestClass()
+                        .flatMap(type -> AnnotationSupport.findAnnotation(type, ExpectedQueries.class)))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.learning.querycount;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DataSource proxy that reports every executed statement to QueryRecorder
+ * 
+ * Connections and statements are wrapped with JDK dynamic proxies: a
+ * PreparedStatement remembers its SQL and bound parameters and is recorded on
+ * execute*(), a plain Statement records the SQL passed to execute*() /
+ * addBatch().
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement cs) {
+                return wrapStatement(CallableStatement.class, cs, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement ps) {
+                return wrapStatement(PreparedStatement.class, ps, (String) args[0]);
+            }
+            if (result instanceof Statement st) {
+                return wrapStatement(Statement.class, st, null);
+            }
+            return result;
+        });
+    }
+
+    private static <T extends Statement> T wrapStatement(Class<T> type, T statement, String preparedSql) {
+        List<String> batch = new ArrayList<>();
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(type, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batch.add(args != null && args.length == 1 ? (String) args[0] : preparedSql);
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                if (!batch.isEmpty()) {
+                    QueryRecorder.record(batch.get(0), batch.size(), List.of());
+                    batch.clear();
+                }
+            } else if (name.startsWith("execute")) {
+                boolean prepared = args == null || args.length == 0;
+                QueryRecorder.record(prepared ? preparedSql : (String) args[0], 1,
+                        prepared ? Collections.unmodifiableList(new ArrayList<>(parameters.values())) : List.of());
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
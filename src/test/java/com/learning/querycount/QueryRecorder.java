@@ -0,0 +1,77 @@
+package com.learning.querycount;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the SQL statements executed while recording is on
+ * 
+ * Global (not thread-local) on purpose: full integration tests run requests on
+ * server threads, not on the test thread.
+ */
+public final class QueryRecorder {
+
+    public enum QueryType {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static QueryType of(String sql) {
+            String s = sql.stripLeading().toLowerCase(Locale.ROOT);
+            if (s.startsWith("select") || s.startsWith("with")) {
+                return SELECT;
+            }
+            if (s.startsWith("insert")) {
+                return INSERT;
+            }
+            if (s.startsWith("update")) {
+                return UPDATE;
+            }
+            if (s.startsWith("delete")) {
+                return DELETE;
+            }
+            return OTHER;
+        }
+    }
+
+    /**
+     * One execution: batchSize > 1 means one executeBatch() round trip.
+     * parameters are the values bound to the ? placeholders, in order (empty
+     * for batches).
+     */
+    public record RecordedQuery(QueryType type, String sql, int batchSize, List<Object> parameters) {
+
+        @Override
+        public String toString() {
+            return batchSize > 1 ? sql + " [batch x" + batchSize + "]" : sql;
+        }
+    }
+
+    private static final List<RecordedQuery> QUERIES = new ArrayList<>();
+    private static volatile boolean recording;
+
+    private QueryRecorder() {
+    }
+
+    public static void start() {
+        synchronized (QUERIES) {
+            QUERIES.clear();
+        }
+        recording = true;
+    }
+
+    public static List<RecordedQuery> stop() {
+        recording = false;
+        synchronized (QUERIES) {
+            return List.copyOf(QUERIES);
+        }
+    }
+
+    static void record(String sql, int batchSize, List<Object> parameters) {
+        if (!recording || sql == null) {
+            return;
+        }
+        synchronized (QUERIES) {
+            QUERIES.add(new RecordedQuery(QueryType.of(sql), sql, batchSize, parameters));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.learning.repository;
+
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderStatusEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for InMemoryOrderEventLog (no Spring, no database)
+ */
+class InMemoryOrderEventLogTest {
+
+    private final InMemoryOrderEventLog log = new InMemoryOrderEventLog();
+
+    private static OrderStatusEvent event(long orderId, int seq, OrderStatus from, OrderStatus to) {
+        return new OrderStatusEvent(orderId, seq, from, to, null, null, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should only append the next event of an order")
+    void shouldRejectOutOfSequenceEvents() {
+        // Given
+        log.save(event(1L, 1, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+
+        // Then: a stale writer (seq 1 again) and a gap (seq 3) are both rejected
+        assertThatThrownBy(() -> log.save(event(1L, 1, OrderStatus.PENDING, OrderStatus.CANCELLED)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("changed concurrently");
+        assertThatThrownBy(() -> log.save(event(1L, 3, OrderStatus.CONFIRMED, OrderStatus.SHIPPED)))
+                .isInstanceOf(IllegalStateException.class);
+        log.save(event(1L, 2, OrderStatus.CONFIRMED, OrderStatus.SHIPPED));
+        log.save(event(2L, 1, OrderStatus.PENDING, OrderStatus.CANCELLED));
+
+        assertThat(log.findByOrderIdInOrderByIdAsc(List.of(1L)))
+                .extracting(OrderStatusEvent::getToStatus)
+                .containsExactly(OrderStatus.CONFIRMED, OrderStatus.SHIPPED);
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of many writers append from the same state")
+    void shouldAppendOneOfConcurrentWriters() throws Exception {
+        // Given
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When: 8 writers all saw the order at event 0
+        List<Future<Boolean>> appended = IntStream.range(0, 8)
+                .mapToObj(i -> pool.submit(() -> {
+                    try {
+                        log.save(event(1L, 1, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+                        return true;
+                    } catch (IllegalStateException lost) {
+                        return false;
+                    }
+                }))
+                .toList();
+        int winners = 0;
+        for (Future<Boolean> future : appended) {
+            winners += future.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        // Then
+        assertThat(winners).isEqualTo(1);
+        assertThat(log.findByOrderIdAndIdGreaterThanOrderByIdAsc(1L, 0L)).hasSize(1);
+    }
+}
@@ -0,0 +1,244 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for InMemoryOrderRepository (no Spring, no database)
+ */
+class InMemoryOrderRepositoryTest {
+
+    private final InMemoryOrderRepository repository = new InMemoryOrderRepository();
+
+    @Test
+    @DisplayName("Should assign ids and index by user and status")
+    void shouldIndexByUserAndStatus() {
+        // Given
+        Order first = repository.save(new Order(1L, List.of()));
+        Order second = repository.save(new Order(1L, List.of()));
+        repository.save(new Order(2L, List.of()));
+
+        // Then
+        assertThat(first.getId()).isNotNull().isNotEqualTo(second.getId());
+        assertThat(repository.findByUserId(1L)).containsExactlyInAnyOrder(first, second);
+        assertThat(repository.findByUserId(3L)).isEmpty();
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).hasSize(3);
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should move the order between status indexes on save")
+    void shouldReindexOnStatusChange() {
+        // Given
+        Order order = repository.save(new Order(1L, List.of()));
+
+        // When
+        order.setStatus(OrderStatus.CONFIRMED);
+        repository.save(order);
+
+        // Then
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(repository.findByStatus(OrderStatus.CONFIRMED)).containsExactly(order);
+    }
+
+    @Test
+    @DisplayName("Should remove the order from every index on delete")
+    void shouldUnindexOnDelete() {
+        // Given
+        Order order = repository.save(new Order(1L, List.of()));
+
+        // When
+        repository.deleteById(order.getId());
+
+        // Then
+        assertThat(repository.findById(order.getId())).isEmpty();
+        assertThat(repository.findByUserId(1L)).isEmpty();
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep indexes consistent under concurrent transitions")
+    void shouldStayConsistentUnderConcurrency() throws Exception {
+        // Given
+        List<Order> orders = IntStream.range(0, 1_000)
+                .mapToObj(i -> repository.save(new Order((long) (i % 10), List.of())))
+                .toList();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When: 8 threads walk every order PENDING -> CONFIRMED -> SHIPPED
+        List<Future<?>> futures = IntStream.range(0, 8)
+                .mapToObj(t -> pool.submit(() -> {
+                    for (int i = t; i < orders.size(); i += 8) {
+                        Order order = orders.get(i);
+                        order.setStatus(OrderStatus.CONFIRMED);
+                        repository.save(order);
+                        order.setStatus(OrderStatus.SHIPPED);
+                        repository.save(order);
+                    }
+                }))
+                .toList();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Then
+        assertThat(repository.findByStatus(OrderStatus.SHIPPED)).hasSize(1_000);
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(repository.findByStatus(OrderStatus.CONFIRMED)).isEmpty();
+        assertThat(repository.findByUserId(3L)).hasSize(100);
+    }
+
+    @Test
+    @DisplayName("Should transition only from the expected status")
+    void shouldCompareAndSetStatus() {
+        // Given
+        Order order = repository.save(new Order(1L, List.of()));
+
+        // When
+        var confirmed = repository.transitionStatus(order.getId(), OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                o -> o.setPaymentId("txn_1"));
+        var stale = repository.transitionStatus(order.getId(), OrderStatus.PENDING, OrderStatus.CANCELLED,
+                o -> o.setPaymentId("never"));
+
+        // Then
+        assertThat(confirmed).hasValueSatisfying(o -> assertThat(o.getPaymentId()).isEqualTo("txn_1"));
+        assertThat(stale).isEmpty();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(order.getVersion()).isEqualTo(1L);
+        assertThat(repository.findByStatus(OrderStatus.CONFIRMED)).containsExactly(order);
+        assertThat(repository.transitionStatus(404L, OrderStatus.PENDING, OrderStatus.CONFIRMED, o -> {
+        })).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave the order untouched when the mutator throws")
+    void shouldRestoreOrderWhenMutatorThrows() {
+        // Given
+        Order order = repository.save(new Order(1L, List.of()));
+        LocalDateTime updatedAt = order.getUpdatedAt();
+
+        // When
+        assertThatThrownBy(() -> repository.transitionStatus(order.getId(), OrderStatus.PENDING,
+                OrderStatus.CONFIRMED, o -> {
+                    o.setPaymentId("txn_1");
+                    throw new IllegalStateException("event rejected");
+                })).isInstanceOf(IllegalStateException.class);
+
+        // Then
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(order.getPaymentId()).isNull();
+        assertThat(order.getUpdatedAt()).isEqualTo(updatedAt);
+        assertThat(order.getVersion()).isNull();
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).containsExactly(order);
+        assertThat(repository.findByStatus(OrderStatus.CONFIRMED)).isEmpty();
+        assertThat(repository.transitionStatus(order.getId(), OrderStatus.PENDING, OrderStatus.CONFIRMED, o -> {
+        })).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of many racing transitions win")
+    void shouldHaveOneWinnerPerRace() throws Exception {
+        // Given
+        List<Order> orders = IntStream.range(0, 500)
+                .mapToObj(i -> repository.save(new Order(1L, List.of())))
+                .toList();
+        AtomicInteger wins = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When: 8 threads try to confirm (or cancel) every order
+        List<Future<?>> futures = IntStream.range(0, 8)
+                .mapToObj(t -> pool.submit(() -> {
+                    OrderStatus target = t % 2 == 0 ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED;
+                    for (Order order : orders) {
+                        repository.transitionStatus(order.getId(), OrderStatus.PENDING, target, o -> {
+                        }).ifPresent(o -> wins.incrementAndGet());
+                    }
+                }))
+                .toList();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Then
+        assertThat(wins).hasValue(500);
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(repository.findByStatus(OrderStatus.CONFIRMED).size()
+                + repository.findByStatus(OrderStatus.CANCELLED).size()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Should page a user's orders newest first with filters")
+    void shouldPageByUserWithFilters() {
+        // Given
+        List<Order> orders = IntStream.range(0, 7)
+                .mapToObj(i -> repository.save(new Order(1L, List.of())))
+                .toList();
+        repository.save(new Order(2L, List.of()));
+        orders.get(1).setStatus(OrderStatus.CONFIRMED);
+        orders.get(4).setStatus(OrderStatus.CONFIRMED);
+        repository.save(orders.get(1));
+        repository.save(orders.get(4));
+
+        // When
+        List<Order> first = repository.findPageByUserId(1L, OrderFilter.ALL, null, 3);
+        List<Order> second = repository.findPageByUserId(1L, OrderFilter.ALL, first.get(2).getId(), 3);
+        List<Order> confirmed = repository.findPageByUserId(1L, OrderFilter.status(OrderStatus.CONFIRMED), null, 10);
+        List<Order> past = repository.findPageByUserId(1L,
+                new OrderFilter(null, null, LocalDateTime.now().minusDays(1)), null, 10);
+
+        // Then
+        assertThat(first).containsExactly(orders.get(6), orders.get(5), orders.get(4));
+        assertThat(second).containsExactly(orders.get(3), orders.get(2), orders.get(1));
+        assertThat(confirmed).containsExactly(orders.get(4), orders.get(1));
+        assertThat(past).isEmpty();
+        assertThat(repository.findPageByUserId(3L, OrderFilter.ALL, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep a moving order findable under its old or new status")
+    void shouldNeverHideAMovingOrder() throws Exception {
+        // Given
+        List<Long> ids = IntStream.range(0, 2_000)
+                .mapToObj(i -> repository.save(new Order(1L, List.of())).getId())
+                .toList();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+
+        // When: every order moves PENDING -> CONFIRMED once while a reader
+        // looks them up under PENDING, then CONFIRMED
+        Future<?> moves = writer.submit(() -> ids.forEach(id ->
+                repository.transitionStatus(id, OrderStatus.PENDING, OrderStatus.CONFIRMED, o -> {
+                })));
+        int rounds = 0;
+        while (!moves.isDone() || rounds == 0) {
+            Set<Long> seen = new HashSet<>();
+            repository.findByStatus(OrderStatus.PENDING).forEach(order -> seen.add(order.getId()));
+            repository.findByStatus(OrderStatus.CONFIRMED).forEach(order -> seen.add(order.getId()));
+
+            // Then
+            assertThat(seen).hasSize(ids.size());
+            rounds++;
+        }
+        moves.get();
+        writer.shutdown();
+        assertThat(repository.findByStatus(OrderStatus.CONFIRMED)).hasSize(ids.size());
+        assertThat(repository.findByStatus(OrderStatus.PENDING)).isEmpty();
+    }
+}
@@ -0,0 +1,392 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import com.learning.model.OrderItem;
+import com.learning.model.OrderStatusEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════════════════════╗
+ * ║ MAPPED ORDER STORE - Crash Recovery Tests ║
+ * ╚══════════════════════════════════════════════════════════════════════════════╝
+ * 
+ * Concepts:
+ * 1. Round trip: every Order field survives close + reopen.
+ * 2. Torn write: garbage after the last record is ignored and overwritten.
+ * 3. kill -9: a child JVM is killed mid-write; every acknowledged order is
+ * recovered.
+ * 4. Compaction: dead segments are removed without losing or resurrecting
+ * orders, and ids stay unique after the highest one was compacted away. A
+ * crash between appending the copies and deleting the old file replays
+ * each event once.
+ * 5. Event log: status events are records in the same segments; a
+ * transition writes only its EVENT, the order's PUT is re-snapshotted
+ * every SNAPSHOT_INTERVAL events, and the tail after the last PUT is
+ * folded in on recovery.
+ * 6. Old records: a PUT written before contactEmail decodes without one.
+ */
+class MappedOrderRepositoryTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should recover every field after close and reopen")
+    void shouldRoundTripOrders() {
+        // Given
+        Order order = new Order(42L, List.of(
+                new OrderItem(1L, "Keyboard", 2, new BigDecimal("49.99")),
+                new OrderItem(2L, "Mouse ✓", 1, new BigDecimal("19.5"))));
+        order.setShippingAddress("221B Baker Street");
+        order.setContactEmail("holmes@example.com");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPaymentId("txn_1");
+        LocalDateTime updatedAt = order.getUpdatedAt();
+
+        try (MappedOrderRepository repository = open()) {
+            repository.save(order);
+            repository.save(new Order(43L, List.of()));
+        }
+
+        // When
+        try (MappedOrderRepository reopened = open()) {
+            Order recovered = reopened.findById(order.getId()).orElseThrow();
+
+            // Then
+            assertThat(reopened.count()).isEqualTo(2);
+            assertThat(recovered.getUserId()).isEqualTo(42L);
+            assertThat(recovered.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(recovered.getTotalAmount()).isEqualTo(new BigDecimal("119.48"));
+            assertThat(recovered.getShippingAddress()).isEqualTo("221B Baker Street");
+            assertThat(recovered.getContactEmail()).isEqualTo("holmes@example.com");
+            assertThat(recovered.getPaymentId()).isEqualTo("txn_1");
+            assertThat(recovered.getCreatedAt()).isEqualTo(order.getCreatedAt());
+            assertThat(recovered.getUpdatedAt()).isEqualTo(updatedAt);
+            assertThat(recovered.getItems()).extracting(OrderItem::getProductName)
+                    .containsExactly("Keyboard", "Mouse ✓");
+            assertThat(reopened.findByStatus(OrderStatus.CONFIRMED)).containsExactly(recovered);
+
+            // New ids continue after the recovered ones
+            assertThat(reopened.save(new Order(44L, List.of())).getId()).isGreaterThan(order.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode a record written before contactEmail without a contact")
+    void shouldDecodeRecordWithoutContact() {
+        // Given: today's record less the trailing contactEmail field (int length + UTF-8 bytes)
+        Order order = new Order(42L, List.of(new OrderItem(1L, "Keyboard", 2, new BigDecimal("49.99"))));
+        order.setId(7L);
+        order.setContactEmail("holmes@example.com");
+        byte[] current = OrderRecordCodec.encodePut(order);
+        int contactLength = Integer.BYTES + "holmes@example.com".getBytes(StandardCharsets.UTF_8).length;
+        byte[] old = Arrays.copyOf(current, current.length - contactLength);
+
+        // When
+        Order decoded = OrderRecordCodec.decodePut(ByteBuffer.wrap(old));
+
+        // Then
+        assertThat(decoded.getId()).isEqualTo(7L);
+        assertThat(decoded.getUserId()).isEqualTo(42L);
+        assertThat(decoded.getTotalAmount()).isEqualTo(new BigDecimal("99.98"));
+        assertThat(decoded.getItems()).extracting(OrderItem::getProductName).containsExactly("Keyboard");
+        assertThat(decoded.getContactEmail()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn record at the end of the segment")
+    void shouldIgnoreTornWrite() throws Exception {
+        // Given
+        long position;
+        try (MappedOrderRepository repository = open()) {
+            repository.save(new Order(1L, List.of()));
+            repository.save(new Order(2L, List.of()));
+        }
+        position = endOfData(segments().get(0));
+
+        // Crash mid-write: a length header whose payload never made it
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(position);
+            file.writeInt(500);
+            file.writeInt(0xDEADBEEF);
+            file.write("partial".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // When
+        try (MappedOrderRepository reopened = open()) {
+            reopened.save(new Order(3L, List.of()));
+        }
+
+        // Then
+        try (MappedOrderRepository reopened = open()) {
+            assertThat(reopened.count()).isEqualTo(3);
+            assertThat(reopened.findByUserId(3L)).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover every acknowledged order after kill -9")
+    void shouldRecoverAfterKill() throws Exception {
+        // Given: a separate JVM writing as fast as it can
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                MappedOrderStoreWriter.class.getName(), directory.toString())
+                .redirectErrorStream(true)
+                .start();
+
+        List<Long> acknowledged = new ArrayList<>();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (acknowledged.size() < 5_000 && (line = output.readLine()) != null) {
+                if (line.startsWith("ACK ")) {
+                    acknowledged.add(Long.parseLong(line.substring(4)));
+                }
+            }
+
+            // When: no shutdown hook, no flush, no close
+            writer.destroyForcibly().waitFor();
+        }
+
+        // Then
+        assertThat(acknowledged).hasSize(5_000);
+        try (MappedOrderRepository recovered = open()) {
+            assertThat(acknowledged).allSatisfy(id -> assertThat(recovered.findById(id)).isPresent());
+            assertThat(recovered.count()).isGreaterThanOrEqualTo(acknowledged.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should compact dead segments without losing or resurrecting orders")
+    void shouldCompactOldSegments() throws Exception {
+        // Given: 100 orders rewritten many times + 10 deleted -> mostly dead segments
+        List<Order> orders = new ArrayList<>();
+        try (MappedOrderRepository repository = open()) {
+            for (int i = 0; i < 100; i++) {
+                orders.add(repository.save(new Order((long) i, List.of(
+                        new OrderItem(1L, "Item", 1, BigDecimal.ONE)))));
+            }
+            for (int round = 0; round < 30; round++) {
+                for (Order order : orders) {
+                    order.setShippingAddress("Address v" + round);
+                    repository.save(order);
+                }
+            }
+            for (int i = 0; i < 10; i++) {
+                repository.deleteById(orders.get(i).getId());
+            }
+            int before = repository.segmentCount();
+
+            // When
+            int removed = repository.compact();
+
+            // Then
+            assertThat(removed).isPositive();
+            assertThat(repository.segmentCount()).isEqualTo(before - removed);
+        }
+
+        try (MappedOrderRepository reopened = open()) {
+            assertThat(reopened.count()).isEqualTo(90);
+            assertThat(reopened.findById(orders.get(0).getId())).isEmpty();
+            assertThat(reopened.findById(orders.get(50).getId()).orElseThrow().getShippingAddress())
+                    .isEqualTo("Address v29");
+        }
+    }
+
+    @Test
+    @DisplayName("Should not duplicate events when compaction died before deleting the old segment")
+    void shouldRecoverFromCrashDuringCompaction() throws Exception {
+        // Given: an order and its event in the first segment, which later writes make mostly dead
+        Long orderId;
+        byte[] compactedSegment;
+        Path compactedPath;
+        try (MappedOrderRepository repository = open()) {
+            orderId = repository.save(new Order(1L, List.of())).getId();
+            repository.transitionStatus(orderId, OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                    order -> order.apply(repository.eventLog().save(event(orderId, 1, OrderStatus.PENDING,
+                            OrderStatus.CONFIRMED, "txn_1"))));
+            Order filler = repository.save(new Order(2L, List.of()));
+            for (int round = 0; repository.segmentCount() < 2; round++) {
+                filler.setShippingAddress("Address v" + round);
+                repository.save(filler);
+            }
+            compactedPath = segments().get(0);
+            compactedSegment = Files.readAllBytes(compactedPath);
+
+            // When: the copies are appended, then the process dies before the delete
+            assertThat(repository.compact()).isPositive();
+        }
+        Files.write(compactedPath, compactedSegment);
+
+        // Then
+        try (MappedOrderRepository reopened = open()) {
+            assertThat(reopened.count()).isEqualTo(2);
+            assertThat(reopened.eventLog().findByOrderIdInOrderByIdAsc(List.of(orderId)))
+                    .extracting(OrderStatusEvent::getSeq)
+                    .containsExactly(1);
+            assertThat(reopened.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(reopened.eventLog().save(event(orderId, 2, OrderStatus.CONFIRMED, OrderStatus.SHIPPED, null))
+                    .getSeq()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not reuse the id of a deleted order after compaction")
+    void shouldNotReuseCompactedIds() {
+        // Given: the highest id is deleted and both its records are compacted away
+        Order kept;
+        Long deletedId;
+        try (MappedOrderRepository repository = open()) {
+            kept = repository.save(new Order(1L, List.of()));
+            deletedId = repository.save(new Order(2L, List.of())).getId();
+            repository.deleteById(deletedId);
+            for (int round = 0; repository.segmentCount() < 4; round++) {
+                kept.setShippingAddress("Address v" + round);
+                repository.save(kept);
+            }
+            assertThat(repository.compact()).isPositive();
+        }
+
+        // When
+        try (MappedOrderRepository reopened = open()) {
+            Order created = reopened.save(new Order(3L, List.of()));
+
+            // Then
+            assertThat(created.getId()).isGreaterThan(deletedId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep status events in the segments and fold a lost snapshot back in")
+    void shouldRecoverStatusEvents() {
+        // Given: one transition with its PUT, one whose PUT was lost in a crash
+        Long orderId;
+        try (MappedOrderRepository repository = open()) {
+            orderId = repository.save(new Order(1L, List.of())).getId();
+            repository.transitionStatus(orderId, OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                    order -> order.apply(repository.eventLog().save(event(orderId, 1, OrderStatus.PENDING,
+                            OrderStatus.CONFIRMED, "txn_1"))));
+            repository.eventLog().save(event(orderId, 2, OrderStatus.CONFIRMED, OrderStatus.SHIPPED, null));
+        }
+
+        // When
+        try (MappedOrderRepository reopened = open()) {
+            Order recovered = reopened.findById(orderId).orElseThrow();
+            List<OrderStatusEvent> history = reopened.eventLog().findByOrderIdInOrderByIdAsc(List.of(orderId));
+
+            // Then
+            assertThat(history).extracting(OrderStatusEvent::getToStatus)
+                    .containsExactly(OrderStatus.CONFIRMED, OrderStatus.SHIPPED);
+            assertThat(recovered.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+            assertThat(recovered.getPaymentId()).isEqualTo("txn_1");
+            assertThat(recovered.getLastEventId()).isEqualTo(history.get(1).getId());
+            assertThat(reopened.findByStatus(OrderStatus.SHIPPED)).containsExactly(recovered);
+
+            // New event ids continue after the recovered ones
+            assertThat(reopened.eventLog().save(event(orderId, 3, OrderStatus.SHIPPED, OrderStatus.DELIVERED, null))
+                    .getId()).isGreaterThan(history.get(1).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write a PUT snapshot only every SNAPSHOT_INTERVAL events")
+    void shouldSnapshotPeriodically() throws Exception {
+        // Given
+        int transitions = 2 * MappedOrderRepository.SNAPSHOT_INTERVAL + 3;
+        Long orderId;
+        try (MappedOrderRepository repository = open()) {
+            orderId = repository.save(new Order(1L, List.of(
+                    new OrderItem(1L, "Keyboard", 2, new BigDecimal("49.99"))))).getId();
+
+            // When: bounce between two statuses, each move appending its event
+            for (int seq = 1; seq <= transitions; seq++) {
+                OrderStatus from = seq % 2 == 1 ? OrderStatus.PENDING : OrderStatus.CONFIRMED;
+                OrderStatus to = seq % 2 == 1 ? OrderStatus.CONFIRMED : OrderStatus.PENDING;
+                int next = seq;
+                assertThat(repository.transitionStatus(orderId, from, to,
+                        order -> order.apply(repository.eventLog().save(event(orderId, next, from, to,
+                                "txn_" + next))))).isPresent();
+            }
+        }
+
+        // Then: the save, then one PUT per interval; the rest is rebuilt from the tail
+        assertThat(countRecords(OrderRecordCodec.PUT)).isEqualTo(3);
+        assertThat(countRecords(OrderRecordCodec.EVENT)).isEqualTo(transitions);
+        try (MappedOrderRepository reopened = open()) {
+            Order recovered = reopened.findById(orderId).orElseThrow();
+            assertThat(recovered.getEventSeq()).isEqualTo(transitions);
+            assertThat(recovered.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(recovered.getPaymentId()).isEqualTo("txn_" + transitions);
+            assertThat(recovered.getTotalAmount()).isEqualTo(new BigDecimal("99.98"));
+        }
+    }
+
+    private static OrderStatusEvent event(Long orderId, int seq, OrderStatus from, OrderStatus to,
+            String paymentId) {
+        return new OrderStatusEvent(orderId, seq, from, to, paymentId, null, LocalDateTime.now());
+    }
+
+    private MappedOrderRepository open() {
+        return new MappedOrderRepository(directory, SEGMENT_SIZE, false, Duration.ZERO, Duration.ZERO);
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Walk the [length][crc][payload] records to the first empty slot
+     */
+    private int countRecords(byte type) throws Exception {
+        int count = 0;
+        for (Path segment : segments()) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+            int position = 0;
+            while (position + 8 <= buffer.capacity() && buffer.getInt(position) > 0) {
+                int length = buffer.getInt(position);
+                if (OrderRecordCodec.type(buffer.slice(position + 8, length)) == type) {
+                    count++;
+                }
+                position += 8 + length;
+            }
+        }
+        return count;
+    }
+
+    private static long endOfData(Path segment) throws Exception {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            long position = 0;
+            while (true) {
+                file.seek(position);
+                int length = file.readInt();
+                if (length == 0) {
+                    return position;
+                }
+                position += 8 + length;
+            }
+        }
+    }
+}
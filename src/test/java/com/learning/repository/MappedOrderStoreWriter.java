@@ -0,0 +1,30 @@
+package com.learning.repository;
+
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Child process for MappedOrderRepositoryTest's kill -9 scenario.
+ * 
+ * Saves orders forever and prints "ACK <id>" after each save() returns. The
+ * test kills this JVM without warning and checks every ACKed order survived.
+ */
+public class MappedOrderStoreWriter {
+
+    public static void main(String[] args) {
+        MappedOrderRepository repository = new MappedOrderRepository(Path.of(args[0]), 64 * 1024, false,
+                Duration.ZERO, Duration.ZERO);
+        for (long i = 0;; i++) {
+            Order order = new Order(i % 7, List.of(new OrderItem(i, "Product " + i, 1, new BigDecimal("9.99"))));
+            order.setShippingAddress("Crash Street " + i);
+            repository.save(order);
+            System.out.println("ACK " + order.getId());
+            System.out.flush();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.learning.repository;
+
+import com.learning.integration.AbstractContainerBaseTest;
+import com.learning.model.Order;
+import com.learning.model.OrderItem;
+import com.learning.model.OrderItemColumns;
+import com.learning.model.OrderStatusEvent;
+import com.learning.querycount.QueryRecorder;
+import com.learning.querycount.QueryRecorder.QueryType;
+import com.learning.querycount.QueryRecorder.RecordedQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════════════════════╗
+ * ║ ORDER REPOSITORY SLICE TEST (@DataJpaTest) ║
+ * ╚══════════════════════════════════════════════════════════════════════════════╝
+ * 
+ * Concepts:
+ * 1. Items are inserted as ONE JDBC batch (sequence IDs allow batching).
+ * 2. findByUserId loads orders + items in ONE SELECT (entity graph, no N+1).
+ * 3. transitionStatus is an UPDATE checked against the event sequence
+ * (compare-and-set).
+ * 4. transitionStatusAll confirms many orders with ONE batched UPDATE.
+ * 5. The event log rejects a second event with the same (order_id, seq).
+ * 6. findItemColumns reads an order's lines into columns, no entities.
+ * 
+ * QueryRecorder is used directly (not @ExpectedQueries) to count only the
+ * interesting part of each test, not the setup.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderRepositoryTest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private JpaOrderRepository orderRepository;
+
+    @Autowired
+    private JpaOrderEventLog orderEventLog;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should insert order items as one JDBC batch")
+    void shouldBatchItemInserts() {
+        // Given
+        Order order = new Order(1L, items(20));
+        order.setShippingAddress("1 Batch Street");
+
+        // When
+        QueryRecorder.start();
+        orderRepository.save(order);
+        entityManager.flush();
+        List<RecordedQuery> queries = QueryRecorder.stop();
+
+        // Then: 1 INSERT orders + 1 batched INSERT order_items (sequence table reads aside)
+        List<RecordedQuery> inserts = queries.stream().filter(q -> q.type() == QueryType.INSERT).toList();
+        assertThat(inserts).hasSize(2);
+        assertThat(inserts).anySatisfy(q -> assertThat(q.batchSize()).isEqualTo(20));
+    }
+
+    @Test
+    @DisplayName("Should load orders with their items in one SELECT")
+    void shouldFetchItemsWithoutNPlusOne() {
+        // Given
+        IntStream.range(0, 5).forEach(i -> orderRepository.save(new Order(2L, items(3))));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        QueryRecorder.start();
+        List<Order> orders = orderRepository.findByUserId(2L);
+        int itemCount = orders.stream().mapToInt(o -> o.getItems().size()).sum();
+        List<RecordedQuery> queries = QueryRecorder.stop();
+
+        // Then
+        assertThat(orders).hasSize(5);
+        assertThat(itemCount).isEqualTo(15);
+        assertThat(queries).as("statements: %s", queries).hasSize(1);
+        assertThat(orders.get(0).getTotalAmount()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    @DisplayName("Should transition status with one sequence-checked UPDATE")
+    void shouldCompareAndSetStatus() {
+        // Given
+        Order order = orderRepository.save(new Order(3L, items(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        QueryRecorder.start();
+        Optional<Order> confirmed = orderRepository.transitionStatus(order.getId(),
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, o -> o.setPaymentId("txn_1"));
+        List<RecordedQuery> queries = QueryRecorder.stop();
+        Optional<Order> stale = orderRepository.transitionStatus(order.getId(),
+                Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED, o -> {
+                });
+        entityManager.clear();
+
+        // Then
+        assertThat(confirmed).isPresent();
+        assertThat(stale).isEmpty();
+        assertThat(queries).filteredOn(q -> q.type() == QueryType.UPDATE).hasSize(1);
+        Order reloaded = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(reloaded.getPaymentId()).isEqualTo("txn_1");
+        assertThat(reloaded.getVersion()).isEqualTo(order.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("Should lose the race when an event was appended after the read")
+    void shouldRejectStaleEventSequence() {
+        // Given
+        Order order = orderRepository.save(new Order(4L, items(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When: a "concurrent" writer moves the row between our read and our UPDATE
+        // Then: the loser is told, not handed an empty result in a doomed transaction
+        assertThatThrownBy(() -> orderRepository.transitionStatus(order.getId(),
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED,
+                o -> entityManager.createNativeQuery("UPDATE orders SET event_seq = event_seq + 1 WHERE id = ?")
+                        .setParameter(1, o.getId())
+                        .executeUpdate()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        entityManager.clear();
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus())
+                .isEqualTo(Order.OrderStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should lose the race when the next event was already appended")
+    void shouldRejectTransitionOnDuplicateEventInsert() {
+        // Given: a "concurrent" writer appended event 1 but has not bumped the row yet
+        Order order = orderRepository.save(new Order(6L, items(1)));
+        orderEventLog.save(new OrderStatusEvent(order.getId(), 1, Order.OrderStatus.PENDING,
+                Order.OrderStatus.CANCELLED, null, null, LocalDateTime.now()));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When: our event 1 fails on the (order_id, seq) key at flush
+        // Then: reported as a lost race, not as a raw persistence error
+        assertThatThrownBy(() -> orderRepository.transitionStatus(order.getId(),
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED,
+                o -> o.apply(orderEventLog.save(new OrderStatusEvent(o.getId(), o.getEventSeq() + 1,
+                        Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, "txn_1", null,
+                        LocalDateTime.now())))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        entityManager.clear();
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus())
+                .isEqualTo(Order.OrderStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should reject a second status event with the same sequence number")
+    void shouldRejectDuplicateEventSequence() {
+        // Given
+        Order order = orderRepository.save(new Order(5L, items(1)));
+        orderEventLog.save(new OrderStatusEvent(order.getId(), 1, Order.OrderStatus.PENDING,
+                Order.OrderStatus.CONFIRMED, "txn_1", null, LocalDateTime.now()));
+        entityManager.flush();
+
+        // When: a writer that also started from event 0
+        orderEventLog.save(new OrderStatusEvent(order.getId(), 1, Order.OrderStatus.PENDING,
+                Order.OrderStatus.CANCELLED, null, null, LocalDateTime.now()));
+
+        // Then
+        assertThatThrownBy(() -> entityManager.flush()).isInstanceOf(PersistenceException.class);
+    }
+
+    @Test
+    @DisplayName("Should confirm many orders with one SELECT and one batched UPDATE")
+    void shouldBatchStatusTransitions() {
+        // Given
+        List<Long> ids = IntStream.range(0, 10)
+                .mapToObj(i -> orderRepository.save(new Order(5L, items(1))).getId())
+                .toList();
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        QueryRecorder.start();
+        List<Order> confirmed = orderRepository.transitionStatusAll(ids,
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, o -> o.setPaymentId("txn_" + o.getId()));
+        List<RecordedQuery> queries = QueryRecorder.stop();
+
+        // Then
+        assertThat(confirmed).hasSize(10);
+        assertThat(queries).filteredOn(q -> q.type() == QueryType.SELECT).hasSize(1);
+        assertThat(queries).filteredOn(q -> q.type() == QueryType.UPDATE)
+                .singleElement()
+                .satisfies(q -> assertThat(q.batchSize()).isEqualTo(10));
+        assertThat(orderRepository.findByStatus(Order.OrderStatus.CONFIRMED)).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("Should read item columns without creating entities")
+    void shouldReadItemColumns() {
+        // Given
+        Order order = orderRepository.save(new Order(6L, items(3)));
+        Order empty = orderRepository.save(new Order(6L, List.of()));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        QueryRecorder.start();
+        OrderItemColumns columns = orderRepository.findItemColumns(order.getId()).orElseThrow();
+        List<RecordedQuery> queries = QueryRecorder.stop();
+
+        // Then: a count and a scalar projection, nothing in the persistence context
+        assertThat(queries).as("statements: %s", queries).hasSize(2);
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        assertThat(columns.size()).isEqualTo(3);
+        assertThat(columns.asList()).extracting(OrderItem::getProductName)
+                .containsExactly("Product 0", "Product 1", "Product 2");
+        assertThat(columns.calculateTotal()).isEqualByComparingTo(order.getTotalAmount());
+        assertThat(orderRepository.findItemColumns(empty.getId())).hasValueSatisfying(
+                emptyColumns -> assertThat(emptyColumns.size()).isZero());
+        assertThat(orderRepository.findItemColumns(-1L)).isEmpty();
+    }
+
+    private static List<OrderItem> items(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new OrderItem((long) i, "Product " + i, 1, BigDecimal.TEN))
+                .toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.learning.repository;
+
+import com.learning.integration.AbstractContainerBaseTest;
+import com.learning.querycount.QueryRecorder;
+import com.learning.querycount.QueryRecorder.RecordedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════════════════════╗
+ * ║ EXPLAIN GUARD - No full table scans in UserRepository ║
+ * ╚══════════════════════════════════════════════════════════════════════════════╝
+ * 
+ * Concepts:
+ * 1. Calls each repository method, records the SQL and parameters it sends to
+ * the driver (QueryRecorder) and runs MySQL EXPLAIN for exactly that SQL,
+ * against the schema built by the Flyway migrations.
+ * 2. Fails when any table access is type = ALL (full table scan), e.g. after a
+ * query change that no index supports.
+ * 
+ * Data: 1,000 users, 10% active - like production, where inactive users pile up
+ * until they are archived. With an empty table MySQL scans regardless.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserRepositoryExplainTest extends AbstractContainerBaseTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (name, email, email_hash, password, active, created_at, updated_at) "
+                        + "VALUES (?, ?, UNHEX(MD5(?)), 'password123', ?, NOW(6) - INTERVAL ? MINUTE, NOW(6))",
+                java.util.stream.IntStream.range(0, 1_000)
+                        .mapToObj(i -> new Object[] { "User " + i, "user" + i + "@test.com", "user" + i + "@test.com",
+                                i % 10 == 0, i })
+                        .toList());
+    }
+
+    /**
+     * A repository method call with representative arguments
+     */
+    record RepositoryCall(String method, Consumer<UserRepository> call) {
+
+        @Override
+        public String toString() {
+            return method;
+        }
+    }
+
+    static Stream<RepositoryCall> repositoryCalls() {
+        return Stream.of(
+                new RepositoryCall("findById", repository -> repository.findById(42L)),
+                new RepositoryCall("findByEmail", repository -> repository.findByEmail("user42@test.com")),
+                new RepositoryCall("existsByEmail", repository -> repository.existsByEmail("user42@test.com")),
+                new RepositoryCall("findByActiveTrue", UserRepository::findByActiveTrue),
+                new RepositoryCall("findArchiveCandidates", repository -> repository.findArchiveCandidates(
+                        100L, LocalDateTime.now(), PageRequest.of(0, 500))),
+                new RepositoryCall("findAll (recent users page)", repository -> repository.findAll(
+                        PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")))),
+                new RepositoryCall("findArchivedByEmail", repository -> repository.findArchivedByEmail("user42@test.com")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    @DisplayName("Repository query must not do a full table scan")
+    void shouldUseAnIndex(RepositoryCall call) {
+        // When: capture the SQL (and bound parameters) the method really issues
+        QueryRecorder.start();
+        call.call().accept(userRepository);
+        List<RecordedQuery> queries = QueryRecorder.stop();
+
+        // Then
+        assertThat(queries).as("SQL issued by %s", call).isNotEmpty();
+        for (RecordedQuery query : queries) {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + query.sql(),
+                    query.parameters().toArray());
+
+            assertThat(plan)
+                    .as("EXPLAIN for %s: %s -> %s", call, query.sql(), plan)
+                    .noneMatch(row -> "ALL".equals(row.get("type")));
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.learning.repository;
 
 import com.learning.integration.AbstractContainerBaseTest;
 import com.learning.model.User;
+import com.learning.querycount.ExpectedQueries;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -34,6 +36,9 @@ class UserRepositoryTest extends AbstractContainerBaseTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("Should find user by active status (Derived Query)")
     void shouldFindActiveUsers() {
@@ -66,4 +71,43 @@ class UserRepositoryTest extends AbstractContainerBaseTest {
         assertThat(userRepository.existsByEmail("exist@test.com")).isTrue();
         assertThat(userRepository.existsByEmail("other@test.com")).isFalse();
     }
+
+    @Test
+    @ExpectedQueries(select = 1, insert = 1)
+    @DisplayName("Should load user by email with a single SELECT")
+    void shouldFindByEmailWithOneQuery() {
+        userRepository.save(new User("Single", "single@test.com", "password123"));
+
+        assertThat(userRepository.findByEmail("single@test.com")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should find user by email through the hash column (case-insensitive)")
+    void shouldFindByEmailHash() {
+        // Given
+        User user = new User("Hashed", "Hashed.User@Test.com", "password123");
+        userRepository.save(user);
+
+        // When
+        Optional<User> found = userRepository.findByEmail("hashed.user@test.com");
+
+        // Then
+        assertThat(found).isPresent();
+        assertThat(found.get().getEmailHash()).hasSize(16);
+        assertThat(userRepository.existsByEmail(" HASHED.USER@TEST.COM ")).isTrue();
+        assertThat(userRepository.findByEmail("other.user@test.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match a stored email with surrounding whitespace")
+    void shouldMatchUntrimmedStoredEmail() {
+        // Given: a row written before emails were normalized
+        jdbcTemplate.update("INSERT INTO users (name, email, email_hash, password, active, created_at) "
+                + "VALUES ('Padded', ' Padded@Test.com ', ?, 'password123', true, NOW())",
+                (Object) User.hashEmail("padded@test.com"));
+
+        // Then
+        assertThat(userRepository.existsByEmail("padded@test.com")).isTrue();
+        assertThat(userRepository.findByEmail("PADDED@test.com")).isPresent();
+    }
 }
@@ -0,0 +1,97 @@
+package com.learning.resilience;
+
+import com.learning.resilience.CircuitBreaker.State;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for CircuitBreaker state changes
+ */
+class CircuitBreakerTest {
+
+    @Test
+    @DisplayName("Should stay closed until the minimum number of calls is reached")
+    void shouldWaitForMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(10), 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        breaker.tryAcquire();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should only count the last windowSize outcomes")
+    void shouldForgetOldOutcomes() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.75, Duration.ofSeconds(10), 1);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess();
+        }
+        breaker.onFailure();
+        breaker.onFailure();
+
+        // window is now [S, S, F, F]: 50% < 75%
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should close after successful half-open probes")
+    void shouldCloseAfterProbes() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ofMillis(20), 2);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+
+        Thread.sleep(30);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).as("only 2 probes at a time").isFalse();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should reopen when a half-open probe fails")
+    void shouldReopenOnFailedProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ofMillis(20), 2);
+        breaker.onFailure();
+        breaker.onFailure();
+        Thread.sleep(30);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should hand a released probe permit to the next caller")
+    void shouldReleaseProbePermit() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ofMillis(20), 1);
+        breaker.onFailure();
+        breaker.onFailure();
+        Thread.sleep(30);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.release();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
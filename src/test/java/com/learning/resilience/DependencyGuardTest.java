@@ -0,0 +1,242 @@
+package com.learning.resilience;
+
+import com.learning.external.EmailService;
+import com.learning.external.PaymentGateway;
+import com.learning.external.PaymentGateway.PaymentRequest;
+import com.learning.external.PaymentGateway.PaymentResult;
+import com.learning.external.ResilientEmailService;
+import com.learning.external.ResilientPaymentGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * DependencyGuard through ResilientPaymentGateway, against a local gateway
+ * stub with injectable latency and failures (no mocks: the guard's threads
+ * and timeouts are the thing under test)
+ */
+class DependencyGuardTest {
+
+    /**
+     * Gateway stub: sleeps latencyMillis (or slowCards' latency for that
+     * card), then succeeds or throws
+     */
+    static class LatencyGateway implements PaymentGateway {
+        volatile long latencyMillis;
+        final Map<String, Long> slowCards = new ConcurrentHashMap<>();
+        volatile boolean failing;
+        volatile CountDownLatch gate;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<PaymentResult> processPayments(List<PaymentRequest> requests) {
+            batchCalls.incrementAndGet();
+            return PaymentGateway.super.processPayments(requests);
+        }
+
+        @Override
+        public PaymentResult processPayment(BigDecimal amount, String currency, String cardToken) {
+            calls.incrementAndGet();
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+                Thread.sleep(slowCards.getOrDefault(cardToken, latencyMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted");
+            }
+            if (failing) {
+                throw new IllegalStateException("gateway error");
+            }
+            return new PaymentResult(true, "txn_" + cardToken, "Success");
+        }
+
+        @Override
+        public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+            return new PaymentResult(true, "ref_" + transactionId, "Refunded");
+        }
+
+        @Override
+        public boolean verifyPayment(String transactionId) {
+            return true;
+        }
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LatencyGateway stub = new LatencyGateway();
+    private DependencyGuard guard;
+
+    @AfterEach
+    void tearDown() {
+        if (stub.gate != null) {
+            stub.gate.countDown();
+        }
+        guard.close();
+    }
+
+    private ResilientPaymentGateway gateway(int maxConcurrent, int queueCapacity,
+            Duration minTimeout, Duration maxTimeout) {
+        guard = new DependencyGuard("payment",
+                new DependencyGuard.Settings(maxConcurrent, queueCapacity, 3.0, minTimeout, maxTimeout,
+                        10, 5, 0.5, Duration.ofSeconds(30), 1),
+                registry);
+        return new ResilientPaymentGateway(stub, guard);
+    }
+
+    private void charge(PaymentGateway gateway, int n) {
+        gateway.processPayment(BigDecimal.TEN, "INR", "tok_" + n);
+    }
+
+    @Test
+    @DisplayName("Should tighten the timeout to the observed latency and cut off slow calls")
+    void shouldAdaptTimeout() {
+        PaymentGateway gateway = gateway(4, 10, Duration.ofMillis(50), Duration.ofSeconds(5));
+        assertThat(guard.currentTimeout()).as("cold: max timeout").isEqualTo(Duration.ofSeconds(5));
+
+        stub.latencyMillis = 5;
+        for (int i = 0; i < 60; i++) {
+            charge(gateway, i);
+        }
+        assertThat(guard.currentTimeout()).isLessThan(Duration.ofSeconds(1));
+
+        stub.latencyMillis = 3_000;
+        long start = System.nanoTime();
+        PaymentResult slow = gateway.processPayment(BigDecimal.TEN, "INR", "tok_99");
+        assertThat(slow.outcomeUnknown()).as("started, so maybe charged").isTrue();
+        assertThat(slow.message()).contains("timed out");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+        assertThat(registry.get("dependency.rejections").tag("reason", "timeout").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("dependency.calls").tag("outcome", "success").timer().count())
+                .isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Should send a batch through the delegate's batch endpoint, one guarded call per chunk")
+    void shouldGuardBatchPerChunk() {
+        // Given: each charge takes 30ms, over the single-charge timeout for a whole chunk
+        PaymentGateway gateway = gateway(4, 10, Duration.ofMillis(100), Duration.ofMillis(100));
+        stub.latencyMillis = 30;
+        List<PaymentRequest> requests = IntStream.range(0, ResilientPaymentGateway.BATCH_CHUNK + 2)
+                .mapToObj(i -> new PaymentRequest(BigDecimal.TEN, "INR", "tok_" + i))
+                .toList();
+
+        // When
+        List<PaymentResult> results = gateway.processPayments(requests);
+
+        // Then: the chunk's timeout is scaled to its size
+        assertThat(results).allMatch(PaymentResult::success);
+        assertThat(results.get(11).transactionId()).isEqualTo("txn_tok_11");
+        assertThat(stub.batchCalls.get()).isEqualTo(2);
+        assertThat(registry.get("dependency.calls").tag("outcome", "success").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should hand every charge of a timed-out batch chunk its line of the late answer")
+    void shouldSettleTimedOutBatchCharge() throws Exception {
+        // Given: the second card takes longer than the whole chunk's timeout (3 x 100ms)
+        PaymentGateway gateway = gateway(4, 10, Duration.ofMillis(100), Duration.ofMillis(100));
+        stub.slowCards.put("tok_1", 600L);
+
+        // When
+        List<PaymentResult> results = gateway.processPayments(List.of(
+                new PaymentRequest(BigDecimal.TEN, "INR", "tok_0"),
+                new PaymentRequest(BigDecimal.TEN, "INR", "tok_1"),
+                new PaymentRequest(BigDecimal.TEN, "INR", "tok_2")));
+
+        // Then: the chunk started, so every charge in it is unknown, not declined
+        assertThat(results).allMatch(PaymentResult::outcomeUnknown);
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).outcome().get(5, TimeUnit.SECONDS))
+                    .isEqualTo(new PaymentResult(true, "txn_tok_" + i, "Success"));
+        }
+        assertThat(stub.batchCalls.get()).isEqualTo(1);
+        assertThat(stub.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should refuse calls beyond the bulkhead's threads and queue")
+    void shouldRejectWhenBulkheadFull() throws Exception {
+        PaymentGateway gateway = gateway(2, 1, Duration.ofSeconds(5), Duration.ofSeconds(5));
+        stub.gate = new CountDownLatch(1);
+
+        CompletableFuture<?>[] waiting = new CompletableFuture<?>[3];
+        for (int i = 0; i < waiting.length; i++) {
+            int n = i;
+            waiting[i] = CompletableFuture.runAsync(() -> charge(gateway, n));
+        }
+        while (registry.get("dependency.queue.depth").gauge().value() < 1
+                || registry.get("dependency.in.flight").gauge().value() < 2) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> charge(gateway, 3))
+                .isInstanceOf(DependencyUnavailableException.class)
+                .hasMessageContaining("bulkhead full");
+        assertThat(registry.get("dependency.rejections").tag("reason", "bulkhead").counter().count())
+                .isEqualTo(1);
+
+        stub.gate.countDown();
+        CompletableFuture.allOf(waiting).get(5, TimeUnit.SECONDS);
+        assertThat(stub.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit on failures and stop calling the gateway")
+    void shouldOpenCircuit() {
+        PaymentGateway gateway = gateway(4, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        stub.failing = true;
+
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            assertThatThrownBy(() -> charge(gateway, n))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("gateway error");
+        }
+
+        assertThat(guard.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(registry.get("dependency.circuit.state").gauge().value()).isEqualTo(1.0);
+        assertThatThrownBy(() -> charge(gateway, 5))
+                .isInstanceOf(DependencyUnavailableException.class)
+                .hasMessageContaining("circuit open");
+        assertThat(stub.calls.get()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("ResilientEmailService should report a timed-out send as not sent")
+    void emailShouldDegradeToFalse() {
+        guard = new DependencyGuard("email",
+                DependencyGuard.Settings.of(1, 1, Duration.ofMillis(50), Duration.ofMillis(50)), registry);
+        EmailService slowMailServer = mock(EmailService.class);
+        given(slowMailServer.sendWelcomeEmail(any(), any())).willAnswer(invocation -> {
+            Thread.sleep(3_000);
+            return true;
+        });
+        EmailService emailService = new ResilientEmailService(slowMailServer, guard);
+
+        assertThat(emailService.sendWelcomeEmail("a@test.com", "A")).isFalse();
+        assertThat(registry.get("dependency.rejections").tags("dependency", "email", "reason", "timeout")
+                .counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.learning.service;
+
+import com.learning.model.Order;
+import com.learning.model.Order.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for OrderStateMachine (transition table, meters, listeners)
+ */
+class OrderStateMachineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderStateMachine stateMachine = new OrderStateMachine(meterRegistry);
+
+    @ParameterizedTest(name = "{0} -> {1} allowed: {2}")
+    @CsvSource({
+            "PENDING, CONFIRMED, true",
+            "PENDING, CANCELLED, true",
+            "PENDING, SHIPPED, false",
+            "CONFIRMED, SHIPPED, true",
+            "PROCESSING, SHIPPED, true",
+            "SHIPPED, CANCELLED, false",
+            "SHIPPED, DELIVERED, true",
+            "DELIVERED, CANCELLED, false",
+            "CANCELLED, CANCELLED, false"
+    })
+    @DisplayName("Should follow the transition table")
+    void shouldFollowTransitionTable(OrderStatus from, OrderStatus to, boolean allowed) {
+        assertThat(stateMachine.canTransition(from, to)).isEqualTo(allowed);
+    }
+
+    @Test
+    @DisplayName("Should throw with the caller's message for an illegal transition")
+    void shouldRejectIllegalTransition() {
+        assertThatThrownBy(() -> stateMachine.checkTransition(OrderStatus.SHIPPED, OrderStatus.CANCELLED,
+                "Cannot cancel shipped/delivered order"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cannot cancel shipped/delivered order");
+    }
+
+    @Test
+    @DisplayName("Should count, time and publish a transition")
+    void shouldRecordTransition() {
+        // Given
+        List<Duration> seen = new ArrayList<>();
+        stateMachine.addListener((order, from, to, timeInFrom) -> seen.add(timeInFrom));
+        Order order = new Order(1L, List.of());
+
+        // When: order sat in PENDING for ~5 minutes
+        stateMachine.fire(order, OrderStatus.PENDING, OrderStatus.CONFIRMED, LocalDateTime.now().minusMinutes(5));
+
+        // Then
+        assertThat(meterRegistry.get("order.transitions")
+                .tag("from", "PENDING").tag("to", "CONFIRMED").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("order.transition.time")
+                .tag("from", "PENDING").tag("to", "CONFIRMED").timer().totalTime(TimeUnit.SECONDS))
+                .isGreaterThanOrEqualTo(299.0);
+        assertThat(seen).singleElement().satisfies(d -> assertThat(d).isGreaterThanOrEqualTo(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Should notify listeners but not count compensations")
+    void shouldNotCountCompensation() {
+        List<OrderStatus> seen = new ArrayList<>();
+        stateMachine.addListener((order, from, to, timeInFrom) -> seen.add(to));
+
+        stateMachine.fire(new Order(1L, List.of()), OrderStatus.CANCELLED, OrderStatus.CONFIRMED, null);
+
+        assertThat(seen).containsExactly(OrderStatus.CONFIRMED);
+        assertThat(meterRegistry.find("order.transitions").tag("from", "CANCELLED").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep notifying when a listener throws")
+    void shouldIsolateFailingListener() {
+        // Given: the first listener always fails
+        List<OrderStatus> seen = new ArrayList<>();
+        stateMachine.addListener((order, from, to, timeInFrom) -> {
+            throw new IllegalStateException("listener bug");
+        });
+        stateMachine.addListener((order, from, to, timeInFrom) -> seen.add(to));
+        Order order = new Order(1L, List.of());
+
+        // When & Then: the stored transition is not failed by the listener
+        assertThatCode(() -> {
+            stateMachine.created(order);
+            stateMachine.fire(order, OrderStatus.PENDING, OrderStatus.CONFIRMED, null);
+        }).doesNotThrowAnyException();
+        assertThat(seen).containsExactly(OrderStatus.PENDING, OrderStatus.CONFIRMED);
+        assertThat(meterRegistry.get("order.transitions")
+                .tag("from", "PENDING").tag("to", "CONFIRMED").counter().count()).isEqualTo(1.0);
+    }
+}
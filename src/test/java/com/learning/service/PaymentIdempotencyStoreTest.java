@@ -0,0 +1,110 @@
+package com.learning.service;
+
+import com.learning.external.PaymentGateway.PaymentResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for PaymentIdempotencyStore (ownership, results, TTL)
+ */
+class PaymentIdempotencyStoreTest {
+
+    private static final PaymentResult CHARGED = new PaymentResult(true, "txn_1", "Success");
+
+    private final PaymentIdempotencyStore store = new PaymentIdempotencyStore(Duration.ofMinutes(10));
+
+    @Test
+    @DisplayName("Should give the first caller ownership and later callers the pending result")
+    void shouldShareInFlightAttempt() {
+        assertThat(store.begin(1L)).isEmpty();
+
+        CompletableFuture<PaymentResult> retry = store.begin(1L).orElseThrow();
+        assertThat(retry).isNotDone();
+        assertThat(store.begin(2L)).as("other orders are independent").isEmpty();
+
+        store.complete(1L, CHARGED);
+        assertThat(retry).isCompletedWithValue(CHARGED);
+        assertThat(store.begin(1L)).hasValueSatisfying(
+                result -> assertThat(result).isCompletedWithValue(CHARGED));
+    }
+
+    @Test
+    @DisplayName("Should pass a failure to waiters and free the key")
+    void shouldFreeKeyOnFailure() {
+        store.begin(1L);
+        CompletableFuture<PaymentResult> retry = store.begin(1L).orElseThrow();
+
+        store.fail(1L, new IllegalStateException("declined"));
+
+        assertThat(retry).isCompletedExceptionally();
+        assertThat(store.begin(1L)).as("next attempt owns the key again").isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the key of an attempt with an unknown outcome until it is settled")
+    void shouldHoldUnknownOutcome() {
+        store.begin(1L);
+
+        store.markUnknown(1L);
+
+        assertThat(store.isOutcomeUnknown(1L)).isTrue();
+        assertThat(store.begin(1L)).as("no new attempt").hasValueSatisfying(
+                result -> assertThat(result).isNotDone());
+
+        store.fail(1L, new IllegalStateException("declined"));
+        assertThat(store.isOutcomeUnknown(1L)).isFalse();
+        assertThat(store.begin(1L)).as("settled: next attempt owns the key").isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should forget completed attempts after the TTL")
+    void shouldExpireCompletedAttempts() throws InterruptedException {
+        PaymentIdempotencyStore shortLived = new PaymentIdempotencyStore(Duration.ofMillis(20));
+        shortLived.begin(1L);
+        shortLived.begin(2L);
+        shortLived.complete(1L, CHARGED);
+
+        Thread.sleep(40);
+        shortLived.evictExpired();
+
+        assertThat(shortLived.size()).as("in-flight attempts never expire").isEqualTo(1);
+        assertThat(shortLived.begin(1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should never expire an in-flight attempt, whatever nanoTime reads")
+    void shouldKeepInFlightAttemptAtNegativeNanoTime() {
+        // Given: nanoTime may be any long, negative included
+        AtomicLong now = new AtomicLong(-5);
+        PaymentIdempotencyStore store = new PaymentIdempotencyStore(Duration.ofNanos(10), now::get);
+        store.begin(1L);
+        store.begin(2L);
+
+        // When
+        store.evictExpired();
+
+        // Then
+        assertThat(store.begin(1L)).as("still in flight").hasValueSatisfying(
+                result -> assertThat(result).isNotDone());
+
+        store.complete(2L, CHARGED);
+        now.addAndGet(10);
+        store.evictExpired();
+        assertThat(store.size()).as("only the completed attempt expired").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject ending an attempt nobody began")
+    void shouldRejectUnknownAttempt() {
+        assertThatThrownBy(() -> store.complete(1L, CHARGED))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No payment attempt in flight");
+    }
+}
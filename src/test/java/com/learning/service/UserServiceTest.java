@@ -104,6 +104,38 @@ class UserServiceTest {
             verify(emailService, never()).sendWelcomeEmail(anyString(), anyString());
         }
 
+        @Test
+        @DisplayName("❌ Should NOT register an email held by an archived user")
+        void shouldFailIfEmailArchived() {
+            // Given
+            String email = "old@example.com";
+            given(userRepository.existsByEmail(email)).willReturn(false);
+            given(userRepository.findArchivedByEmail(email)).willReturn(Optional.of(new User("Old", email, "pass")));
+
+            // When & Then
+            assertThatThrownBy(() -> userService.registerUser("User", email, "pass123"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Email already registered");
+            verify(userRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("❌ Should NOT move a profile onto an archived user's email")
+        void shouldFailProfileUpdateToArchivedEmail() {
+            // Given
+            User user = new User("Test", "test@example.com", "pass");
+            given(userRepository.findById(1L)).willReturn(Optional.of(user));
+            given(userRepository.existsByEmail("old@example.com")).willReturn(false);
+            given(userRepository.findArchivedByEmail("old@example.com"))
+                    .willReturn(Optional.of(new User("Old", "old@example.com", "pass")));
+
+            // When & Then
+            assertThatThrownBy(() -> userService.updateProfile(1L, "Test", "old@example.com"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Email already in use");
+            verify(userRepository, never()).save(any());
+        }
+
         @Test
         @DisplayName("❌ Should fail on invalid input")
         void shouldFailValidation() {
@@ -147,5 +179,21 @@ class UserServiceTest {
             // Then
             assertThat(result).isEmpty();
         }
+
+        @Test
+        @DisplayName("✅ Should fall back to the archive for archived users")
+        void shouldFallBackToArchive() {
+            // Given
+            User archived = new User("Old", "old@test.com", "pass");
+            archived.setActive(false);
+            given(userRepository.findById(7L)).willReturn(Optional.empty());
+            given(userRepository.findArchivedById(7L)).willReturn(Optional.of(archived));
+
+            // When
+            Optional<User> result = userService.findById(7L);
+
+            // Then
+            assertThat(result).contains(archived);
+        }
     }
 }